@@ -0,0 +1,73 @@
+package com.reliaquest.api.cache;
+
+import com.reliaquest.api.model.BackendEmployeeResponseDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the trigram-indexed name search against the lower-case-and-contains scan that it replaced. The roster is
+ * made of random first/last name pairs, so a fragment like "son" matches a fair share of it while "zzz" matches
+ * nothing at all, which is the case where the index helps the most.
+ * <p>
+ * Run with {@code ./gradlew :api:jmh -PjmhIncludes=NameSearchBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NameSearchBenchmark {
+    private static final String[] FIRST_NAMES = {"James", "Mary", "Robert", "Patricia", "John", "Jennifer", "Michael",
+            "Linda", "David", "Elizabeth", "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas",
+            "Sarah", "Charles", "Karen"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller",
+            "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas",
+            "Taylor", "Moore", "Jackson", "Martin"};
+
+    @Param({"1000", "100000", "1000000"})
+    int size;
+
+    @Param({"son", "Patricia Ga", "zzz", "ar"})
+    String fragment;
+
+    private List<BackendEmployeeResponseDto> employees;
+    private EmployeeSnapshot snapshot;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(size);
+        employees = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            employees.add(BackendEmployeeResponseDto.builder()
+                    .id(Integer.toString(i))
+                    .name(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                            + LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " " + random.nextInt(1000))
+                    .salary(random.nextInt(500_000))
+                    .build());
+        }
+        snapshot = EmployeeSnapshot.of(1, Instant.now(), employees);
+    }
+
+    @Benchmark
+    public List<BackendEmployeeResponseDto> scan() {
+        String lowerCaseFragment = fragment.toLowerCase();
+        return employees.stream()
+                .filter(employee -> employee.getName().toLowerCase().contains(lowerCaseFragment))
+                .toList();
+    }
+
+    @Benchmark
+    public List<BackendEmployeeResponseDto> indexed() {
+        return snapshot.findByNameContaining(fragment);
+    }
+}
@@ -0,0 +1,386 @@
+package com.reliaquest.api.cache;
+
+import com.reliaquest.api.model.BackendEmployeeResponseDto;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * A read-only roster stored column by column rather than as one DTO per employee. Salary and age are primitive int
+ * arrays, titles (of which there are few distinct ones) are dictionary-encoded as an int code per row, and ids, names
+ * and emails are stored as UTF-8 in a single direct buffer outside the Java heap. So a roster of a million employees
+ * is a handful of arrays and one buffer to the garbage collector instead of millions of small objects.
+ * <p>
+ * It is still a {@code List<BackendEmployeeResponseDto>}: {@link #get} builds the DTO for a row when it is asked for,
+ * so only the rows a response actually returns are ever materialized, and they are garbage as soon as the response
+ * has been written. The DTOs are new on every call, so changing one changes nothing here. Code that only needs one
+ * field of a row, like the snapshot's indexes, reads it straight from the column instead ({@link #id}, {@link #name},
+ * {@link #salary}).
+ * <p>
+ * Lookups by id go through an open-addressing table of row numbers that compares the id against the bytes in the
+ * buffer, so the ids don't have to be kept on the heap as map keys either. As with the map it replaces, the first row
+ * with a given id wins.
+ * <p>
+ * A roster with some rows deleted and some employees appended is built column by column as well ({@link #withChanges}):
+ * the kept runs of rows are bulk-copied from this roster's arrays and buffer, and only the appended employees are
+ * encoded. The title dictionary is carried over as it is, so it may keep titles that no row uses any more.
+ * <p>
+ * Only the roster itself is kept this way. The snapshot's name indexes over it are not: the keys of the index by name
+ * and the lower-cased names that {@link NameSearchIndex} checks its candidates against are ordinary strings on the
+ * heap, one or two per employee.
+ * <p>
+ * Missing salaries and ages are stored as {@link Integer#MIN_VALUE}, which the backend never hands out. The buffer is
+ * immutable once built and only read with absolute gets, so any number of threads can read a roster at once.
+ */
+final class ColumnarRoster extends AbstractList<BackendEmployeeResponseDto> implements RandomAccess {
+    private static final int MISSING = Integer.MIN_VALUE;
+    private static final int ID = 0;
+    private static final int NAME = 1;
+    private static final int EMAIL = 2;
+    private static final int STRING_COLUMNS = 3;
+
+    private final int size;
+    private final int[] salaries;
+    private final int[] ages;
+    private final String[] titleDictionary;
+    private final int[] titleCodes;
+    private final ByteBuffer strings;
+    /**
+     * String {@code row * STRING_COLUMNS + column} is the bytes from its offset up to the next one.
+     */
+    private final int[] stringOffsets;
+    private final BitSet nullStrings;
+    /**
+     * Row number plus one of each id, at the slot its hash probes to first; zero is an empty slot.
+     */
+    private final int[] idTable;
+    private final boolean duplicateIds;
+
+    private ColumnarRoster(Columns columns) {
+        this.size = columns.size;
+        this.salaries = columns.salaries;
+        this.ages = columns.ages;
+        this.titleDictionary = columns.titleDictionary.toArray(new String[0]);
+        this.titleCodes = columns.titleCodes;
+        this.strings = columns.strings;
+        this.stringOffsets = columns.stringOffsets;
+        this.nullStrings = columns.nullStrings;
+        this.idTable = new int[Math.max(Integer.highestOneBit(Math.max(size, 1)) << 2, 4)];
+        boolean duplicates = false;
+        for (int row = 0; row < size; row++) {
+            duplicates |= !insertId(row);
+        }
+        this.duplicateIds = duplicates;
+    }
+
+    /**
+     * @param employees The roster, in order.
+     * @return The roster stored column by column, or the roster itself if it already is.
+     */
+    static ColumnarRoster of(List<BackendEmployeeResponseDto> employees) {
+        if (employees instanceof ColumnarRoster columnar) {
+            return columnar;
+        }
+        long length = 0;
+        for (BackendEmployeeResponseDto employee : employees) {
+            length += stringLength(employee);
+        }
+        Columns columns = new Columns(employees.size(), length, new String[0]);
+        employees.forEach(columns::append);
+        return columns.build();
+    }
+
+    /**
+     * Build the roster that results from deleting some of this one's rows and appending some employees. The rows that
+     * are kept are copied a run at a time, straight from the columns, without building their DTOs.
+     *
+     * @param removedRows The rows to delete, in ascending order and without repeats.
+     * @param added       The employees to append, in order.
+     * @return The new roster.
+     */
+    ColumnarRoster withChanges(int[] removedRows, List<BackendEmployeeResponseDto> added) {
+        long length = strings.capacity();
+        for (int row : removedRows) {
+            length -= stringOffsets[(row + 1) * STRING_COLUMNS] - stringOffsets[row * STRING_COLUMNS];
+        }
+        for (BackendEmployeeResponseDto employee : added) {
+            length += stringLength(employee);
+        }
+        Columns columns = new Columns(size - removedRows.length + added.size(), length, titleDictionary);
+        int from = 0;
+        for (int row : removedRows) {
+            columns.appendRows(this, from, row);
+            from = row + 1;
+        }
+        columns.appendRows(this, from, size);
+        added.forEach(columns::append);
+        return columns.build();
+    }
+
+    @Override
+    public BackendEmployeeResponseDto get(int row) {
+        checkRow(row);
+        return BackendEmployeeResponseDto.builder()
+                .id(id(row))
+                .name(name(row))
+                .salary(salaries[row] == MISSING ? null : salaries[row])
+                .age(ages[row] == MISSING ? null : ages[row])
+                .title(titleCodes[row] < 0 ? null : titleDictionary[titleCodes[row]])
+                .email(string(row, EMAIL))
+                .build();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    String id(int row) {
+        checkRow(row);
+        return string(row, ID);
+    }
+
+    String name(int row) {
+        checkRow(row);
+        return string(row, NAME);
+    }
+
+    /**
+     * @return The row's salary, or {@link Integer#MIN_VALUE} if it has none.
+     */
+    int salary(int row) {
+        checkRow(row);
+        return salaries[row];
+    }
+
+    /**
+     * @return The first row with the given id, or -1 if there is none.
+     */
+    int rowOfId(String id) {
+        if (id == null) {
+            return -1;
+        }
+        byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+        int mask = idTable.length - 1;
+        for (int slot = hash(bytes, 0, bytes.length) & mask; idTable[slot] != 0; slot = (slot + 1) & mask) {
+            int row = idTable[slot] - 1;
+            if (stringEquals(row, ID, bytes)) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return Whether some id appears on more than one row, so that {@link #rowOfId} only finds the first of them.
+     */
+    boolean hasDuplicateIds() {
+        return duplicateIds;
+    }
+
+    /**
+     * @return How many bytes of memory outside the heap the roster holds on to.
+     */
+    long offHeapBytes() {
+        return strings.capacity();
+    }
+
+    private String string(int row, int column) {
+        int index = row * STRING_COLUMNS + column;
+        if (nullStrings.get(index)) {
+            return null;
+        }
+        byte[] bytes = new byte[stringOffsets[index + 1] - stringOffsets[index]];
+        strings.get(stringOffsets[index], bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean stringEquals(int row, int column, byte[] expected) {
+        int index = row * STRING_COLUMNS + column;
+        int start = stringOffsets[index];
+        if (nullStrings.get(index) || stringOffsets[index + 1] - start != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (strings.get(start + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return False if an earlier row already has the same id, in which case it keeps the slot.
+     */
+    private boolean insertId(int row) {
+        int index = row * STRING_COLUMNS + ID;
+        if (nullStrings.get(index)) {
+            return true;
+        }
+        int start = stringOffsets[index];
+        int length = stringOffsets[index + 1] - start;
+        byte[] bytes = new byte[length];
+        strings.get(start, bytes);
+        int mask = idTable.length - 1;
+        int slot = hash(bytes, 0, length) & mask;
+        while (idTable[slot] != 0) {
+            if (stringEquals(idTable[slot] - 1, ID, bytes)) {
+                // first one wins
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        idTable[slot] = row + 1;
+        return true;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " of a roster of " + size + ".");
+        }
+    }
+
+    private static int hash(byte[] bytes, int from, int to) {
+        int hash = 1;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        // spread the bits so that the low ones, which pick the slot, depend on the whole id
+        return hash ^ (hash >>> 16);
+    }
+
+    private static long stringLength(BackendEmployeeResponseDto employee) {
+        return (long) utf8Length(employee.getId()) + utf8Length(employee.getName()) + utf8Length(employee.getEmail());
+    }
+
+    /**
+     * @return How many bytes {@code value.getBytes(UTF_8)} would return, without encoding it.
+     */
+    static int utf8Length(String value) {
+        if (value == null) {
+            return 0;
+        }
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                // an unpaired surrogate is encoded as '?'
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * The columns of a roster being built, filled a row (or a run of rows) at a time.
+     */
+    private static final class Columns {
+        private final int[] salaries;
+        private final int[] ages;
+        private final int[] titleCodes;
+        private final List<String> titleDictionary;
+        private final Map<String, Integer> titles = new HashMap<>();
+        private final ByteBuffer strings;
+        private final int[] stringOffsets;
+        private final BitSet nullStrings;
+        private int size;
+
+        /**
+         * @param rows            How many rows there will be.
+         * @param stringBytes     How many bytes the rows' strings take in UTF-8.
+         * @param titleDictionary The titles to start the dictionary with, so that codes copied along with them still
+         *                        mean the same.
+         */
+        Columns(int rows, long stringBytes, String[] titleDictionary) {
+            if (stringBytes > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(
+                        "The roster's strings don't fit in one buffer (" + stringBytes + " bytes).");
+            }
+            this.salaries = new int[rows];
+            this.ages = new int[rows];
+            this.titleCodes = new int[rows];
+            this.titleDictionary = new ArrayList<>(List.of(titleDictionary));
+            for (int code = 0; code < titleDictionary.length; code++) {
+                titles.put(titleDictionary[code], code);
+            }
+            this.strings = ByteBuffer.allocateDirect((int) stringBytes);
+            this.stringOffsets = new int[rows * STRING_COLUMNS + 1];
+            this.nullStrings = new BitSet(rows * STRING_COLUMNS);
+        }
+
+        void append(BackendEmployeeResponseDto employee) {
+            int row = size++;
+            salaries[row] = employee.getSalary() == null ? MISSING : employee.getSalary();
+            ages[row] = employee.getAge() == null ? MISSING : employee.getAge();
+            titleCodes[row] = employee.getTitle() == null ? -1 : titles.computeIfAbsent(employee.getTitle(), title -> {
+                titleDictionary.add(title);
+                return titleDictionary.size() - 1;
+            });
+            putString(row, ID, employee.getId());
+            putString(row, NAME, employee.getName());
+            putString(row, EMAIL, employee.getEmail());
+        }
+
+        /**
+         * Copy the rows from {@code from} (inclusive) to {@code to} (exclusive) of the given roster, which must have
+         * been built with the same title dictionary this one started with.
+         */
+        void appendRows(ColumnarRoster source, int from, int to) {
+            int rows = to - from;
+            if (rows <= 0) {
+                return;
+            }
+            System.arraycopy(source.salaries, from, salaries, size, rows);
+            System.arraycopy(source.ages, from, ages, size, rows);
+            System.arraycopy(source.titleCodes, from, titleCodes, size, rows);
+            int sourceIndex = from * STRING_COLUMNS;
+            int index = size * STRING_COLUMNS;
+            int start = source.stringOffsets[sourceIndex];
+            int end = source.stringOffsets[to * STRING_COLUMNS];
+            int shift = strings.position() - start;
+            for (int i = 0; i < rows * STRING_COLUMNS; i++) {
+                stringOffsets[index + i] = source.stringOffsets[sourceIndex + i] + shift;
+            }
+            for (int i = source.nullStrings.nextSetBit(sourceIndex);
+                    i >= 0 && i < to * STRING_COLUMNS;
+                    i = source.nullStrings.nextSetBit(i + 1)) {
+                nullStrings.set(index + i - sourceIndex);
+            }
+            strings.put(strings.position(), source.strings, start, end - start);
+            strings.position(strings.position() + end - start);
+            size += rows;
+        }
+
+        ColumnarRoster build() {
+            stringOffsets[size * STRING_COLUMNS] = strings.position();
+            return new ColumnarRoster(this);
+        }
+
+        private void putString(int row, int column, String value) {
+            int index = row * STRING_COLUMNS + column;
+            stringOffsets[index] = strings.position();
+            if (value == null) {
+                nullStrings.set(index);
+            } else {
+                strings.put(value.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+}
@@ -0,0 +1,611 @@
+package com.reliaquest.api.cache;
+
+import com.reliaquest.api.model.BackendEmployeeChangeDto;
+import com.reliaquest.api.model.BackendEmployeeResponseDto;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.stream.Stream;
+
+/**
+ * An immutable, point-in-time view of the employee roster as it was returned by the backend. The roster is held as an
+ * {@link IndexedRoster}, whose indexes are built once so that lookups against a cached roster don't have to rescan the
+ * whole list every time. Snapshots are never modified after construction -- a refresh of the roster produces a
+ * brand-new snapshot that is published atomically by the {@link EmployeeSnapshotStore}, so concurrent readers always
+ * see a consistent set of indexes. The aggregates that the api serves as-is (the highest salary and the names of the
+ * {@value #TOP_EARNER_NAMES} top earners) are worked out at the same time, so those endpoints don't do any work per
+ * request.
+ * <p>
+ * A snapshot can also be derived from another one by applying creates and deletes ({@link #withAdded},
+ * {@link #withRemovedById} and friends) so that the cache doesn't have to be thrown away on every mutation. The
+ * derived snapshot shares the indexed roster with the one it came from and keeps the changes on the side: the rows
+ * that have been deleted, and the employees that have been created since. Queries consult the indexes, skip the
+ * deleted rows and then look through the created employees, so a single create or delete costs time in proportion to
+ * the changes already pending rather than to the size of the roster. Once more changes have piled up than is worth
+ * looking through on every query (a sixteenth of the roster, but at least 64 and at most 1024), the next delta indexes
+ * the roster afresh with the changes applied.
+ * <p>
+ * Such a snapshot is marked {@link #isDirty() dirty}: it reflects our own writes but not necessarily anyone else's, and
+ * it keeps the {@code createdAt} of the full roster it was derived from so that the regular refresh schedule still
+ * applies. The next full refresh replaces it with a clean one.
+ * <p>
+ * A clean snapshot remembers the backend's entity tag (ETag) for the roster it was built from, so that the next
+ * refresh can ask the backend whether anything has changed. If nothing has, the snapshot is {@link #revalidated} --
+ * copied with a new {@code createdAt} but sharing all of its indexes -- rather than rebuilt. A dirty snapshot has no
+ * entity tag, since it doesn't match any version of the roster that the backend has served.
+ * <p>
+ * A snapshot also remembers the backend's own {@link RosterVersion} for the roster, if the backend reported one, so
+ * that it can be brought up to date by applying the backend's change feed ({@link #withChanges}) rather than by
+ * fetching the whole roster again.
+ * <p>
+ * A snapshot can be {@link #isColumnar() columnar}, which keeps the roster as a {@link ColumnarRoster} -- primitive and
+ * dictionary-encoded columns, with the strings off the heap -- instead of a list of DTOs. Everything works the same
+ * way, except that a DTO is built for a row only when it is handed out, and is a new object each time. The indexes
+ * read the columns directly, and lookups by id go through the roster's own table rather than a map. Snapshots derived
+ * from a columnar one are columnar too.
+ * <p>
+ * Note that the DTOs themselves are mutable (they are Lombok {@code @Data} classes). Callers are expected to treat
+ * them as read-only; there is no defensive copying here as that would defeat the purpose of the cache.
+ */
+public final class EmployeeSnapshot {
+    /**
+     * How many names {@link #getTopEarnerNames()} holds, which is what the top-ten endpoint asks for.
+     */
+    public static final int TOP_EARNER_NAMES = 10;
+    /**
+     * The bounds on how many creates and deletes a snapshot keeps on the side before its roster is indexed afresh.
+     */
+    private static final int MIN_PENDING_CHANGES = 64;
+    private static final int MAX_PENDING_CHANGES = 1024;
+    private static final EmployeeSnapshot EMPTY = of(0, Instant.EPOCH, List.of());
+
+    @Getter
+    private final long version;
+    @Getter
+    private final Instant createdAt;
+    @Getter
+    private final List<BackendEmployeeResponseDto> employees;
+    @Getter
+    private final boolean dirty;
+    @Getter
+    private final String entityTag;
+    @Getter
+    private final RosterVersion rosterVersion;
+    /**
+     * Whether the roster is a {@link ColumnarRoster}, in which case so is that of every snapshot derived from this one.
+     */
+    @Getter
+    private final boolean columnar;
+    private final IndexedRoster roster;
+    private final PendingChanges pending;
+    /**
+     * The positions in {@code pending.added}, by descending salary with ties in roster order.
+     */
+    private final int[] addedSalaryOrder;
+    private final Integer highestSalary;
+    @Getter
+    private final List<String> topEarnerNames;
+
+    /**
+     * @param entityTag     The backend's ETag for the roster, if it sent one.
+     * @param rosterVersion The backend's version of the roster, if it sent one.
+     * @param roster        The indexed roster.
+     * @param pending       The creates and deletes applied on top of {@code roster}.
+     */
+    private EmployeeSnapshot(long version, Instant createdAt, boolean dirty, String entityTag,
+                             RosterVersion rosterVersion, IndexedRoster roster, PendingChanges pending) {
+        this.version = version;
+        this.createdAt = createdAt;
+        this.dirty = dirty;
+        this.entityTag = entityTag;
+        this.rosterVersion = rosterVersion;
+        this.columnar = roster.isColumnar();
+        this.roster = roster;
+        this.pending = pending;
+        this.employees = pending.size() == 0 ? roster.rows() : new LiveRoster();
+        this.addedSalaryOrder = IndexedRoster.salaryOrder(pending.added.stream()
+                .mapToInt(IndexedRoster::salaryOf)
+                .toArray());
+        List<BackendEmployeeResponseDto> topPaid = getTopPaid(TOP_EARNER_NAMES);
+        this.highestSalary = topPaid.isEmpty() ? null : topPaid.get(0).getSalary();
+        this.topEarnerNames = topPaid.stream()
+                .map(BackendEmployeeResponseDto::getName)
+                .toList();
+    }
+
+    /**
+     * Build a new snapshot (and all of its indexes) from the given roster.
+     *
+     * @param version   The version of the snapshot. Versions are assigned by the store and only ever increase.
+     * @param createdAt The time the roster was retrieved from the backend.
+     * @param employees The employees, in the order the backend returned them.
+     * @return The new snapshot.
+     */
+    public static EmployeeSnapshot of(long version, Instant createdAt, List<BackendEmployeeResponseDto> employees) {
+        return of(version, createdAt, employees, null, null);
+    }
+
+    /**
+     * Build a new snapshot from the given roster, remembering what the backend told us about its version.
+     *
+     * @param entityTag     The ETag the backend sent with the roster, or null if it didn't send one.
+     * @param rosterVersion The version the backend reported for the roster, or null if it didn't report one.
+     * @see #of(long, Instant, List)
+     */
+    public static EmployeeSnapshot of(long version, Instant createdAt, List<BackendEmployeeResponseDto> employees,
+                                      String entityTag, RosterVersion rosterVersion) {
+        return of(version, createdAt, employees, entityTag, rosterVersion, false);
+    }
+
+    /**
+     * Build a new snapshot from the given roster, optionally storing the roster column by column (see
+     * {@link ColumnarRoster}) rather than as the DTOs it was given.
+     *
+     * @param columnar Whether to store the roster column by column.
+     * @see #of(long, Instant, List, String, RosterVersion)
+     */
+    public static EmployeeSnapshot of(long version, Instant createdAt, List<BackendEmployeeResponseDto> employees,
+                                      String entityTag, RosterVersion rosterVersion, boolean columnar) {
+        return new EmployeeSnapshot(version, createdAt, false, entityTag, rosterVersion,
+                IndexedRoster.build(employees, columnar), PendingChanges.NONE);
+    }
+
+    /**
+     * A copy of this snapshot for when the backend has confirmed that the roster hasn't changed since it was built.
+     * Only {@code createdAt} changes -- the version stays the same since the contents do, and the indexes are shared
+     * rather than rebuilt.
+     *
+     * @param createdAt The time the backend confirmed the roster.
+     * @return The revalidated snapshot.
+     */
+    public EmployeeSnapshot revalidated(Instant createdAt) {
+        return new EmployeeSnapshot(this, createdAt, rosterVersion);
+    }
+
+    /**
+     * Bring a copy of this snapshot up to date with the backend's change feed. The changes are applied in order, with
+     * the same semantics as the backend: a create appends the employee (unless its id is already present), a delete
+     * removes the employee with that id. Applying changes the snapshot already reflects is harmless, so the feed may
+     * start at any version at or before the snapshot's own {@link #getRosterVersion() roster version}. The changes
+     * are applied the same way as our own creates and deletes, so a short feed doesn't rebuild the indexes.
+     * <p>
+     * The result is clean: it is what the backend had at {@code rosterVersion}. If there are no changes at all, this
+     * is a {@link #revalidated} copy that keeps the version and the indexes.
+     *
+     * @param version       The version of the new snapshot.
+     * @param createdAt     The time the changes were retrieved from the backend.
+     * @param changes       The changes, oldest first.
+     * @param rosterVersion The backend's version after the last of the changes.
+     * @return The new snapshot.
+     */
+    public EmployeeSnapshot withChanges(long version, Instant createdAt, List<BackendEmployeeChangeDto> changes,
+                                        RosterVersion rosterVersion) {
+        if (changes.isEmpty()) {
+            return new EmployeeSnapshot(this, createdAt, rosterVersion);
+        }
+        PendingChanges updated = pending.copy();
+        for (BackendEmployeeChangeDto change : changes) {
+            String id = change.getEmployee().getId();
+            if (change.getType() == BackendEmployeeChangeDto.Type.CREATED) {
+                add(updated, change.getEmployee());
+            } else {
+                for (int slot = firstSlotWithId(updated, id); slot >= 0; slot = firstSlotWithId(updated, id)) {
+                    removeSlot(updated, slot);
+                }
+            }
+        }
+        return derive(version, createdAt, false, rosterVersion, updated);
+    }
+
+    private EmployeeSnapshot(EmployeeSnapshot source, Instant createdAt, RosterVersion rosterVersion) {
+        this.version = source.version;
+        this.createdAt = createdAt;
+        this.employees = source.employees;
+        this.dirty = source.dirty;
+        this.entityTag = source.entityTag;
+        this.rosterVersion = rosterVersion;
+        this.columnar = source.columnar;
+        this.roster = source.roster;
+        this.pending = source.pending;
+        this.addedSalaryOrder = source.addedSalaryOrder;
+        this.highestSalary = source.highestSalary;
+        this.topEarnerNames = source.topEarnerNames;
+    }
+
+    /**
+     * @return A snapshot with no employees in it.
+     */
+    public static EmployeeSnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Derive a dirty snapshot with the given employee appended to the end of the roster, which is where the backend
+     * puts new employees. Applying the same create twice is harmless: if the id is already present, the employee is
+     * not added again.
+     *
+     * @param version  The version of the new snapshot.
+     * @param employee The employee returned by the backend's create call.
+     * @return The new snapshot.
+     */
+    public EmployeeSnapshot withAdded(long version, BackendEmployeeResponseDto employee) {
+        PendingChanges updated = pending.copy();
+        add(updated, employee);
+        return derive(version, updated);
+    }
+
+    /**
+     * {@link #withAdded} for several employees at once, as returned by the backend's batch create.
+     *
+     * @param version The version of the new snapshot.
+     * @param added   The employees, in the order the backend created them.
+     * @return The new snapshot.
+     */
+    public EmployeeSnapshot withAddedAll(long version, List<BackendEmployeeResponseDto> added) {
+        PendingChanges updated = pending.copy();
+        for (BackendEmployeeResponseDto employee : added) {
+            add(updated, employee);
+        }
+        return derive(version, updated);
+    }
+
+    /**
+     * Derive a dirty snapshot without the first employee with the given name, mirroring the backend's delete by name.
+     *
+     * @param version The version of the new snapshot.
+     * @param name    The name that was deleted.
+     * @return The new snapshot.
+     */
+    public EmployeeSnapshot withRemovedFirstNamed(long version, String name) {
+        PendingChanges updated = pending.copy();
+        removeSlot(updated, firstSlotNamed(updated, name));
+        return derive(version, updated);
+    }
+
+    /**
+     * Derive a dirty snapshot without the employee with the given id, mirroring the backend's delete by id.
+     *
+     * @param version The version of the new snapshot.
+     * @param id      The id that was deleted.
+     * @return The new snapshot.
+     */
+    public EmployeeSnapshot withRemovedById(long version, String id) {
+        PendingChanges updated = pending.copy();
+        removeSlot(updated, firstSlotWithId(updated, id));
+        return derive(version, updated);
+    }
+
+    /**
+     * {@link #withRemovedById} for several ids at once, as confirmed by the backend's batch delete.
+     *
+     * @param version The version of the new snapshot.
+     * @param ids     The ids that were deleted.
+     * @return The new snapshot.
+     */
+    public EmployeeSnapshot withRemovedByIdAll(long version, List<String> ids) {
+        PendingChanges updated = pending.copy();
+        for (String id : ids) {
+            removeSlot(updated, firstSlotWithId(updated, id));
+        }
+        return derive(version, updated);
+    }
+
+    public int size() {
+        return employees.size();
+    }
+
+    public boolean isEmpty() {
+        return employees.isEmpty();
+    }
+
+    /**
+     * Find an employee by id using the hash index.
+     *
+     * @param id The id of the employee.
+     * @return The employee, or an empty optional if the snapshot doesn't contain it.
+     */
+    public Optional<BackendEmployeeResponseDto> findById(String id) {
+        int slot = firstSlotWithId(pending, id);
+        return slot < 0 ? Optional.empty() : Optional.of(employeeAt(slot));
+    }
+
+    /**
+     * Find all employees with exactly the given name, compared case-insensitively. The employees are returned in
+     * roster order, which mirrors the backend's behavior of acting on the first matching name.
+     *
+     * @param name The full name of the employee.
+     * @return The matching employees, or an empty list if there are none.
+     */
+    public List<BackendEmployeeResponseDto> findByName(String name) {
+        String normalizedName = normalizeName(name);
+        return Stream.concat(
+                        liveRows(roster.rowsNamed(name)),
+                        pending.added.stream()
+                                .filter(employee -> normalizedName.equals(normalizeName(employee.getName()))))
+                .toList();
+    }
+
+    /**
+     * Find all employees whose name contains the given fragment, compared case-insensitively. This gives the same
+     * results as lower-casing every name and calling {@code contains}, but only looks at the rows the trigram index
+     * says could match (and at the employees created since the index was built).
+     *
+     * @param fragment The name fragment to search for.
+     * @return The matching employees in roster order, or an empty list if there are none.
+     */
+    public List<BackendEmployeeResponseDto> findByNameContaining(String fragment) {
+        String lowerCaseFragment = fragment.toLowerCase();
+        return Stream.concat(
+                        liveRows(roster.rowsNameContaining(fragment)),
+                        pending.added.stream()
+                                .filter(employee -> employee.getName() != null
+                                        && employee.getName().toLowerCase().contains(lowerCaseFragment)))
+                .toList();
+    }
+
+    /**
+     * The highest salary in the roster, worked out once when the snapshot is built.
+     *
+     * @return The highest salary, or an empty optional if the roster is empty (or nobody has a salary).
+     */
+    public Optional<Integer> getHighestSalary() {
+        return Optional.ofNullable(highestSalary);
+    }
+
+    /**
+     * Get the employees with the highest salaries. This is just a walk over the pre-sorted salary view, so it costs
+     * O(count) rather than a sort of the whole roster. Ties are ordered the same way a stable sort of the roster
+     * would order them.
+     *
+     * @param count The maximum number of employees to return.
+     * @return Up to {@code count} employees in descending salary order.
+     */
+    public List<BackendEmployeeResponseDto> getTopPaid(int count) {
+        return getTopPaid(count, false);
+    }
+
+    /**
+     * Get the employees with the highest salaries, optionally including everyone who ties with the last one. The
+     * salary order of the indexed roster (less the deleted rows) is merged with that of the employees created since.
+     *
+     * @param count       The number of employees to return.
+     * @param includeTies Whether to go past {@code count} to include every employee paid the same as the one at the
+     *                    cutoff, so the result doesn't arbitrarily leave some of them out.
+     * @return At least {@code count} employees (if there are that many), in descending salary order.
+     */
+    public List<BackendEmployeeResponseDto> getTopPaid(int count, boolean includeTies) {
+        int limit = Math.max(count, 0);
+        List<BackendEmployeeResponseDto> result = new ArrayList<>(Math.min(limit, size()));
+        int rank = 0;
+        int addedRank = 0;
+        int cutoff = 0;
+        while (true) {
+            while (rank < roster.size() && pending.isRemoved(roster.rowAtRank(rank))) {
+                rank++;
+            }
+            boolean fromRoster = rank < roster.size();
+            boolean fromAdded = addedRank < addedSalaryOrder.length;
+            if (!fromRoster && !fromAdded) {
+                break;
+            }
+            int rosterSalary = fromRoster ? roster.salary(roster.rowAtRank(rank)) : 0;
+            int addedSalary = fromAdded ? IndexedRoster.salaryOf(pending.added.get(addedSalaryOrder[addedRank])) : 0;
+            // the added employees come after the roster's rows, so among equal salaries the rows go first
+            boolean takeRoster = fromRoster && (!fromAdded || rosterSalary >= addedSalary);
+            int salary = takeRoster ? rosterSalary : addedSalary;
+            if (result.size() >= limit && !(includeTies && limit > 0 && salary == cutoff)) {
+                break;
+            }
+            result.add(takeRoster
+                    ? roster.get(roster.rowAtRank(rank++))
+                    : pending.added.get(addedSalaryOrder[addedRank++]));
+            cutoff = salary;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "EmployeeSnapshot[version=" + version + ", size=" + employees.size() + ", createdAt=" + createdAt
+                + ", dirty=" + dirty + "]";
+    }
+
+    /**
+     * @return How many bytes of memory outside the heap the roster holds on to; zero unless it is columnar.
+     */
+    public long getOffHeapBytes() {
+        return roster.offHeapBytes();
+    }
+
+    static String normalizeName(String name) {
+        return name == null ? "" : name.toLowerCase();
+    }
+
+    private EmployeeSnapshot derive(long version, PendingChanges changes) {
+        return derive(version, createdAt, true, rosterVersion, changes);
+    }
+
+    /**
+     * The snapshot with the given changes on top of this one's indexed roster or, once there are more of them than is
+     * worth looking through on every query, with the roster indexed afresh with the changes applied.
+     */
+    private EmployeeSnapshot derive(long version, Instant createdAt, boolean dirty, RosterVersion rosterVersion,
+                                    PendingChanges changes) {
+        if (changes.size() <= pendingLimit(roster.size())) {
+            return new EmployeeSnapshot(version, createdAt, dirty, null, rosterVersion, roster, changes);
+        }
+        return new EmployeeSnapshot(version, createdAt, dirty, null, rosterVersion,
+                roster.rebuild(changes.removedRows, changes.added), PendingChanges.NONE);
+    }
+
+    private static int pendingLimit(int rosterSize) {
+        return Math.min(MAX_PENDING_CHANGES, Math.max(MIN_PENDING_CHANGES, rosterSize >> 4));
+    }
+
+    /**
+     * Append the employee, unless its id is already present.
+     */
+    private void add(PendingChanges changes, BackendEmployeeResponseDto employee) {
+        if (firstSlotWithId(changes, employee.getId()) < 0) {
+            changes.added.add(employee);
+        }
+    }
+
+    /**
+     * Slots number the employees as of the given changes: a row of the indexed roster is its own slot, and the
+     * employees added since follow on from the end of it.
+     *
+     * @return The slot of the first employee with the given id, or -1 if there is none.
+     */
+    private int firstSlotWithId(PendingChanges changes, String id) {
+        int row = roster.rowOfId(id);
+        if (row >= 0 && !changes.isRemoved(row)) {
+            return row;
+        }
+        if (row >= 0 && roster.hasDuplicateIds()) {
+            // the first row with the id has been deleted, but a later one may still be there
+            for (int next = row + 1; next < roster.size(); next++) {
+                if (!changes.isRemoved(next) && Objects.equals(roster.id(next), id)) {
+                    return next;
+                }
+            }
+        }
+        for (int i = 0; i < changes.added.size(); i++) {
+            if (Objects.equals(changes.added.get(i).getId(), id)) {
+                return roster.size() + i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return The slot of the first employee with the given name, compared case-insensitively, or -1 if there is none.
+     * @see #firstSlotWithId
+     */
+    private int firstSlotNamed(PendingChanges changes, String name) {
+        for (int row : roster.rowsNamed(name)) {
+            if (!changes.isRemoved(row)) {
+                return row;
+            }
+        }
+        String normalizedName = normalizeName(name);
+        for (int i = 0; i < changes.added.size(); i++) {
+            if (normalizedName.equals(normalizeName(changes.added.get(i).getName()))) {
+                return roster.size() + i;
+            }
+        }
+        return -1;
+    }
+
+    private void removeSlot(PendingChanges changes, int slot) {
+        if (slot < 0) {
+            return;
+        }
+        if (slot < roster.size()) {
+            changes.remove(slot);
+        } else {
+            changes.added.remove(slot - roster.size());
+        }
+    }
+
+    private BackendEmployeeResponseDto employeeAt(int slot) {
+        return slot < roster.size() ? roster.get(slot) : pending.added.get(slot - roster.size());
+    }
+
+    private Stream<BackendEmployeeResponseDto> liveRows(int[] rows) {
+        return Arrays.stream(rows).filter(row -> !pending.isRemoved(row)).mapToObj(roster::get);
+    }
+
+    /**
+     * The creates and deletes applied on top of an indexed roster since it was built. A snapshot's own changes never
+     * change; the delta methods work on a {@link #copy} and hand it to the snapshot they derive.
+     */
+    private static final class PendingChanges {
+        static final PendingChanges NONE = new PendingChanges(new int[0], List.of());
+
+        /**
+         * The rows of the indexed roster that have been deleted, in ascending order.
+         */
+        private int[] removedRows;
+        /**
+         * The employees created since, in roster order.
+         */
+        private final List<BackendEmployeeResponseDto> added;
+
+        private PendingChanges(int[] removedRows, List<BackendEmployeeResponseDto> added) {
+            this.removedRows = removedRows;
+            this.added = added;
+        }
+
+        PendingChanges copy() {
+            return new PendingChanges(removedRows, new ArrayList<>(added));
+        }
+
+        int size() {
+            return removedRows.length + added.size();
+        }
+
+        boolean isRemoved(int row) {
+            return removedRows.length > 0 && Arrays.binarySearch(removedRows, row) >= 0;
+        }
+
+        void remove(int row) {
+            int position = Arrays.binarySearch(removedRows, row);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            // a new array rather than in place, since the old one may be shared with the snapshot this was copied from
+            int[] updated = new int[removedRows.length + 1];
+            System.arraycopy(removedRows, 0, updated, 0, position);
+            updated[position] = row;
+            System.arraycopy(removedRows, position, updated, position + 1, removedRows.length - position);
+            removedRows = updated;
+        }
+
+        /**
+         * @return The row of the indexed roster that is at the given position once the deleted rows are skipped.
+         */
+        int liveRow(int position) {
+            // removedRows[i] - i is how many rows are left before the i-th deleted one, which never decreases
+            int low = 0;
+            int high = removedRows.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (removedRows[mid] - mid <= position) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return position + low;
+        }
+    }
+
+    /**
+     * The roster with the pending changes applied, read through rather than copied: the rows of the indexed roster
+     * that haven't been deleted, followed by the employees created since.
+     */
+    private final class LiveRoster extends AbstractList<BackendEmployeeResponseDto> implements RandomAccess {
+        @Override
+        public BackendEmployeeResponseDto get(int index) {
+            int liveRows = roster.size() - pending.removedRows.length;
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Employee " + index + " of a roster of " + size() + ".");
+            }
+            return index < liveRows ? roster.get(pending.liveRow(index)) : pending.added.get(index - liveRows);
+        }
+
+        @Override
+        public int size() {
+            return roster.size() - pending.removedRows.length + pending.added.size();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.reliaquest.api.cache;
+
+import com.reliaquest.api.model.BackendEmployeeChangeDto;
+import com.reliaquest.api.model.BackendEmployeeResponseDto;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current {@link EmployeeSnapshot} and publishes new ones atomically. Readers never block and never see a
+ * partially-built snapshot: the indexes are built before the reference is swapped. Each published snapshot gets a
+ * new, strictly increasing version number so that callers can tell whether the roster has changed underneath them.
+ * <p>
+ * Besides full rosters, the store accepts the results of our own creates and deletes, which it applies to the current
+ * snapshot as a delta (see {@link EmployeeSnapshot#withAdded} and {@link EmployeeSnapshot#withRemovedFirstNamed}).
+ * That keeps the cache usable through a burst of writes instead of dropping it and leaving reads with nothing to fall
+ * back on if the next full fetch is rate limited.
+ */
+@Slf4j
+public class EmployeeSnapshotStore {
+    private final AtomicReference<EmployeeSnapshot> current = new AtomicReference<>();
+    private final AtomicLong versionSequence = new AtomicLong();
+    private final Clock clock;
+    private final boolean columnar;
+
+    public EmployeeSnapshotStore() {
+        this(Clock.systemUTC());
+    }
+
+    public EmployeeSnapshotStore(Clock clock) {
+        this(clock, false);
+    }
+
+    /**
+     * @param columnar Whether published snapshots store the roster column by column (see {@link ColumnarRoster}).
+     */
+    public EmployeeSnapshotStore(Clock clock, boolean columnar) {
+        this.clock = clock;
+        this.columnar = columnar;
+    }
+
+    /**
+     * @return The most recently published snapshot, or an empty optional if nothing has been published yet (or the
+     * store has been invalidated).
+     */
+    public Optional<EmployeeSnapshot> current() {
+        return Optional.ofNullable(current.get());
+    }
+
+    /**
+     * Build a snapshot from the given roster and make it the current one.
+     *
+     * @param employees The full roster as returned by the backend.
+     * @return The newly published snapshot.
+     */
+    public EmployeeSnapshot publish(List<BackendEmployeeResponseDto> employees) {
+        return publish(employees, null, null);
+    }
+
+    /**
+     * Build a snapshot from the given roster and make it the current one.
+     *
+     * @param employees     The full roster as returned by the backend.
+     * @param entityTag     The ETag the backend sent with the roster, or null if there wasn't one.
+     * @param rosterVersion The version the backend reported for the roster, or null if there wasn't one.
+     * @return The newly published snapshot.
+     */
+    public EmployeeSnapshot publish(List<BackendEmployeeResponseDto> employees, String entityTag, RosterVersion rosterVersion) {
+        return publish(employees, entityTag, rosterVersion, clock.instant());
+    }
+
+    /**
+     * Build a snapshot from a roster that was retrieved from the backend at some earlier time (say, by another api
+     * instance) and make it the current one. The snapshot's age counts from when the roster was retrieved, not from now.
+     *
+     * @param employees     The full roster as returned by the backend.
+     * @param entityTag     The ETag the backend sent with the roster, or null if there wasn't one.
+     * @param rosterVersion The version the backend reported for the roster, or null if there wasn't one.
+     * @param retrievedAt   When the roster was retrieved from the backend.
+     * @return The newly published snapshot.
+     */
+    public EmployeeSnapshot publish(List<BackendEmployeeResponseDto> employees, String entityTag, RosterVersion rosterVersion,
+                                    Instant retrievedAt) {
+        EmployeeSnapshot snapshot = EmployeeSnapshot.of(versionSequence.incrementAndGet(), retrievedAt, employees,
+                entityTag, rosterVersion, columnar);
+        current.set(snapshot);
+        log.info("Published employee snapshot version={} with {} employees.", snapshot.getVersion(), snapshot.size());
+        return snapshot;
+    }
+
+    /**
+     * Mark the current snapshot as freshly retrieved, because the backend has answered a conditional request with "not
+     * modified". Does nothing unless the current snapshot is still the one with the given entity tag -- it may have
+     * been replaced or had a delta applied while the request was in flight.
+     *
+     * @param entityTag The entity tag the backend confirmed.
+     * @return The revalidated snapshot, or an empty optional if the current snapshot doesn't have that entity tag.
+     */
+    public Optional<EmployeeSnapshot> revalidate(String entityTag) {
+        EmployeeSnapshot revalidated = current.updateAndGet(snapshot ->
+                snapshot != null && !snapshot.isDirty() && entityTag.equals(snapshot.getEntityTag())
+                        ? snapshot.revalidated(clock.instant())
+                        : snapshot);
+        if (revalidated == null || !entityTag.equals(revalidated.getEntityTag())) {
+            return Optional.empty();
+        }
+        log.debug("Employee snapshot version={} is unchanged on the backend.", revalidated.getVersion());
+        return Optional.of(revalidated);
+    }
+
+    /**
+     * Apply the backend's change feed to the current snapshot (see {@link EmployeeSnapshot#withChanges}). The feed is
+     * only applied if the current snapshot is from the same backend epoch and not ahead of the feed -- the current
+     * snapshot may have been replaced while the feed was being fetched -- otherwise the current snapshot is left as it
+     * is.
+     *
+     * @param rosterVersion The backend's version after the last of the changes.
+     * @param changes       The changes, oldest first.
+     * @return The current snapshot afterwards, whether or not the changes applied to it, or an empty optional if there
+     * is no snapshot.
+     */
+    public Optional<EmployeeSnapshot> applyChanges(RosterVersion rosterVersion, List<BackendEmployeeChangeDto> changes) {
+        EmployeeSnapshot before = current.get();
+        EmployeeSnapshot updated = current.updateAndGet(snapshot -> canApply(snapshot, rosterVersion)
+                ? snapshot.withChanges(changes.isEmpty() ? snapshot.getVersion() : versionSequence.incrementAndGet(),
+                        clock.instant(), changes, rosterVersion)
+                : snapshot);
+        if (updated != null && updated != before) {
+            log.debug("Applied {} changes to cached roster, now version={} with {} employees, at backend version {}.",
+                    changes.size(), updated.getVersion(), updated.size(), rosterVersion.version());
+        }
+        return Optional.ofNullable(updated);
+    }
+
+    private static boolean canApply(EmployeeSnapshot snapshot, RosterVersion rosterVersion) {
+        return snapshot != null
+                && snapshot.getRosterVersion() != null
+                && snapshot.getRosterVersion().epoch().equals(rosterVersion.epoch())
+                && snapshot.getRosterVersion().version() <= rosterVersion.version();
+    }
+
+    /**
+     * Apply an employee created through the backend to the current snapshot. Does nothing if there is no snapshot.
+     *
+     * @param employee The employee as returned by the backend's create call, including its id and email.
+     * @return The updated snapshot, or an empty optional if there was nothing to update.
+     */
+    public Optional<EmployeeSnapshot> applyCreated(BackendEmployeeResponseDto employee) {
+        return applyDelta(EmployeeSnapshot::withAdded, employee);
+    }
+
+    /**
+     * Apply a successful delete by name to the current snapshot. Does nothing if there is no snapshot.
+     *
+     * @param name The name that was deleted.
+     * @return The updated snapshot, or an empty optional if there was nothing to update.
+     */
+    public Optional<EmployeeSnapshot> applyDeleted(String name) {
+        return applyDelta(EmployeeSnapshot::withRemovedFirstNamed, name);
+    }
+
+    /**
+     * Apply a successful delete by id to the current snapshot. Does nothing if there is no snapshot.
+     *
+     * @param id The id that was deleted.
+     * @return The updated snapshot, or an empty optional if there was nothing to update.
+     */
+    public Optional<EmployeeSnapshot> applyDeletedById(String id) {
+        return applyDelta(EmployeeSnapshot::withRemovedById, id);
+    }
+
+    /**
+     * Apply a batch of employees created through the backend to the current snapshot in one step.
+     *
+     * @see #applyCreated
+     */
+    public Optional<EmployeeSnapshot> applyCreatedAll(List<BackendEmployeeResponseDto> employees) {
+        return applyDelta(EmployeeSnapshot::withAddedAll, employees);
+    }
+
+    /**
+     * Apply a batch of successful deletes by id to the current snapshot in one step.
+     *
+     * @see #applyDeletedById
+     */
+    public Optional<EmployeeSnapshot> applyDeletedByIdAll(List<String> ids) {
+        return applyDelta(EmployeeSnapshot::withRemovedByIdAll, ids);
+    }
+
+    private <T> Optional<EmployeeSnapshot> applyDelta(Delta<T> delta, T change) {
+        // The update function may run more than once if a publish races with us. That only costs a skipped version.
+        EmployeeSnapshot updated = current.updateAndGet(snapshot -> snapshot == null
+                ? null
+                : delta.apply(snapshot, versionSequence.incrementAndGet(), change));
+        if (updated != null) {
+            log.debug("Applied {} to cached roster, now version={} with {} employees.", change, updated.getVersion(), updated.size());
+        }
+        return Optional.ofNullable(updated);
+    }
+
+    /**
+     * Drop the current snapshot. Subsequent reads will have nothing to fall back on until the next publish.
+     */
+    public void invalidate() {
+        current.set(null);
+    }
+
+    @FunctionalInterface
+    private interface Delta<T> {
+        EmployeeSnapshot apply(EmployeeSnapshot snapshot, long version, T change);
+    }
+}
@@ -0,0 +1,206 @@
+package com.reliaquest.api.cache;
+
+import com.reliaquest.api.model.BackendEmployeeResponseDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * A roster together with the indexes a snapshot answers its queries from: a hash index by id, an index by
+ * (case-insensitive) name, the trigram {@link NameSearchIndex} and the rows sorted by salary. It is built in one go and
+ * never changes afterwards. Snapshots derived from one another by creates and deletes share it and keep their own
+ * changes on the side (see {@link EmployeeSnapshot}), so it is only rebuilt once enough of those have piled up.
+ * <p>
+ * Rows are positions in the roster. The roster is either a list of DTOs or a {@link ColumnarRoster}; in the latter case
+ * lookups by id go through the roster's own table, and the indexes read the columns rather than building DTOs.
+ */
+final class IndexedRoster {
+    private static final int[] NO_ROWS = new int[0];
+
+    private final List<BackendEmployeeResponseDto> rows;
+    /**
+     * The first row of each id, or null if the roster is columnar and has its own table.
+     */
+    private final Map<String, Integer> idIndex;
+    private final boolean duplicateIds;
+    private final Map<String, int[]> nameIndex;
+    private final NameSearchIndex nameSearchIndex;
+    private final int[] salaryOrder;
+
+    private IndexedRoster(List<BackendEmployeeResponseDto> rows) {
+        this.rows = rows;
+        if (rows instanceof ColumnarRoster columnar) {
+            this.idIndex = null;
+            this.duplicateIds = columnar.hasDuplicateIds();
+        } else {
+            this.idIndex = new HashMap<>(capacityFor(rows.size()));
+            boolean duplicates = false;
+            for (int row = 0; row < rows.size(); row++) {
+                // first one wins, just like the linear scan that this replaces
+                duplicates |= idIndex.putIfAbsent(rows.get(row).getId(), row) != null;
+            }
+            this.duplicateIds = duplicates;
+        }
+        this.nameIndex = buildNameIndex();
+        this.nameSearchIndex = NameSearchIndex.build(IntStream.range(0, rows.size()).mapToObj(this::name).toList());
+        this.salaryOrder = salaryOrder(IntStream.range(0, rows.size()).map(this::salary).toArray());
+    }
+
+    /**
+     * Index the given roster.
+     *
+     * @param employees The employees, in roster order.
+     * @param columnar  Whether to store them column by column (see {@link ColumnarRoster}).
+     * @return The indexed roster.
+     */
+    static IndexedRoster build(List<BackendEmployeeResponseDto> employees, boolean columnar) {
+        return new IndexedRoster(columnar ? ColumnarRoster.of(employees) : List.copyOf(employees));
+    }
+
+    /**
+     * Index the roster that results from deleting some of this one's rows and appending some employees, in the same
+     * layout as this one. A columnar roster is carried over column by column (see {@link ColumnarRoster#withChanges}).
+     *
+     * @param removedRows The rows to delete, in ascending order.
+     * @param added       The employees to append, in order.
+     * @return The new indexed roster.
+     */
+    IndexedRoster rebuild(int[] removedRows, List<BackendEmployeeResponseDto> added) {
+        if (rows instanceof ColumnarRoster columnar) {
+            return new IndexedRoster(columnar.withChanges(removedRows, added));
+        }
+        List<BackendEmployeeResponseDto> employees = new ArrayList<>(rows.size() - removedRows.length + added.size());
+        int nextRemoved = 0;
+        for (int row = 0; row < rows.size(); row++) {
+            if (nextRemoved < removedRows.length && removedRows[nextRemoved] == row) {
+                nextRemoved++;
+            } else {
+                employees.add(rows.get(row));
+            }
+        }
+        employees.addAll(added);
+        return new IndexedRoster(List.copyOf(employees));
+    }
+
+    List<BackendEmployeeResponseDto> rows() {
+        return rows;
+    }
+
+    int size() {
+        return rows.size();
+    }
+
+    boolean isColumnar() {
+        return rows instanceof ColumnarRoster;
+    }
+
+    BackendEmployeeResponseDto get(int row) {
+        return rows.get(row);
+    }
+
+    String id(int row) {
+        return rows instanceof ColumnarRoster columnar ? columnar.id(row) : rows.get(row).getId();
+    }
+
+    String name(int row) {
+        return rows instanceof ColumnarRoster columnar ? columnar.name(row) : rows.get(row).getName();
+    }
+
+    /**
+     * @return The row's salary, or {@link Integer#MIN_VALUE} if it has none.
+     */
+    int salary(int row) {
+        return rows instanceof ColumnarRoster columnar ? columnar.salary(row) : salaryOf(rows.get(row));
+    }
+
+    /**
+     * @return The first row with the given id, or -1 if there is none.
+     */
+    int rowOfId(String id) {
+        if (rows instanceof ColumnarRoster columnar) {
+            return columnar.rowOfId(id);
+        }
+        Integer row = idIndex.get(id);
+        return row == null ? -1 : row;
+    }
+
+    /**
+     * @return Whether some id appears on more than one row, so that {@link #rowOfId} doesn't tell about all of them.
+     */
+    boolean hasDuplicateIds() {
+        return duplicateIds;
+    }
+
+    /**
+     * @return The rows with the given name, compared case-insensitively, in ascending order.
+     */
+    int[] rowsNamed(String name) {
+        return nameIndex.getOrDefault(EmployeeSnapshot.normalizeName(name), NO_ROWS);
+    }
+
+    /**
+     * @return The rows whose name contains the fragment, ignoring case, in ascending order.
+     */
+    int[] rowsNameContaining(String fragment) {
+        return nameSearchIndex.search(fragment);
+    }
+
+    /**
+     * @return The row at the given rank of the salary order, which is by descending salary with ties in roster order.
+     */
+    int rowAtRank(int rank) {
+        return salaryOrder[rank];
+    }
+
+    /**
+     * @return How many bytes of memory outside the heap the roster holds on to; zero unless it is columnar.
+     */
+    long offHeapBytes() {
+        return rows instanceof ColumnarRoster columnar ? columnar.offHeapBytes() : 0;
+    }
+
+    private Map<String, int[]> buildNameIndex() {
+        Map<String, int[]> index = new HashMap<>(capacityFor(rows.size()));
+        for (int row = 0; row < rows.size(); row++) {
+            index.merge(EmployeeSnapshot.normalizeName(name(row)), new int[] {row}, IndexedRoster::concat);
+        }
+        return index;
+    }
+
+    /**
+     * Sort the positions of the given salaries by descending salary without boxing. Each position is packed into a
+     * long with the salary in the high bits and the inverted position in the low bits, so a plain ascending sort read
+     * backwards gives descending salary with ties in position order (the same order a stable sort would produce).
+     * Missing salaries ({@link Integer#MIN_VALUE}) sort last.
+     */
+    static int[] salaryOrder(int[] salaries) {
+        long[] keys = new long[salaries.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = ((long) salaries[i] << 32) | (Integer.MAX_VALUE - i);
+        }
+        Arrays.sort(keys);
+        int[] order = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            order[i] = Integer.MAX_VALUE - (int) keys[keys.length - 1 - i];
+        }
+        return order;
+    }
+
+    static int salaryOf(BackendEmployeeResponseDto employee) {
+        return employee.getSalary() == null ? Integer.MIN_VALUE : employee.getSalary();
+    }
+
+    private static int[] concat(int[] existing, int[] added) {
+        int[] result = Arrays.copyOf(existing, existing.length + added.length);
+        System.arraycopy(added, 0, result, existing.length, added.length);
+        return result;
+    }
+
+    private static int capacityFor(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+}
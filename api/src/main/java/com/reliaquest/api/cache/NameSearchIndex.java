@@ -0,0 +1,134 @@
+package com.reliaquest.api.cache;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An inverted trigram index over lower-cased employee names, used for the case-insensitive substring search. Every
+ * run of three consecutive characters in a name maps to the (ascending) rows whose name contains it. A fragment of
+ * three or more characters can only occur in a name that contains all of the fragment's trigrams, so the search
+ * intersects those posting lists, starting with the shortest, and only checks the surviving candidates with a real
+ * {@code contains}. The index just narrows the candidates down; the final check is what decides, so the results are
+ * exactly those of lower-casing every name and calling {@code contains} on it.
+ * <p>
+ * Fragments shorter than three characters have no trigrams to look up. Those fall back to a scan, but it runs over
+ * the names lower-cased once at build time rather than on every request.
+ */
+final class NameSearchIndex {
+    private static final int GRAM_LENGTH = 3;
+    private static final int[] NO_ROWS = new int[0];
+
+    private final String[] lowerCaseNames;
+    private final Map<Long, int[]> postings;
+
+    private NameSearchIndex(String[] lowerCaseNames, Map<Long, int[]> postings) {
+        this.lowerCaseNames = lowerCaseNames;
+        this.postings = postings;
+    }
+
+    /**
+     * Build the index.
+     *
+     * @param names The employee names in roster order. Null names are never matched.
+     * @return The index.
+     */
+    static NameSearchIndex build(List<String> names) {
+        String[] lowerCaseNames = new String[names.size()];
+        Map<Long, PostingBuilder> builders = new HashMap<>();
+        for (int row = 0; row < lowerCaseNames.length; row++) {
+            String name = names.get(row);
+            if (name == null) {
+                continue;
+            }
+            String lowerCaseName = name.toLowerCase();
+            lowerCaseNames[row] = lowerCaseName;
+            for (int i = 0; i + GRAM_LENGTH <= lowerCaseName.length(); i++) {
+                builders.computeIfAbsent(gram(lowerCaseName, i), gram -> new PostingBuilder()).add(row);
+            }
+        }
+        Map<Long, int[]> postings = new HashMap<>((int) (builders.size() / 0.75f) + 1);
+        builders.forEach((gram, builder) -> postings.put(gram, builder.toArray()));
+        return new NameSearchIndex(lowerCaseNames, postings);
+    }
+
+    /**
+     * Find the rows whose name contains the given fragment, ignoring case.
+     *
+     * @param fragment The fragment to search for.
+     * @return The matching rows, in ascending order.
+     */
+    int[] search(String fragment) {
+        String lowerCaseFragment = fragment.toLowerCase();
+        if (lowerCaseFragment.length() < GRAM_LENGTH) {
+            return scan(lowerCaseFragment);
+        }
+        int[][] lists = new int[lowerCaseFragment.length() - GRAM_LENGTH + 1][];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = postings.getOrDefault(gram(lowerCaseFragment, i), NO_ROWS);
+            if (lists[i].length == 0) {
+                return NO_ROWS;
+            }
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+        int[] candidates = lists[0];
+        int[] matches = new int[candidates.length];
+        int count = 0;
+        for (int row : candidates) {
+            if (inAll(lists, row) && lowerCaseNames[row].contains(lowerCaseFragment)) {
+                matches[count++] = row;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    private int[] scan(String lowerCaseFragment) {
+        int[] matches = new int[lowerCaseNames.length];
+        int count = 0;
+        for (int row = 0; row < lowerCaseNames.length; row++) {
+            if (lowerCaseNames[row] != null && lowerCaseNames[row].contains(lowerCaseFragment)) {
+                matches[count++] = row;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    private static boolean inAll(int[][] lists, int row) {
+        for (int i = 1; i < lists.length; i++) {
+            if (Arrays.binarySearch(lists[i], row) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Pack three chars into one long so the map keys don't need a String per trigram.
+     */
+    private static long gram(String s, int offset) {
+        return ((long) s.charAt(offset) << 32) | ((long) s.charAt(offset + 1) << 16) | s.charAt(offset + 2);
+    }
+
+    /**
+     * A growable list of ascending rows. A name that contains the same trigram more than once only adds its row once.
+     */
+    private static final class PostingBuilder {
+        private int[] rows = new int[4];
+        private int size;
+
+        void add(int row) {
+            if (size > 0 && rows[size - 1] == row) {
+                return;
+            }
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            rows[size++] = row;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(rows, size);
+        }
+    }
+}
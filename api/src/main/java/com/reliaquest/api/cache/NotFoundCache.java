@@ -0,0 +1,74 @@
+package com.reliaquest.api.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers, for a short while, the keys the backend has confirmed don't exist, so that repeated lookups of the same
+ * missing key can be answered without asking again. An entry only lives for the TTL: the key may be created in the
+ * meantime, and callers that know it has been (say, because a create came back with it) can {@link #forget} it sooner.
+ * <p>
+ * The cache holds at most {@code maxSize} keys. Caffeine expires them and keeps the size down as it goes, a little at a
+ * time, so remembering a key costs the same however full the cache is. Once it is full, some keys are dropped to make
+ * room -- a flood of distinct missing keys can cost backend requests, but never unbounded memory.
+ */
+public class NotFoundCache {
+    private final Cache<String, Boolean> keys;
+    private final Duration ttl;
+
+    /**
+     * @param ttl     How long a key is remembered as missing. Zero turns the cache off.
+     * @param maxSize The most keys remembered at once.
+     * @param clock   The clock the TTL is measured against.
+     */
+    public NotFoundCache(Duration ttl, int maxSize, Clock clock) {
+        this.ttl = ttl;
+        this.keys = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl.isNegative() ? Duration.ZERO : ttl)
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                .executor(Runnable::run)
+                .build();
+    }
+
+    /**
+     * @param key The key to check.
+     * @return Whether the key was confirmed missing less than a TTL ago.
+     */
+    public boolean isKnownMissing(String key) {
+        return keys.getIfPresent(key) != null;
+    }
+
+    /**
+     * Remember that the backend has confirmed the key doesn't exist.
+     *
+     * @param key The missing key.
+     */
+    public void remember(String key) {
+        if (ttl.isZero() || ttl.isNegative()) {
+            return;
+        }
+        keys.put(key, Boolean.TRUE);
+    }
+
+    /**
+     * Stop treating the key as missing, because it is known to exist now.
+     *
+     * @param key The key.
+     */
+    public void forget(String key) {
+        keys.invalidate(key);
+    }
+
+    /**
+     * @return The number of keys remembered, after any pending expiries and evictions have been carried out.
+     */
+    public int size() {
+        keys.cleanUp();
+        return (int) keys.estimatedSize();
+    }
+}
@@ -0,0 +1,11 @@
+package com.reliaquest.api.cache;
+
+/**
+ * The version of the backend's roster that a snapshot reflects, as reported by the backend. Versions only compare
+ * within the same epoch; a new epoch means the backend was restarted.
+ *
+ * @param epoch   The backend instance the version belongs to.
+ * @param version The backend's modification counter.
+ */
+public record RosterVersion(String epoch, long version) {
+}
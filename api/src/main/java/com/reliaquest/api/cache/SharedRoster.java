@@ -0,0 +1,27 @@
+package com.reliaquest.api.cache;
+
+import com.reliaquest.api.model.BackendEmployeeResponseDto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A roster as kept in the shared cache, with what the backend told us about it, so that another api instance can
+ * publish it as if it had fetched it itself.
+ *
+ * @param retrievedAt   When the roster was retrieved from the backend.
+ * @param entityTag     The ETag the backend sent with the roster, or null if it didn't send one.
+ * @param rosterVersion The version the backend reported for the roster, or null if it didn't report one.
+ * @param employees     The roster.
+ */
+public record SharedRoster(Instant retrievedAt, String entityTag, RosterVersion rosterVersion,
+                           List<BackendEmployeeResponseDto> employees) {
+
+    /**
+     * @return The roster that the (clean) snapshot was built from.
+     */
+    public static SharedRoster of(EmployeeSnapshot snapshot) {
+        return new SharedRoster(snapshot.getCreatedAt(), snapshot.getEntityTag(), snapshot.getRosterVersion(),
+                snapshot.getEmployees());
+    }
+}
@@ -0,0 +1,93 @@
+package com.reliaquest.api.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.reliaquest.api.cache.provider.CacheProvider;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Keeps the most recently fetched roster in a {@link CacheProvider}, so that api instances sharing the provider share
+ * one warm roster instead of each fetching its own from the backend. The roster is stored as JSON, and only for what
+ * is left of its TTL: an instance that picks it up treats it as exactly as old as it is.
+ * <p>
+ * The shared cache is an optimization and never a reason for a request to fail. If the provider can't be reached, or
+ * what it holds can't be read, that is logged and treated as a miss.
+ */
+@Slf4j
+public class SharedRosterCache implements AutoCloseable {
+    static final String ROSTER_KEY = "roster";
+    private final CacheProvider provider;
+    private final Duration ttl;
+    private final Clock clock;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    /**
+     * @param provider Where the roster is kept.
+     * @param ttl      How long a roster is good for after it was retrieved from the backend.
+     * @param clock    The clock the age of a roster is measured against.
+     */
+    public SharedRosterCache(CacheProvider provider, Duration ttl, Clock clock) {
+        this.provider = provider;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    /**
+     * @return The shared roster, or an empty optional if there is none that is still within its TTL.
+     */
+    public Optional<SharedRoster> load() {
+        try {
+            Optional<byte[]> stored = provider.get(ROSTER_KEY);
+            if (stored.isEmpty()) {
+                return Optional.empty();
+            }
+            SharedRoster roster = objectMapper.readValue(stored.get(), SharedRoster.class);
+            return isPositive(remainingTtl(roster)) ? Optional.of(roster) : Optional.empty();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to load the shared roster: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Share a roster, replacing whichever one was shared before. Does nothing if the roster is already past its TTL.
+     *
+     * @param roster The roster.
+     */
+    public void store(SharedRoster roster) {
+        Duration remaining = remainingTtl(roster);
+        if (!isPositive(remaining)) {
+            return;
+        }
+        try {
+            provider.put(ROSTER_KEY, objectMapper.writeValueAsBytes(roster), remaining);
+            log.debug("Shared a roster of {} employees retrieved at {}.", roster.employees().size(), roster.retrievedAt());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to share the roster: {}", e.getMessage());
+        }
+    }
+
+    private Duration remainingTtl(SharedRoster roster) {
+        return ttl.minus(Duration.between(roster.retrievedAt(), clock.instant()));
+    }
+
+    /**
+     * {@code Duration.isPositive()} is only there from Java 18 on.
+     */
+    private static boolean isPositive(Duration duration) {
+        return !duration.isNegative() && !duration.isZero();
+    }
+
+    @Override
+    public void close() {
+        provider.close();
+    }
+}
@@ -0,0 +1,48 @@
+package com.reliaquest.api.cache.provider;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * A key-value cache that the api keeps data in which is worth sharing, either within this process or -- with a
+ * provider backed by a cache server -- between every replica of the api. Values are opaque bytes; the caller decides
+ * how they are encoded.
+ * <p>
+ * Every entry has a TTL and is gone once it has passed. A provider also bounds its size, evicting entries before
+ * their TTL if it has to: {@link CaffeineCacheProvider} by number of entries, {@link RespCacheProvider} by whatever
+ * eviction policy the server is configured with. So callers must treat a miss as normal.
+ * <p>
+ * Methods may block on I/O and throw a {@link CacheProviderException} when the cache can't be reached. A cache is an
+ * optimization, so callers are expected to carry on without it when that happens.
+ */
+public interface CacheProvider extends AutoCloseable {
+
+    /**
+     * @param key The key to look up.
+     * @return The value, or an empty optional if there is none (or it has expired or been evicted).
+     */
+    Optional<byte[]> get(String key);
+
+    /**
+     * Store a value, replacing any value the key already has.
+     *
+     * @param key   The key.
+     * @param value The value.
+     * @param ttl   How long the value may be kept. Must be positive.
+     */
+    void put(String key, byte[] value, Duration ttl);
+
+    /**
+     * Remove the key's value, if it has one.
+     *
+     * @param key The key.
+     */
+    void evict(String key);
+
+    /**
+     * Release whatever the provider holds on to, such as connections. The provider can't be used afterward.
+     */
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,10 @@
+package com.reliaquest.api.cache.provider;
+
+import lombok.experimental.StandardException;
+
+/**
+ * A {@link CacheProvider} couldn't complete an operation, typically because the cache server can't be reached.
+ */
+@StandardException
+public class CacheProviderException extends RuntimeException {
+}
@@ -0,0 +1,93 @@
+package com.reliaquest.api.cache.provider;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+/**
+ * An in-process {@link CacheProvider} on top of Caffeine. Each entry expires after its own TTL, and once there are more
+ * than {@code maxEntries} entries Caffeine evicts the ones least likely to be used again. Nothing is shared beyond this
+ * process, so this is the provider for a single api instance; replicas that should share a cache need a
+ * {@link RespCacheProvider}.
+ */
+public class CaffeineCacheProvider implements CacheProvider {
+    private final Cache<String, Entry> cache;
+
+    /**
+     * @param maxEntries The most entries kept at once.
+     */
+    public CaffeineCacheProvider(long maxEntries) {
+        this(maxEntries, Ticker.systemTicker(), Runnable::run);
+    }
+
+    /**
+     * @param maxEntries The most entries kept at once.
+     * @param ticker     The time source TTLs are measured against.
+     * @param executor   Runs Caffeine's eviction work.
+     */
+    CaffeineCacheProvider(long maxEntries, Ticker ticker, Executor executor) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new EntryExpiry())
+                .ticker(ticker)
+                .executor(executor)
+                .build();
+    }
+
+    @Override
+    public Optional<byte[]> get(String key) {
+        return Optional.ofNullable(cache.getIfPresent(key)).map(Entry::value);
+    }
+
+    @Override
+    public void put(String key, byte[] value, Duration ttl) {
+        cache.put(key, new Entry(value, ttl));
+    }
+
+    @Override
+    public void evict(String key) {
+        cache.invalidate(key);
+    }
+
+    /**
+     * @return The number of entries, after any pending evictions have been carried out.
+     */
+    public long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public void close() {
+        cache.invalidateAll();
+        cache.cleanUp();
+    }
+
+    private record Entry(byte[] value, Duration ttl) {
+    }
+
+    /**
+     * Expires each entry its own TTL after it was last written; reading it doesn't extend it.
+     */
+    private static class EntryExpiry implements Expiry<String, Entry> {
+        @Override
+        public long expireAfterCreate(String key, Entry entry, long currentTime) {
+            return entry.ttl().toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+            return entry.ttl().toNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
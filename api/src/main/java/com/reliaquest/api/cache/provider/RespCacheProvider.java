@@ -0,0 +1,132 @@
+package com.reliaquest.api.cache.provider;
+
+import com.reliaquest.api.config.BackendServiceConfig;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A {@link CacheProvider} backed by a Redis-compatible server, spoken to in RESP with nothing more than {@code GET},
+ * {@code SET ... PX} and {@code DEL} -- so it works against Redis, Valkey, KeyDB, Dragonfly and the like. Every api
+ * replica pointed at the same server shares its entries.
+ * <p>
+ * TTLs are enforced by the server. So is the size bound: entries are evicted before their TTL only according to the
+ * server's {@code maxmemory} and {@code maxmemory-policy} settings (a {@code volatile-*} or {@code allkeys-*} policy,
+ * not {@code noeviction}, for a cache). Keys are prefixed with {@code keyPrefix} so that several applications can
+ * share a server.
+ * <p>
+ * Connections are opened as they are needed and up to {@code maxConnections} idle ones are kept for reuse. A
+ * connection that fails is closed rather than reused, so the next operation connects again; there is no other retry.
+ */
+@Slf4j
+public class RespCacheProvider implements CacheProvider {
+    private final String host;
+    private final int port;
+    private final Duration timeout;
+    private final String password;
+    private final String keyPrefix;
+    private final BlockingQueue<RespConnection> idle;
+    private volatile boolean closed;
+
+    public RespCacheProvider(BackendServiceConfig.SharedCache config) {
+        this.host = config.getHost();
+        this.port = config.getPort();
+        this.timeout = config.getTimeout();
+        this.password = config.getPassword();
+        this.keyPrefix = config.getKeyPrefix();
+        this.idle = new ArrayBlockingQueue<>(config.getMaxConnections());
+    }
+
+    @Override
+    public Optional<byte[]> get(String key) {
+        return Optional.ofNullable((byte[]) execute(bytes("GET"), key(key)));
+    }
+
+    @Override
+    public void put(String key, byte[] value, Duration ttl) {
+        execute(bytes("SET"), key(key), value, bytes("PX"), bytes(Long.toString(Math.max(1, ttl.toMillis()))));
+    }
+
+    @Override
+    public void evict(String key) {
+        execute(bytes("DEL"), key(key));
+    }
+
+    private Object execute(byte[]... command) {
+        if (closed) {
+            throw new CacheProviderException("The cache provider has been closed.");
+        }
+        RespConnection connection = idle.poll();
+        try {
+            if (connection == null) {
+                connection = connect();
+            }
+            Object reply = connection.send(command);
+            release(connection);
+            return reply;
+        } catch (CacheProviderException e) {
+            // an error reply leaves the connection in step with the server, so it can be reused
+            release(connection);
+            throw e;
+        } catch (IOException e) {
+            discard(connection);
+            throw new CacheProviderException("Cache server at " + host + ":" + port + " failed: " + e.getMessage(), e);
+        }
+    }
+
+    private RespConnection connect() throws IOException {
+        log.debug("Opening a connection to the cache server at {}:{}.", host, port);
+        RespConnection connection = new RespConnection(host, port, timeout);
+        if (password != null && !password.isEmpty()) {
+            try {
+                connection.send(bytes("AUTH"), bytes(password));
+            } catch (IOException | CacheProviderException e) {
+                discard(connection);
+                throw e;
+            }
+        }
+        return connection;
+    }
+
+    private void release(RespConnection connection) {
+        if (connection == null) {
+            return;
+        }
+        if (closed || !idle.offer(connection)) {
+            discard(connection);
+        }
+    }
+
+    private static void discard(RespConnection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (IOException e) {
+            log.debug("Failed to close a connection to the cache server: {}", e.getMessage());
+        }
+    }
+
+    private byte[] key(String key) {
+        return bytes(keyPrefix + key);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        RespConnection connection;
+        while ((connection = idle.poll()) != null) {
+            discard(connection);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.reliaquest.api.cache.provider;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One connection to a server that speaks RESP, the Redis serialization protocol. A command is sent as an array of bulk
+ * strings and its reply is read back before the next command is sent, so a connection must only be used by one thread
+ * at a time.
+ * <p>
+ * Replies are decoded as: simple string to {@code String}, integer to {@code Long}, bulk string to {@code byte[]},
+ * array to {@code List<Object>}, and a null bulk string or array to null. An error reply is thrown as a
+ * {@link CacheProviderException}; the connection is still usable afterward. An {@link IOException} leaves the connection
+ * in an unknown state, so it should be closed.
+ */
+class RespConnection implements Closeable {
+    private static final byte[] CRLF = {'\r', '\n'};
+    private final Socket socket;
+    private final InputStream in;
+    private final OutputStream out;
+
+    RespConnection(String host, int port, Duration timeout) throws IOException {
+        this.socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, port), (int) timeout.toMillis());
+            socket.setSoTimeout((int) timeout.toMillis());
+            socket.setTcpNoDelay(true);
+            this.in = new BufferedInputStream(socket.getInputStream());
+            this.out = new BufferedOutputStream(socket.getOutputStream());
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Send a command and wait for its reply.
+     *
+     * @param args The command name followed by its arguments.
+     * @return The decoded reply.
+     */
+    Object send(byte[]... args) throws IOException {
+        out.write('*');
+        writeNumber(args.length);
+        for (byte[] arg : args) {
+            out.write('$');
+            writeNumber(arg.length);
+            out.write(arg);
+            out.write(CRLF);
+        }
+        out.flush();
+        return readReply();
+    }
+
+    private void writeNumber(long number) throws IOException {
+        out.write(Long.toString(number).getBytes(StandardCharsets.US_ASCII));
+        out.write(CRLF);
+    }
+
+    private Object readReply() throws IOException {
+        int type = in.read();
+        return switch (type) {
+            case '+' -> readLine();
+            case '-' -> throw new CacheProviderException("Cache server replied with an error: " + readLine());
+            case ':' -> readNumber();
+            case '$' -> readBulkString();
+            case '*' -> readArray();
+            case -1 -> throw new EOFException("Cache server closed the connection.");
+            default -> throw new IOException("Unexpected RESP reply type '" + (char) type + "'.");
+        };
+    }
+
+    private byte[] readBulkString() throws IOException {
+        int length = (int) readNumber();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = in.readNBytes(length);
+        if (value.length < length || in.read() != '\r' || in.read() != '\n') {
+            throw new EOFException("Cache server sent a truncated reply.");
+        }
+        return value;
+    }
+
+    private List<Object> readArray() throws IOException {
+        int count = (int) readNumber();
+        if (count < 0) {
+            return null;
+        }
+        List<Object> elements = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            elements.add(readReply());
+        }
+        return elements;
+    }
+
+    private long readNumber() throws IOException {
+        String line = readLine();
+        try {
+            return Long.parseLong(line);
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed RESP number '" + line + "'.", e);
+        }
+    }
+
+    private String readLine() throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\r') {
+            if (b == -1) {
+                throw new EOFException("Cache server sent a truncated reply.");
+            }
+            line.write(b);
+        }
+        if (in.read() != '\n') {
+            throw new IOException("Malformed RESP reply line.");
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
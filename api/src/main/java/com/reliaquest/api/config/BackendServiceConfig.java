@@ -14,4 +14,207 @@ public class BackendServiceConfig {
     private int maxRetries;
     private Duration retryBackoff;
     private Duration maxBackoff;
+    /**
+     * The maximum number of open connections to the backend. Requests beyond this wait for a free connection.
+     */
+    private int maxConnections = 500;
+    /**
+     * How many requests may wait for a free connection before new ones are rejected. This has to be large when the
+     * api holds thousands of concurrent requests (reactive or virtual-thread mode).
+     */
+    private int maxPendingAcquires = 10_000;
+    private Cache cache = new Cache();
+    private RateLimit rateLimit = new RateLimit();
+    private Scheduler scheduler = new Scheduler();
+    private Roster roster = new Roster();
+    private Batch batch = new Batch();
+    private SharedCache sharedCache = new SharedCache();
+
+    @Data
+    public static class Cache {
+        /**
+         * How the roster cache is kept up to date. See {@link RefreshMode}.
+         */
+        private RefreshMode refreshMode = RefreshMode.ON_DEMAND;
+        /**
+         * How old a snapshot can get before it is considered stale.
+         */
+        private Duration ttl = Duration.ofSeconds(60);
+        /**
+         * How long before the TTL expires that a background refresh is started, so that callers rarely see a stale
+         * snapshot at all.
+         */
+        private Duration refreshAhead = Duration.ofSeconds(15);
+        /**
+         * How often the background task checks whether the snapshot is due for a refresh.
+         */
+        private Duration refreshCheckInterval = Duration.ofSeconds(5);
+        /**
+         * How long an id the backend has answered with a 404 is remembered as missing, so that lookups of it are
+         * answered without asking again. Zero turns this off. Ids that are in a fresh snapshot are answered from it
+         * without a request either way.
+         */
+        private Duration notFoundTtl = Duration.ofSeconds(5);
+        /**
+         * The most missing ids remembered at once.
+         */
+        private int notFoundMaxSize = 10_000;
+    }
+
+    @Data
+    public static class RateLimit {
+        /**
+         * Whether outgoing requests go through the client-side rate limiter at all. It learns the backend's budget
+         * from the 429s it sees and then queues requests for the next window rather than sending them to be rejected.
+         */
+        private boolean enabled = true;
+        /**
+         * The first guess at how long the backend rate limits for once its budget is used up. The mock server picks
+         * something between 30 and 90 seconds.
+         */
+        private Duration initialCooldown = Duration.ofSeconds(30);
+        /**
+         * The cooldown estimate is never raised above this.
+         */
+        private Duration maxCooldown = Duration.ofSeconds(120);
+        /**
+         * The longest a request will queue for the next window before it is rejected with a 429. Reads that have a
+         * cached value to fall back on never queue.
+         */
+        private Duration maxWait = Duration.ofSeconds(120);
+    }
+
+    @Data
+    public static class Scheduler {
+        /**
+         * How many requests may queue for a permit in each priority lane (reads, writes) before new ones are rejected
+         * with a 429 rather than queued.
+         */
+        private int maxQueueDepth = 1000;
+    }
+
+    @Data
+    public static class Roster {
+        /**
+         * How the full roster is fetched from the backend. See {@link RosterTransfer}.
+         */
+        private RosterTransfer transfer = RosterTransfer.STREAM;
+        /**
+         * How many employees to ask for per request in {@code PAGED} mode.
+         */
+        private int pageSize = 1000;
+        /**
+         * Whether to refresh a cached roster from the backend's change feed, fetching only what changed since the
+         * snapshot was taken, rather than fetching the full roster every time. The full roster is fetched again when
+         * the backend can no longer tell the changes (a 410).
+         */
+        private boolean changeFeed = true;
+        /**
+         * Whether to follow the backend's change stream and apply every create and delete to the cached roster as it
+         * is made, instead of refreshing the roster when it gets old. While the stream is connected, reads are served
+         * from the snapshot in either refresh mode; a lost stream is resubscribed from the snapshot's version.
+         */
+        private boolean push = false;
+        /**
+         * Whether the cached roster is stored column by column, with names, emails and ids outside the heap, rather than
+         * as one object per employee. Saves most of the heap a large roster takes, at the cost of building an
+         * employee's object each time it is returned.
+         */
+        private boolean columnar = false;
+    }
+
+    @Data
+    public static class Batch {
+        /**
+         * Whether concurrent creates are gathered into batch requests to the backend rather than sent one by one. Every
+         * create then waits up to {@code window} for others to join it, so this only pays off under bursts of creates.
+         */
+        private boolean enabled = false;
+        /**
+         * How long to wait for more creates after the first one before sending the batch.
+         */
+        private Duration window = Duration.ofMillis(20);
+        /**
+         * The most creates sent in one batch; a full batch is sent without waiting out the window. The backend takes
+         * up to 1000.
+         */
+        private int maxSize = 100;
+    }
+
+    @Data
+    public static class SharedCache {
+        /**
+         * Where the roster is shared once fetched. See {@link CacheProviderType}. A roster taken from the shared cache
+         * is as old as when it was fetched, so sharing it never stretches the TTL.
+         */
+        private CacheProviderType provider = CacheProviderType.NONE;
+        /**
+         * The most entries the {@code CAFFEINE} provider keeps. The {@code REDIS} provider leaves this to the server's
+         * {@code maxmemory} setting.
+         */
+        private long maxEntries = 100;
+        private String host = "localhost";
+        private int port = 6379;
+        /**
+         * The server's password, if it requires one.
+         */
+        private String password;
+        /**
+         * How long to wait to connect to the server, and for each reply.
+         */
+        private Duration timeout = Duration.ofSeconds(2);
+        /**
+         * How many idle connections to the server are kept for reuse.
+         */
+        private int maxConnections = 8;
+        /**
+         * Put in front of every key, so that other applications can use the same server.
+         */
+        private String keyPrefix = "employee-api:";
+    }
+
+    public enum CacheProviderType {
+        /**
+         * The roster isn't shared; each api instance fetches its own from the backend.
+         */
+        NONE,
+        /**
+         * An in-process Caffeine cache. Only instances in the same JVM share it.
+         */
+        CAFFEINE,
+        /**
+         * A Redis-compatible server at {@code host}:{@code port}, shared by every api replica that points at it.
+         */
+        REDIS
+    }
+
+    public enum RosterTransfer {
+        /**
+         * One request, one JSON body holding the entire roster. It is decoded as it arrives rather than buffered, so
+         * WebClient's in-memory codec limit doesn't apply.
+         */
+        FULL,
+        /**
+         * One request per page, following the id of the last employee on each page. Neither side ever holds more than
+         * a page of the response at a time, but each page costs a request from the backend's rate-limit budget. A 429
+         * is retried for that page alone rather than starting over.
+         */
+        PAGED,
+        /**
+         * One request whose body is newline-delimited JSON, decoded one employee at a time as it arrives.
+         */
+        STREAM
+    }
+
+    public enum RefreshMode {
+        /**
+         * Every roster read goes to the backend; the cache is only used as a fallback when rate limited.
+         */
+        ON_DEMAND,
+        /**
+         * Roster reads are always served from the cached snapshot (once there is one) while a single background
+         * refresh keeps it up to date. The refresh starts once the snapshot is within {@code refreshAhead} of its TTL.
+         */
+        STALE_WHILE_REVALIDATE
+    }
 }
@@ -4,13 +4,18 @@ import com.reliaquest.api.model.EmployeeResponse;
 import com.reliaquest.api.model.NewEmployeeRequest;
 import com.reliaquest.api.service.EmployeeService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
 
 @Slf4j
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class EmployeeController implements IEmployeeController<EmployeeResponse, NewEmployeeRequest> {
     private final EmployeeService employeeService;
 
@@ -39,15 +44,13 @@ public class EmployeeController implements IEmployeeController<EmployeeResponse,
     @Override
     public ResponseEntity<Integer> getHighestSalaryOfEmployees() {
         log.debug("Received request for getHighestSalaryOfEmployees()");
-        return ResponseEntity.ok(employeeService.getTopPaidEmployees(1).get(0).getSalary());
+        return ResponseEntity.ok(employeeService.getHighestSalary());
     }
 
     @Override
     public ResponseEntity<List<String>> getTopTenHighestEarningEmployeeNames() {
         log.debug("Received request for getTopTenHighestEarningEmployeeNames()");
-        return ResponseEntity.ok(employeeService.getTopPaidEmployees(10).stream()
-                .map(EmployeeResponse::getName)
-                .toList());
+        return ResponseEntity.ok(employeeService.getTopTenHighestEarningEmployeeNames());
     }
 
     @Override
@@ -65,4 +68,27 @@ public class EmployeeController implements IEmployeeController<EmployeeResponse,
         }
         return ResponseEntity.ok(employeeResponse.getName());
     }
+
+    /**
+     * Create several employees with one backend request. Not part of {@link IEmployeeController}, whose contract must
+     * not change.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<EmployeeResponse>> createEmployees(@RequestBody List<NewEmployeeRequest> employeeInputs) {
+        log.debug("Received request for createEmployees({} employees)", employeeInputs.size());
+        return ResponseEntity.ok(employeeService.createEmployees(employeeInputs));
+    }
+
+    /**
+     * Delete several employees by id with one backend request.
+     *
+     * @return The names of the employees that were deleted.
+     */
+    @DeleteMapping("/batch")
+    public ResponseEntity<List<String>> deleteEmployeesById(@RequestBody List<String> ids) {
+        log.debug("Received request for deleteEmployeesById({} ids)", ids.size());
+        return ResponseEntity.ok(employeeService.deleteEmployeesById(ids).stream()
+                .map(EmployeeResponse::getName)
+                .toList());
+    }
 }
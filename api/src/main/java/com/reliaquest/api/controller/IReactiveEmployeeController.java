@@ -0,0 +1,43 @@
+package com.reliaquest.api.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * The reactive counterpart of {@link IEmployeeController}. The routes, inputs and outputs are identical; the only
+ * difference is that every response is wrapped in a Mono so that no request thread has to wait on the backend. It is
+ * a separate interface (rather than a change to IEmployeeController) because the original contract must not change.
+ *
+ * @param <Entity> object representation of an Employee
+ * @param <Input> object representation of a request body for creating Employee(s)
+ */
+public interface IReactiveEmployeeController<Entity, Input> {
+
+    @GetMapping()
+    Mono<ResponseEntity<List<Entity>>> getAllEmployees();
+
+    @GetMapping("/search/{searchString}")
+    Mono<ResponseEntity<List<Entity>>> getEmployeesByNameSearch(@PathVariable String searchString);
+
+    @GetMapping("/{id}")
+    Mono<ResponseEntity<Entity>> getEmployeeById(@PathVariable String id);
+
+    @GetMapping("/highestSalary")
+    Mono<ResponseEntity<Integer>> getHighestSalaryOfEmployees();
+
+    @GetMapping("/topTenHighestEarningEmployeeNames")
+    Mono<ResponseEntity<List<String>>> getTopTenHighestEarningEmployeeNames();
+
+    @PostMapping()
+    Mono<ResponseEntity<Entity>> createEmployee(@RequestBody Input employeeInput);
+
+    @DeleteMapping("/{id}")
+    Mono<ResponseEntity<String>> deleteEmployeeById(@PathVariable String id);
+}
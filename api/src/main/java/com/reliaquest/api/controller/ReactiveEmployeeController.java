@@ -0,0 +1,99 @@
+package com.reliaquest.api.controller;
+
+import com.reliaquest.api.model.EmployeeResponse;
+import com.reliaquest.api.model.NewEmployeeRequest;
+import com.reliaquest.api.service.ReactiveEmployeeService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Serves the employee API when the application runs on the reactive stack (see {@code application-reactive.yml}).
+ * Responses mirror {@link EmployeeController} exactly, including its status codes.
+ */
+@Slf4j
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveEmployeeController implements IReactiveEmployeeController<EmployeeResponse, NewEmployeeRequest> {
+    private final ReactiveEmployeeService employeeService;
+
+    public ReactiveEmployeeController(ReactiveEmployeeService employeeService) {
+        this.employeeService = employeeService;
+    }
+
+    @Override
+    public Mono<ResponseEntity<List<EmployeeResponse>>> getAllEmployees() {
+        log.debug("Received request for getAllEmployees()");
+        return employeeService.getAllEmployees().map(ResponseEntity::ok);
+    }
+
+    @Override
+    public Mono<ResponseEntity<List<EmployeeResponse>>> getEmployeesByNameSearch(String searchString) {
+        log.debug("Received request for getEmployeesByNameSearch({})", searchString);
+        return employeeService.getEmployeesMatchingName(searchString).map(ResponseEntity::ok);
+    }
+
+    @Override
+    public Mono<ResponseEntity<EmployeeResponse>> getEmployeeById(String id) {
+        log.debug("Received request for getEmployeeById({})", id);
+        return employeeService.getEmployeeById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.ok().build());
+    }
+
+    @Override
+    public Mono<ResponseEntity<Integer>> getHighestSalaryOfEmployees() {
+        log.debug("Received request for getHighestSalaryOfEmployees()");
+        return employeeService.getHighestSalary()
+                .map(ResponseEntity::ok);
+    }
+
+    @Override
+    public Mono<ResponseEntity<List<String>>> getTopTenHighestEarningEmployeeNames() {
+        log.debug("Received request for getTopTenHighestEarningEmployeeNames()");
+        return employeeService.getTopTenHighestEarningEmployeeNames()
+                .map(ResponseEntity::ok);
+    }
+
+    @Override
+    public Mono<ResponseEntity<EmployeeResponse>> createEmployee(NewEmployeeRequest employeeInput) {
+        log.debug("Received request for createEmployee({})", employeeInput.getName());
+        return employeeService.createEmployee(employeeInput)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.ok().build());
+    }
+
+    @Override
+    public Mono<ResponseEntity<String>> deleteEmployeeById(String id) {
+        log.debug("Received request for deleteEmployeeById({})", id);
+        return employeeService.deleteEmployeeById(id)
+                .map(employeeResponse -> ResponseEntity.ok(employeeResponse.getName()))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * @see EmployeeController#createEmployees(List)
+     */
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<List<EmployeeResponse>>> createEmployees(@RequestBody List<NewEmployeeRequest> employeeInputs) {
+        log.debug("Received request for createEmployees({} employees)", employeeInputs.size());
+        return employeeService.createEmployees(employeeInputs).map(ResponseEntity::ok);
+    }
+
+    /**
+     * @see EmployeeController#deleteEmployeesById(List)
+     */
+    @DeleteMapping("/batch")
+    public Mono<ResponseEntity<List<String>>> deleteEmployeesById(@RequestBody List<String> ids) {
+        log.debug("Received request for deleteEmployeesById({} ids)", ids.size());
+        return employeeService.deleteEmployeesById(ids)
+                .map(deleted -> ResponseEntity.ok(deleted.stream().map(EmployeeResponse::getName).toList()));
+    }
+}
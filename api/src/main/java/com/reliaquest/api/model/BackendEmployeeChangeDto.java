@@ -0,0 +1,30 @@
+package com.reliaquest.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * One create or delete from the backend's change feed.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class BackendEmployeeChangeDto {
+    private long version;
+    private Type type;
+    private BackendEmployeeResponseDto employee;
+    /**
+     * When the backend made the change, by its own clock.
+     */
+    private Instant at;
+
+    public enum Type {
+        CREATED,
+        DELETED
+    }
+}
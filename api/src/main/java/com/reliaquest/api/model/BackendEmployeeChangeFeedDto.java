@@ -0,0 +1,27 @@
+package com.reliaquest.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class BackendEmployeeChangeFeedDto {
+    private ChangeFeed data;
+    private String status;
+
+    @Data
+    @Builder(toBuilder = true)
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ChangeFeed {
+        private String epoch;
+        private long version;
+        private List<BackendEmployeeChangeDto> changes;
+    }
+}
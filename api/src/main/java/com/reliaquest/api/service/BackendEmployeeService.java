@@ -1,27 +1,71 @@
 package com.reliaquest.api.service;
 
+import com.reliaquest.api.cache.EmployeeSnapshot;
+import com.reliaquest.api.cache.EmployeeSnapshotStore;
+import com.reliaquest.api.cache.NotFoundCache;
+import com.reliaquest.api.cache.RosterVersion;
+import com.reliaquest.api.cache.SharedRoster;
+import com.reliaquest.api.cache.SharedRosterCache;
+import com.reliaquest.api.cache.provider.CaffeineCacheProvider;
+import com.reliaquest.api.cache.provider.RespCacheProvider;
 import com.reliaquest.api.config.BackendServiceConfig;
+import com.reliaquest.api.model.BackendCreateEmployeesDto;
 import com.reliaquest.api.model.BackendDeleteEmployeeDto;
 import com.reliaquest.api.model.BackendDeleteEmployeeResponseDto;
+import com.reliaquest.api.model.BackendDeleteEmployeesDto;
+import com.reliaquest.api.model.BackendEmployeeChangeDto;
+import com.reliaquest.api.model.BackendEmployeeChangeFeedDto;
 import com.reliaquest.api.model.BackendEmployeeDto;
 import com.reliaquest.api.model.BackendEmployeeListDto;
 import com.reliaquest.api.model.BackendEmployeeResponseDto;
 import com.reliaquest.api.model.NewEmployeeRequest;
+import com.reliaquest.api.service.BackendRequestScheduler.Lane;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
 import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 import reactor.util.retry.Retry;
 import reactor.util.retry.RetryBackoffSpec;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
+import static org.springframework.http.HttpStatus.GONE;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
 import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
 
 /**
@@ -38,17 +82,218 @@ import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
  * Also, while this service does handle retry logic for 429 responses, the caching implementation serves to reduce
  * the impact of the rate limiting. That doesn't help with mutating operations (create, delete), however, and these
  * are retried until successful (or retries are exhausted).
+ * <p>
+ * Roster reads are answered from the snapshots in an {@link EmployeeSnapshotStore}, which creates and deletes are
+ * applied to as deltas once the backend confirms them. How the roster is fetched and kept fresh is set by the
+ * {@code backend.*} properties (see {@link BackendServiceConfig} and the README). Every request goes through the
+ * {@link BackendRateLimiter}, and concurrent GETs for the same URI are coalesced into one.
+ * <p>
+ * Every operation has a non-blocking {@code ...Reactive} variant that returns a Mono. The plain variants simply block
+ * on those (see {@link #await}).
  */
 @Slf4j
 @Service
 public class BackendEmployeeService {
+    private static final String EPOCH_HEADER = "X-Employee-Epoch";
+    private static final String VERSION_HEADER = "X-Employee-Version";
+    private static final ParameterizedTypeReference<ServerSentEvent<BackendEmployeeChangeDto>> CHANGE_EVENT =
+            new ParameterizedTypeReference<>() { };
+    /**
+     * The backend sends a heartbeat every 15 seconds, so a stream that has been silent for this long is dead.
+     */
+    private static final Duration PUSH_IDLE_TIMEOUT = Duration.ofSeconds(45);
+    private static final Duration PUSH_BATCH_WINDOW = Duration.ofMillis(100);
+    private static final int PUSH_BATCH_SIZE = 1000;
+    private static final Duration PUSH_RECONNECT_DELAY = Duration.ofMillis(100);
+    /**
+     * The most employees the backend takes in one batch request.
+     */
+    private static final int MAX_BATCH_SIZE = 1000;
     private final WebClient webClient;
     private final BackendServiceConfig config;
-    private BackendEmployeeListDto employeeCache;
+    private final Clock clock;
+    private final EmployeeSnapshotStore snapshotStore;
+    private final NotFoundCache notFoundCache;
+    private final SharedRosterCache sharedRosterCache;
+    private final RosterStreamDecoder rosterDecoder = new RosterStreamDecoder();
+    private final AtomicBoolean refreshInProgress = new AtomicBoolean();
+    private final AtomicBoolean pushConnected = new AtomicBoolean();
+    private final ConcurrentMap<InFlightKey, Mono<?>> inFlightRequests = new ConcurrentHashMap<>();
+    private final Counter sentRequestCounter;
+    private final Counter coalescedRequestCounter;
+    private final Counter shedRequestCounter;
+    private final BackendRateLimiter rateLimiter;
+    private final BackendRequestScheduler scheduler;
+    private final Counter refreshSuccessCounter;
+    private final Counter refreshFailureCounter;
+    private final Counter notModifiedCounter;
+    private final Counter changeFeedCounter;
+    private final Timer pushLagTimer;
+    private final Counter lookupHitCounter;
+    private final Counter lookupNotFoundCounter;
+    private final Counter lookupMissCounter;
+    private final Counter sharedRosterCounter;
+    private final RequestBatcher<NewEmployeeRequest, BackendEmployeeResponseDto> createBatcher;
+    private Disposable refreshTask;
+    private Disposable pushTask;
 
-    public BackendEmployeeService(WebClient.Builder builder, BackendServiceConfig config) {
+    public BackendEmployeeService(WebClient.Builder builder, BackendServiceConfig config, MeterRegistry meterRegistry) {
         this.config = config;
-        this.webClient = builder.baseUrl(config.getUrl()).build();
+        this.webClient = builder.baseUrl(config.getUrl())
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(ConnectionProvider.builder("backend")
+                        .maxConnections(config.getMaxConnections())
+                        .pendingAcquireMaxCount(config.getMaxPendingAcquires())
+                        .build())))
+                .build();
+        this.clock = Clock.systemUTC();
+        this.snapshotStore = new EmployeeSnapshotStore(clock, config.getRoster().isColumnar());
+        this.notFoundCache = new NotFoundCache(config.getCache().getNotFoundTtl(), config.getCache().getNotFoundMaxSize(),
+                clock);
+        this.sharedRosterCache = switch (config.getSharedCache().getProvider()) {
+            case NONE -> null;
+            case CAFFEINE -> new SharedRosterCache(new CaffeineCacheProvider(config.getSharedCache().getMaxEntries()),
+                    config.getCache().getTtl(), clock);
+            case REDIS -> new SharedRosterCache(new RespCacheProvider(config.getSharedCache()),
+                    config.getCache().getTtl(), clock);
+        };
+        this.rateLimiter = config.getRateLimit().isEnabled() ? new BackendRateLimiter(config.getRateLimit(), clock) : null;
+        this.scheduler = rateLimiter != null
+                ? new BackendRequestScheduler(rateLimiter, config.getScheduler(), clock, meterRegistry)
+                : null;
+        this.createBatcher = config.getBatch().isEnabled()
+                ? new RequestBatcher<>(Math.min(config.getBatch().getMaxSize(), MAX_BATCH_SIZE),
+                        config.getBatch().getWindow(), this::createEmployeesReactive, this::createSingleEmployee,
+                        e -> e instanceof MalformedRequestException || e instanceof NotFoundException)
+                : null;
+        this.refreshSuccessCounter = Counter.builder("employee.cache.refresh")
+                .tag("result", "success")
+                .description("Background refreshes of the employee roster cache")
+                .register(meterRegistry);
+        this.refreshFailureCounter = Counter.builder("employee.cache.refresh")
+                .tag("result", "failure")
+                .description("Background refreshes of the employee roster cache")
+                .register(meterRegistry);
+        this.notModifiedCounter = Counter.builder("employee.cache.revalidated")
+                .description("Roster fetches the backend answered with 304 Not Modified, reusing the cached snapshot")
+                .register(meterRegistry);
+        this.changeFeedCounter = Counter.builder("employee.cache.changes")
+                .description("Creates and deletes from the backend's change feed applied to the cached roster")
+                .register(meterRegistry);
+        this.pushLagTimer = Timer.builder("employee.cache.push.lag")
+                .description("Time from a change being made on the backend to it being applied to the cached roster")
+                .register(meterRegistry);
+        Gauge.builder("employee.cache.push.connected", pushConnected, connected -> connected.get() ? 1 : 0)
+                .description("Whether the cached roster is following the backend's change stream (1) or not (0)")
+                .register(meterRegistry);
+        this.lookupHitCounter = lookupCounter(meterRegistry, "hit");
+        this.lookupNotFoundCounter = lookupCounter(meterRegistry, "notFound");
+        this.lookupMissCounter = lookupCounter(meterRegistry, "miss");
+        this.sharedRosterCounter = Counter.builder("employee.cache.shared")
+                .description("Rosters taken from the shared cache instead of fetched from the backend")
+                .register(meterRegistry);
+        this.sentRequestCounter = Counter.builder("employee.backend.requests")
+                .tag("coalesced", "false")
+                .description("GET requests to the backend, split by whether they joined one already in flight")
+                .register(meterRegistry);
+        this.coalescedRequestCounter = Counter.builder("employee.backend.requests")
+                .tag("coalesced", "true")
+                .description("GET requests to the backend, split by whether they joined one already in flight")
+                .register(meterRegistry);
+        this.shedRequestCounter = Counter.builder("employee.backend.ratelimit.shed")
+                .description("Requests rejected by the client-side rate limiter rather than queued")
+                .register(meterRegistry);
+        if (rateLimiter != null) {
+            Gauge.builder("employee.backend.ratelimit.budget", rateLimiter, BackendRateLimiter::getBudget)
+                    .description("Learned number of requests the backend allows per window (-1 until known)")
+                    .register(meterRegistry);
+            TimeGauge.builder("employee.backend.ratelimit.cooldown", rateLimiter, TimeUnit.MILLISECONDS,
+                            limiter -> limiter.getCooldown().toMillis())
+                    .description("Estimated time the backend rate limits for once the budget is used up")
+                    .register(meterRegistry);
+        }
+        TimeGauge.builder("employee.cache.age", this, TimeUnit.MILLISECONDS, BackendEmployeeService::snapshotAgeMillis)
+                .description("Time since the cached employee roster was retrieved from the backend")
+                .register(meterRegistry);
+        Gauge.builder("employee.cache.size", snapshotStore, store -> store.current().map(EmployeeSnapshot::size).orElse(0))
+                .description("Number of employees in the cached roster")
+                .register(meterRegistry);
+        Gauge.builder("employee.cache.offheap", snapshotStore,
+                        store -> store.current().map(EmployeeSnapshot::getOffHeapBytes).orElse(0L))
+                .description("Bytes the cached roster holds outside the heap (columnar roster only)")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param result Where lookups counted by this counter were answered: {@code hit} (the cached roster),
+     *               {@code notFound} (the remembered 404s) or {@code miss} (the backend).
+     */
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("employee.cache.lookups")
+                .tag("result", result)
+                .description("Lookups by id, split by whether they were answered from the cached roster, from the "
+                        + "remembered 404s, or by the backend")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Start the periodic refresh check when running in stale-while-revalidate mode. The check itself is cheap -- it
+     * only goes to the backend if the snapshot is due for a refresh (or there isn't one yet).
+     */
+    @PostConstruct
+    void startBackgroundRefresh() {
+        if (config.getCache().getRefreshMode() == BackendServiceConfig.RefreshMode.STALE_WHILE_REVALIDATE) {
+            log.info("Starting background roster refresh [ttl={}, refreshAhead={}].",
+                    config.getCache().getTtl(), config.getCache().getRefreshAhead());
+            refreshTask = Flux.interval(Duration.ZERO, config.getCache().getRefreshCheckInterval())
+                    .subscribe(tick -> refreshIfDue());
+        }
+    }
+
+    @PreDestroy
+    void stopBackgroundRefresh() {
+        if (refreshTask != null) {
+            refreshTask.dispose();
+        }
+    }
+
+    /**
+     * Start following the backend's change stream when {@code backend.roster.push} is on. The stream is resubscribed
+     * right away when the backend closes it, and with the usual backoff when it fails, for as long as the service runs.
+     */
+    @PostConstruct
+    void startPushUpdates() {
+        if (config.getRoster().isPush()) {
+            pushTask = Flux.defer(this::followChanges)
+                    .repeatWhen(completions -> completions.delayElements(PUSH_RECONNECT_DELAY))
+                    .retryWhen(Retry.backoff(Long.MAX_VALUE, config.getRetryBackoff())
+                            .maxBackoff(config.getMaxBackoff())
+                            .transientErrors(true)
+                            .doBeforeRetry(signal -> log.info("Lost the backend's change stream ({}), resubscribing.",
+                                    signal.failure().getMessage())))
+                    .subscribe();
+        }
+    }
+
+    @PreDestroy
+    void stopPushUpdates() {
+        if (pushTask != null) {
+            pushTask.dispose();
+        }
+    }
+
+    @PreDestroy
+    void stopBatching() {
+        if (createBatcher != null) {
+            createBatcher.dispose();
+        }
+    }
+
+    @PreDestroy
+    void closeSharedCache() {
+        if (sharedRosterCache != null) {
+            sharedRosterCache.close();
+        }
     }
 
     /**
@@ -57,88 +302,702 @@ public class BackendEmployeeService {
      * @return A list of all employees from the backend.
      */
     public List<BackendEmployeeResponseDto> getAllEmployees() {
-        Optional<BackendEmployeeListDto> response = performRequest("", BackendEmployeeListDto.class, () -> employeeCache);
-        response.ifPresent(list -> {
-            employeeCache = list;
-            log.info("Updated employee cache with {} employees.", list.getData().size());
+        return getEmployeeSnapshot().getEmployees();
+    }
+
+    /**
+     * Blocking version of {@link #getEmployeeSnapshotReactive()}.
+     *
+     * @return The current snapshot of the roster, or an empty snapshot if nothing could be retrieved.
+     */
+    public EmployeeSnapshot getEmployeeSnapshot() {
+        return await(getEmployeeSnapshotReactive()).orElse(EmployeeSnapshot.empty());
+    }
+
+    /**
+     * Retrieve the current roster snapshot. In {@code ON_DEMAND} mode this always fetches the full roster from the
+     * backend and publishes it as a new, indexed snapshot; if the backend is rate limiting us, the most recently
+     * published snapshot is returned instead. In {@code STALE_WHILE_REVALIDATE} mode the cached snapshot is returned
+     * immediately whenever there is one, and a background refresh is triggered if it is getting old. Either way, while
+     * the backend's change stream is connected the cached snapshot is returned as it is.
+     *
+     * @return The current snapshot of the roster, or an empty snapshot if nothing could be retrieved.
+     */
+    public Mono<EmployeeSnapshot> getEmployeeSnapshotReactive() {
+        return Mono.defer(() -> {
+            if (pushConnected.get() && snapshotStore.current().isPresent()) {
+                return Mono.just(snapshotStore.current().get());
+            }
+            if (config.getCache().getRefreshMode() == BackendServiceConfig.RefreshMode.STALE_WHILE_REVALIDATE) {
+                Optional<EmployeeSnapshot> cached = snapshotStore.current();
+                if (cached.isPresent()) {
+                    if (isDueForRefresh(cached.get())) {
+                        triggerBackgroundRefresh();
+                    }
+                    return Mono.just(cached.get());
+                }
+                log.debug("No cached roster yet, fetching it from the backend.");
+            }
+            return refreshRoster(() -> snapshotStore.current().orElse(null))
+                    .defaultIfEmpty(EmployeeSnapshot.empty());
         });
-        return response.map(BackendEmployeeListDto::getData)
-                .orElse(List.of());
+    }
+
+    /**
+     * Bring the roster up to date. With {@code backend.roster.changeFeed} on and a snapshot that knows its backend
+     * version, only the changes since that version are fetched and applied to the snapshot; otherwise, or if the
+     * backend can no longer tell the changes (a 410), the full roster is fetched.
+     *
+     * @param fallback Supplies a snapshot to use if the request is rate limited, or null if there is none
+     * @return A Mono of the up-to-date snapshot, or the fallback
+     */
+    private Mono<EmployeeSnapshot> refreshRoster(Supplier<EmployeeSnapshot> fallback) {
+        return Mono.defer(() -> {
+            RosterVersion since = config.getRoster().isChangeFeed()
+                    ? snapshotStore.current().map(EmployeeSnapshot::getRosterVersion).orElse(null)
+                    : null;
+            if (since == null) {
+                return fetchRoster(fallback);
+            }
+            return performRequest("/changes", maxWait -> rateLimited(webClient.get()
+                            .uri(builder -> builder.path("/changes")
+                                    .queryParam("since", since.version())
+                                    .queryParam("epoch", since.epoch())
+                                    .build())
+                            .retrieve()
+                            .bodyToMono(BackendEmployeeChangeFeedDto.class)
+                            .mapNotNull(BackendEmployeeChangeFeedDto::getData)
+                            .mapNotNull(this::applyChanges)
+                            .onErrorResume(WebClientResponseException.Gone.class, e -> {
+                                log.info("Backend can't tell the changes since version {}, fetching the full roster.",
+                                        since.version());
+                                return Mono.empty();
+                            }), Lane.READ, maxWait), fallback)
+                    .switchIfEmpty(Mono.defer(() -> fetchRoster(fallback)));
+        });
+    }
+
+    private EmployeeSnapshot applyChanges(BackendEmployeeChangeFeedDto.ChangeFeed feed) {
+        changeFeedCounter.increment(feed.getChanges() == null ? 0 : feed.getChanges().size());
+        return snapshotStore.applyChanges(new RosterVersion(feed.getEpoch(), feed.getVersion()),
+                        feed.getChanges() == null ? List.of() : feed.getChanges())
+                .map(this::shareRoster)
+                .orElse(null);
+    }
+
+    /**
+     * One subscription to the backend's change stream, starting from the version of the current snapshot (fetching the
+     * roster first if there isn't a snapshot that knows its version). If the backend can no longer tell the changes
+     * since then, the roster is fetched again and the Flux completes, so that the next subscription starts from the
+     * new version.
+     *
+     * @return The snapshots the changes were applied to. Completes when the backend closes the stream, and fails if it
+     * goes silent for longer than {@link #PUSH_IDLE_TIMEOUT}.
+     */
+    private Flux<EmployeeSnapshot> followChanges() {
+        return Mono.justOrEmpty(snapshotStore.current().map(EmployeeSnapshot::getRosterVersion))
+                .switchIfEmpty(Mono.defer(() -> fetchRoster(() -> null))
+                        .mapNotNull(EmployeeSnapshot::getRosterVersion)
+                        .switchIfEmpty(Mono.error(() -> new UnexpectedServerException(
+                                "The backend didn't say which version of the roster it sent."))))
+                .flatMapMany(since -> admit(Lane.READ, config.getRateLimit().getMaxWait())
+                        .thenMany(webClient.get()
+                                .uri(builder -> builder.path("/changes/stream")
+                                        .queryParam("since", since.version())
+                                        .queryParam("epoch", since.epoch())
+                                        .build())
+                                .accept(MediaType.TEXT_EVENT_STREAM)
+                                .exchangeToFlux(response -> applyChangeEvents(response, since))))
+                .doFinally(signal -> pushConnected.set(false));
+    }
+
+    private Flux<EmployeeSnapshot> applyChangeEvents(ClientResponse response, RosterVersion since) {
+        if (rateLimiter != null) {
+            if (response.statusCode().isSameCodeAs(TOO_MANY_REQUESTS)) {
+                rateLimiter.onRateLimited();
+            } else {
+                rateLimiter.onSuccess();
+            }
+        }
+        if (response.statusCode().isSameCodeAs(GONE)) {
+            log.info("Backend can't tell the changes since version {}, fetching the full roster.", since.version());
+            return response.releaseBody().then(fetchRoster(() -> null)).thenMany(Flux.empty());
+        }
+        if (response.statusCode().isError()) {
+            return response.<EmployeeSnapshot>createError().flux();
+        }
+        log.info("Following the backend's changes from version {}.", since.version());
+        pushConnected.set(true);
+        return response.bodyToFlux(CHANGE_EVENT)
+                .timeout(PUSH_IDLE_TIMEOUT)
+                .mapNotNull(ServerSentEvent::data)
+                .bufferTimeout(PUSH_BATCH_SIZE, PUSH_BATCH_WINDOW)
+                .mapNotNull(changes -> applyPushedChanges(since.epoch(), changes));
+    }
+
+    /**
+     * Apply a batch of consecutive changes from the change stream. The lag is measured against the backend's clock,
+     * so it is only as accurate as the two clocks agree.
+     */
+    private EmployeeSnapshot applyPushedChanges(String epoch, List<BackendEmployeeChangeDto> changes) {
+        Instant now = clock.instant();
+        changes.stream()
+                .map(BackendEmployeeChangeDto::getAt)
+                .filter(Objects::nonNull)
+                .forEach(at -> pushLagTimer.record(Duration.between(at, now)));
+        changeFeedCounter.increment(changes.size());
+        return snapshotStore.applyChanges(new RosterVersion(epoch, changes.get(changes.size() - 1).getVersion()), changes)
+                .orElse(null);
+    }
+
+    /**
+     * Fetch the full roster, from the shared cache if it has one newer than the current snapshot, and otherwise from the
+     * backend, in whichever transfer mode is configured, and publish it as a new snapshot. If the current snapshot has an
+     * entity tag, the backend request is conditional, and a 304 from the backend revalidates that snapshot instead of
+     * transferring and indexing the roster all over again.
+     *
+     * @param fallback Supplies a snapshot to use if the request is rate limited, or null if there is none
+     * @return A Mono of the published (or revalidated) snapshot, or the fallback
+     */
+    private Mono<EmployeeSnapshot> fetchRoster(Supplier<EmployeeSnapshot> fallback) {
+        return performRequest("", maxWait -> loadSharedRoster()
+                .switchIfEmpty(Mono.defer(() -> fetchRosterFromBackend(maxWait))), fallback);
+    }
+
+    private Mono<EmployeeSnapshot> fetchRosterFromBackend(Duration maxWait) {
+        return switch (config.getRoster().getTransfer()) {
+            case FULL -> Mono.defer(() -> rateLimited(exchangeRoster(
+                            webClient.get().uri(""), currentEntityTag(), this::decodeRoster), Lane.READ, maxWait))
+                    .mapNotNull(this::publishRoster);
+            case STREAM -> Mono.defer(() -> rateLimited(exchangeRoster(
+                            webClient.get().uri("/stream").accept(MediaType.APPLICATION_NDJSON),
+                            currentEntityTag(),
+                            response -> response.bodyToFlux(BackendEmployeeResponseDto.class).collectList()),
+                            Lane.READ, maxWait))
+                    .mapNotNull(this::publishRoster);
+            case PAGED -> fetchPages(maxWait).mapNotNull(this::publishRoster);
+        };
+    }
+
+    /**
+     * Publish the roster in the shared cache, if there is one there that was fetched after the current snapshot. The
+     * cache may block on I/O, so it is read off the event loop.
+     *
+     * @return A Mono of the published snapshot, or an empty Mono if the shared cache has nothing newer
+     */
+    private Mono<EmployeeSnapshot> loadSharedRoster() {
+        if (sharedRosterCache == null) {
+            return Mono.empty();
+        }
+        return Mono.fromCallable(() -> sharedRosterCache.load().orElse(null))
+                .subscribeOn(Schedulers.boundedElastic())
+                .filter(shared -> snapshotStore.current()
+                        .map(current -> shared.retrievedAt().isAfter(current.getCreatedAt()))
+                        .orElse(true))
+                .map(shared -> {
+                    sharedRosterCounter.increment();
+                    log.debug("Taking the roster of {} employees retrieved at {} from the shared cache.",
+                            shared.employees().size(), shared.retrievedAt());
+                    return snapshotStore.publish(shared.employees(), shared.entityTag(), shared.rosterVersion(),
+                            shared.retrievedAt());
+                });
+    }
+
+    /**
+     * Put a clean snapshot's roster in the shared cache, in the background. A dirty snapshot has our own writes applied
+     * on top of what the backend sent, so it isn't shared.
+     */
+    private EmployeeSnapshot shareRoster(EmployeeSnapshot snapshot) {
+        if (sharedRosterCache != null && !snapshot.isDirty()) {
+            SharedRoster roster = SharedRoster.of(snapshot);
+            Mono.fromRunnable(() -> sharedRosterCache.store(roster))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .subscribe();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Walk the roster one page at a time, appending each page to a single list as it arrives. Every page is rate
+     * limited and retried on its own. Only the first page is requested conditionally; if it comes back as not modified,
+     * neither has the rest of the roster. If the employee used as the cursor has been deleted by the time the next page
+     * is requested (and the backend no longer remembers it), paging starts over once from the beginning.
+     * <p>
+     * The roster only keeps the backend's entity tag if every page came with the same one. Otherwise it changed while
+     * we were paging through it, and the next refresh has to fetch it in full.
+     *
+     * @param maxWait How long each page may queue for a rate-limit permit
+     * @return A Mono of the full roster, or of a not-modified result
+     */
+    private Mono<RosterResponse> fetchPages(Duration maxWait) {
+        int pageSize = config.getRoster().getPageSize();
+        return Mono.defer(() -> fetchPage(null, currentEntityTag(), pageSize, maxWait)
+                        .flatMap(first -> {
+                            if (first.notModified()) {
+                                return Mono.just(first);
+                            }
+                            List<BackendEmployeeResponseDto> roster = new ArrayList<>();
+                            return Mono.just(first)
+                                    .expand(page -> page.employees().size() < pageSize
+                                            ? Mono.empty()
+                                            : fetchPage(page.employees().get(page.employees().size() - 1).getId(), null,
+                                                    pageSize, maxWait))
+                                    .doOnNext(page -> roster.addAll(page.employees()))
+                                    .reduce(true, (unchanged, page) -> unchanged
+                                            && Objects.equals(page.entityTag(), first.entityTag()))
+                                    .map(unchanged -> new RosterResponse(roster, unchanged ? first.entityTag() : null,
+                                            first.rosterVersion()));
+                        }))
+                .retryWhen(Retry.max(1)
+                        .filter(WebClientResponseException.NotFound.class::isInstance)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    private Mono<RosterResponse> fetchPage(String after, String entityTag, int pageSize, Duration maxWait) {
+        return rateLimited(exchangeRoster(webClient.get()
+                        .uri(builder -> {
+                            builder.queryParam("limit", pageSize);
+                            if (after != null) {
+                                builder.queryParam("after", after);
+                            }
+                            return builder.build();
+                        }), entityTag, this::decodeRoster),
+                Lane.READ, maxWait)
+                // give up with the 429 itself, so that performRequest still recognizes it and falls back to the cache
+                .retryWhen(buildRetrySpec().onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    /**
+     * Send a roster request, with an If-None-Match header if an entity tag is given, and decode the response. Error
+     * statuses fail the Mono with the same WebClientResponseExceptions that {@code retrieve()} would raise.
+     *
+     * @param request   The request to send.
+     * @param entityTag The entity tag of the roster we already have, or null to fetch unconditionally.
+     * @param decoder   Decodes the employees from a successful response.
+     * @return A Mono of the response.
+     */
+    private Mono<RosterResponse> exchangeRoster(WebClient.RequestHeadersSpec<?> request, String entityTag,
+                                                Function<ClientResponse, Mono<List<BackendEmployeeResponseDto>>> decoder) {
+        if (entityTag != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, entityTag);
+        }
+        return request.exchangeToMono(response -> {
+            if (response.statusCode().isSameCodeAs(NOT_MODIFIED)) {
+                return response.releaseBody().thenReturn(new RosterResponse(null, entityTag, null));
+            }
+            if (response.statusCode().isError()) {
+                return response.createError();
+            }
+            HttpHeaders headers = response.headers().asHttpHeaders();
+            String responseEntityTag = headers.getETag();
+            RosterVersion rosterVersion = rosterVersionOf(headers);
+            return decoder.apply(response).map(employees -> new RosterResponse(employees, responseEntityTag, rosterVersion));
+        });
+    }
+
+    private Mono<List<BackendEmployeeResponseDto>> decodeRoster(ClientResponse response) {
+        return response.bodyToFlux(DataBuffer.class).transform(rosterDecoder::decode).collectList();
+    }
+
+    private EmployeeSnapshot publishRoster(RosterResponse roster) {
+        if (roster.notModified()) {
+            notModifiedCounter.increment();
+            return snapshotStore.revalidate(roster.entityTag())
+                    .map(this::shareRoster)
+                    .or(snapshotStore::current)
+                    .orElse(null);
+        }
+        return shareRoster(snapshotStore.publish(roster.employees(), roster.entityTag(), roster.rosterVersion()));
+    }
+
+    /**
+     * @return The roster version the backend reported in the response headers, or null if it didn't report one. The
+     * backend reads the version before the roster, so the roster is never older than this.
+     */
+    private static RosterVersion rosterVersionOf(HttpHeaders headers) {
+        String epoch = headers.getFirst(EPOCH_HEADER);
+        String version = headers.getFirst(VERSION_HEADER);
+        if (epoch == null || version == null) {
+            return null;
+        }
+        try {
+            return new RosterVersion(epoch, Long.parseLong(version));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return The entity tag of the current snapshot, if it is clean and the backend sent one.
+     */
+    private String currentEntityTag() {
+        return snapshotStore.current()
+                .filter(snapshot -> !snapshot.isDirty())
+                .map(EmployeeSnapshot::getEntityTag)
+                .orElse(null);
+    }
+
+    private void refreshIfDue() {
+        if (snapshotStore.current().map(this::isDueForRefresh).orElse(true)) {
+            triggerBackgroundRefresh();
+        }
+    }
+
+    /**
+     * @return Whether the snapshot can be trusted to answer lookups without asking the backend: it is younger than
+     * the TTL, or the change stream is keeping it up to date.
+     */
+    private boolean isFresh(EmployeeSnapshot snapshot) {
+        return pushConnected.get()
+                || Duration.between(snapshot.getCreatedAt(), clock.instant()).compareTo(config.getCache().getTtl()) < 0;
+    }
+
+    private boolean isDueForRefresh(EmployeeSnapshot snapshot) {
+        if (pushConnected.get()) {
+            return false;
+        }
+        Duration age = Duration.between(snapshot.getCreatedAt(), clock.instant());
+        return age.compareTo(config.getCache().getTtl().minus(config.getCache().getRefreshAhead())) >= 0;
+    }
+
+    /**
+     * Start a background refresh of the roster unless one is already running. Callers never wait on this. There is
+     * no rate-limit fallback here since there is nobody to hand a fallback to -- the regular retry spec applies and
+     * a failure just leaves the current snapshot in place until the next attempt.
+     */
+    private void triggerBackgroundRefresh() {
+        if (!refreshInProgress.compareAndSet(false, true)) {
+            return;
+        }
+        log.debug("Refreshing employee roster in the background.");
+        refreshRoster(() -> null)
+                .doFinally(signal -> refreshInProgress.set(false))
+                .subscribe(snapshot -> refreshSuccessCounter.increment(),
+                        e -> {
+                            refreshFailureCounter.increment();
+                            log.warn("Background roster refresh failed: {}", e.getMessage());
+                        });
+    }
+
+    private double snapshotAgeMillis() {
+        return snapshotStore.current()
+                .map(snapshot -> (double) Duration.between(snapshot.getCreatedAt(), clock.instant()).toMillis())
+                .orElse(Double.NaN);
     }
 
     public Optional<BackendEmployeeResponseDto> findEmployeeById(String id) {
-        return performRequest("/"+id, BackendEmployeeDto.class, () -> cachedEmployeeWithId(id))
-                .map(BackendEmployeeDto::getData);
+        return await(findEmployeeByIdReactive(id));
     }
 
-    private BackendEmployeeDto cachedEmployeeWithId(String id) {
+    /**
+     * Look up an employee by id, from the snapshot if it is fresh and has the employee. Otherwise the backend is
+     * asked -- unless it recently answered with a 404 for the same id -- with the snapshot (fresh or not) as the
+     * fallback when rate limited.
+     *
+     * @return The employee. Errors with a {@link NotFoundException} if there is no employee with the id.
+     */
+    public Mono<BackendEmployeeResponseDto> findEmployeeByIdReactive(String id) {
+        return Mono.defer(() -> {
+            Optional<BackendEmployeeResponseDto> cached = snapshotStore.current()
+                    .filter(this::isFresh)
+                    .flatMap(snapshot -> snapshot.findById(id));
+            if (cached.isPresent()) {
+                lookupHitCounter.increment();
+                return Mono.just(cached.get());
+            }
+            if (notFoundCache.isKnownMissing(id)) {
+                lookupNotFoundCounter.increment();
+                log.debug("Employee with id={} was not found recently, not asking again.", id);
+                return Mono.error(new NotFoundException("No employee with id=" + id + "."));
+            }
+            lookupMissCounter.increment();
+            return performRequest("/"+id, BackendEmployeeDto.class, BackendEmployeeDto::getData, () -> cachedEmployeeWithId(id))
+                    .doOnError(NotFoundException.class, e -> notFoundCache.remember(id));
+        });
+    }
+
+    private BackendEmployeeResponseDto cachedEmployeeWithId(String id) {
         log.debug("Checking cache for employee with id={}.", id);
-        return employeeCache.getData().stream()
-                .filter(employee -> employee.getId().equals(id))
-                .findFirst()
-                .map(dto -> BackendEmployeeDto.builder().data(dto).build())
+        return snapshotStore.current()
+                .flatMap(snapshot -> snapshot.findById(id))
                 .orElse(null);
     }
 
     public Optional<BackendEmployeeResponseDto> createEmployee(NewEmployeeRequest employee) {
-        employeeCache = null; // clear cache on any mutating operation
+        return await(createEmployeeReactive(employee));
+    }
+
+    /**
+     * Create an employee. With {@code backend.batch.enabled} on, the create is gathered into a batch with any others
+     * that arrive at about the same time. A batch the backend rejects as a whole (say, because one of the employees in
+     * it is invalid) or that the backend has no endpoint for is sent again one create at a time, so that every caller
+     * gets the backend's answer for their own employee.
+     */
+    public Mono<BackendEmployeeResponseDto> createEmployeeReactive(NewEmployeeRequest employee) {
+        return createBatcher != null ? createBatcher.submit(employee) : createSingleEmployee(employee);
+    }
+
+    private Mono<BackendEmployeeResponseDto> createSingleEmployee(NewEmployeeRequest employee) {
         return performRequestWithBody(HttpMethod.POST, "", employee, BackendEmployeeDto.class)
-                .map(BackendEmployeeDto::getData);
+                .mapNotNull(BackendEmployeeDto::getData)
+                .doOnNext(created -> {
+                    notFoundCache.forget(created.getId());
+                    snapshotStore.applyCreated(created);
+                });
+    }
+
+    public Optional<List<BackendEmployeeResponseDto>> createEmployees(List<NewEmployeeRequest> employees) {
+        return await(createEmployeesReactive(employees));
+    }
+
+    /**
+     * Create several employees with as few requests as the backend allows: one per {@value #MAX_BATCH_SIZE}
+     * employees. Each request is applied atomically by the backend, and the created employees are applied to the
+     * snapshot one batch at a time.
+     *
+     * @return The created employees, in the same order.
+     */
+    public Mono<List<BackendEmployeeResponseDto>> createEmployeesReactive(List<NewEmployeeRequest> employees) {
+        return Flux.fromIterable(partition(employees))
+                .concatMap(batch -> performRequestWithBody(HttpMethod.POST, "/batch",
+                        new BackendCreateEmployeesDto(batch), BackendEmployeeListDto.class))
+                .mapNotNull(BackendEmployeeListDto::getData)
+                .doOnNext(created -> {
+                    created.forEach(employee -> notFoundCache.forget(employee.getId()));
+                    snapshotStore.applyCreatedAll(created);
+                })
+                .concatMapIterable(Function.identity())
+                .collectList();
     }
 
     public Optional<BackendDeleteEmployeeResponseDto> deleteEmployee(String name) {
-        employeeCache = null; // clear cache on any mutating operation
+        return await(deleteEmployeeReactive(name));
+    }
+
+    public Mono<BackendDeleteEmployeeResponseDto> deleteEmployeeReactive(String name) {
         BackendDeleteEmployeeDto deleteRequest = BackendDeleteEmployeeDto.builder().name(name).build();
-        return performRequestWithBody(HttpMethod.DELETE, "", deleteRequest, BackendDeleteEmployeeResponseDto.class);
+        return performRequestWithBody(HttpMethod.DELETE, "", deleteRequest, BackendDeleteEmployeeResponseDto.class)
+                .doOnNext(response -> {
+                    if (response.isData()) {
+                        snapshotStore.applyDeleted(name);
+                    }
+                });
+    }
+
+    public Optional<BackendEmployeeResponseDto> deleteEmployeeById(String id) {
+        return await(deleteEmployeeByIdReactive(id));
+    }
+
+    /**
+     * Delete exactly the employee with the given id, in one request. Unlike {@link #deleteEmployeeReactive}, this
+     * needs no lookup of the employee's name first and can't delete a different employee who shares it.
+     *
+     * @return The deleted employee. Errors with a {@link NotFoundException} if there is no employee with the id.
+     */
+    public Mono<BackendEmployeeResponseDto> deleteEmployeeByIdReactive(String id) {
+        return performDelete("/{id}", BackendEmployeeDto.class, id)
+                .mapNotNull(BackendEmployeeDto::getData)
+                .doOnNext(deleted -> snapshotStore.applyDeletedById(deleted.getId()));
+    }
+
+    public Optional<List<BackendEmployeeResponseDto>> deleteEmployeesById(List<String> ids) {
+        return await(deleteEmployeesByIdReactive(ids));
     }
 
     /**
-     * Make a request to the backend that includes a body. The @CacheEvict is here because we know at this point that
-     * all calls to this method are mutations to the state of the employee database -- create or delete.
+     * Delete exactly the employees with the given ids, with one request per {@value #MAX_BATCH_SIZE} ids. Ids with no
+     * employee are skipped by the backend rather than failing the batch, and the deleted employees are applied to the
+     * snapshot one batch at a time.
+     *
+     * @return The deleted employees, in the order of their ids.
+     */
+    public Mono<List<BackendEmployeeResponseDto>> deleteEmployeesByIdReactive(List<String> ids) {
+        return Flux.fromIterable(partition(ids))
+                .concatMap(batch -> performRequestWithBody(HttpMethod.DELETE, "/batch",
+                        new BackendDeleteEmployeesDto(batch), BackendEmployeeListDto.class))
+                .mapNotNull(BackendEmployeeListDto::getData)
+                .doOnNext(deleted -> snapshotStore.applyDeletedByIdAll(
+                        deleted.stream().map(BackendEmployeeResponseDto::getId).toList()))
+                .concatMapIterable(Function.identity())
+                .collectList();
+    }
+
+    private static <T> List<List<T>> partition(List<T> items) {
+        List<List<T>> batches = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += MAX_BATCH_SIZE) {
+            batches.add(items.subList(from, Math.min(from + MAX_BATCH_SIZE, items.size())));
+        }
+        return batches;
+    }
+
+    /**
+     * Make a request to the backend that includes a body. We know at this point that all calls to this method are
+     * mutations to the state of the employee database -- create or delete -- so these are never coalesced and never
+     * fall back to the cache.
      *
      * @param method        The request type (POST, DELETE, etc.)
      * @param uri           The URI to request, relative to the base URL. To use only the base URL, pass an empty string.
      * @param body          The body of the request
      * @param responseClazz The class type of the response
-     * @return An optional containing the response, or an empty optional if the request failed
-     */
-    private <T> Optional<T> performRequestWithBody(HttpMethod method, String uri, Object body, Class<T> responseClazz) {
-        return webClient.method(method)
-                .uri(uri)
-                .bodyValue(body)
-                .retrieve()
-                .bodyToMono(responseClazz)
+     * @return A Mono of the response, or an empty Mono if the backend didn't return a body
+     */
+    private <T> Mono<T> performRequestWithBody(HttpMethod method, String uri, Object body, Class<T> responseClazz) {
+        return rateLimited(webClient.method(method)
+                        .uri(uri)
+                        .bodyValue(body)
+                        .retrieve()
+                        .bodyToMono(responseClazz), Lane.WRITE, config.getRateLimit().getMaxWait())
                 .retryWhen(buildRetrySpec())
                 .onErrorMap(this::translateException)
-                .map(Optional::of)
-                .defaultIfEmpty(Optional.empty())
-                .doOnSuccess( opt -> opt.ifPresent(result -> log.debug("{} request completed with response: {}.", method, result)))
-                .block();
+                .doOnNext(result -> log.debug("{} request completed with response: {}.", method, result));
     }
 
 
     /**
-     * Make a GET request to the backend without a body.
+     * Make a DELETE request to the backend without a body. Like {@link #performRequestWithBody}, this is a mutation,
+     * so it is never coalesced and never falls back to the cache.
+     *
+     * @param uriTemplate   The URI template to request, relative to the base URL.
+     * @param responseClazz The class type of the response
+     * @param uriVariables  The values for the template's variables, which are encoded
+     * @return A Mono of the response, or an empty Mono if the backend didn't return a body
+     */
+    private <T> Mono<T> performDelete(String uriTemplate, Class<T> responseClazz, Object... uriVariables) {
+        return rateLimited(webClient.delete()
+                        .uri(uriTemplate, uriVariables)
+                        .retrieve()
+                        .bodyToMono(responseClazz), Lane.WRITE, config.getRateLimit().getMaxWait())
+                .retryWhen(buildRetrySpec())
+                .onErrorMap(this::translateException)
+                .doOnNext(result -> log.debug("DELETE request completed with response: {}.", result));
+    }
+
+
+    /**
+     * Make a GET request to the backend without a body. The response is mapped before the rate-limit fallback is
+     * applied so that the fallback can hand back an already-mapped value (e.g. a cached snapshot) without having to
+     * rebuild it. Only the request itself (and the mapping) is shared between coalesced callers; the fallback and
+     * retry are applied per caller. A retry re-subscribes through {@link #coalesce} as well, so callers retrying at
+     * the same time will share those requests too.
      *
      * @param uri           The URI to request, relative to the base URL. To use only the base URL, pass an empty string.
      * @param responseClazz The class type of the response
-     * @return An optional containing the response, or an empty optional if the request failed
-     */
-    private <T> Optional<T> performRequest(String uri, Class<T> responseClazz, Supplier<T> emptySupplier) {
-        return webClient.get()
-                .uri(uri)
-                .retrieve()
-                .bodyToMono(responseClazz)
-                .onErrorResume(WebClientResponseException.TooManyRequests.class,
-                        e -> Mono.justOrEmpty(emptySupplier.get())
-                                .doOnNext(v -> log.info("Rate limited, returning cached response for {}.", uri))
+     * @param mapper        Maps the raw response to the value returned to the caller
+     * @param fallback      Supplies a cached value to use if the request is rate limited, or null if there is none
+     * @return A Mono of the mapped response, or an empty Mono if the backend didn't return a body
+     */
+    private <T, R> Mono<R> performRequest(String uri, Class<T> responseClazz, Function<T, R> mapper, Supplier<R> fallback) {
+        return performRequest(uri, maxWait -> rateLimited(webClient.get()
+                        .uri(uri)
+                        .retrieve()
+                        .bodyToMono(responseClazz)
+                        .mapNotNull(mapper), Lane.READ, maxWait), fallback);
+    }
+
+
+    /**
+     * The general form of {@link #performRequest(String, Class, Function, Supplier)} for reads that aren't a single
+     * GET mapped from a single body, such as a paged or streamed roster. The request is responsible for going through
+     * {@link #rateLimited} itself, with the maximum wait it is handed.
+     *
+     * @param key      Identifies the request for coalescing, typically the URI.
+     * @param request  Creates the rate-limited request, given how long it may queue for a permit
+     * @param fallback Supplies a cached value to use if the request is rate limited, or null if there is none
+     * @return A Mono of the mapped response, or an empty Mono if the backend didn't return a body
+     */
+    private <R> Mono<R> performRequest(String key, Function<Duration, Mono<R>> request, Supplier<R> fallback) {
+        return Mono.defer(() -> {
+                    Duration maxWait = fallback.get() != null ? Duration.ZERO : config.getRateLimit().getMaxWait();
+                    return coalesce(key, maxWait, () -> request.apply(maxWait));
+                })
+                .onErrorResume(this::isRateLimited,
+                        e -> Mono.justOrEmpty(fallback.get())
+                                .doOnNext(v -> log.info("Rate limited, returning cached response for {}.", key))
                                 .switchIfEmpty(Mono.error(e)))
                 .retryWhen(buildRetrySpec())
                 .onErrorMap(this::translateException)
-                .map(Optional::of)
-                .defaultIfEmpty(Optional.empty())
-                .doOnSuccess( opt -> opt.ifPresent(result -> log.debug("GET request completed with response: {}.", result)))
-                .block();
+                .doOnNext(result -> log.debug("GET request completed with response: {}.", result));
+    }
+
+
+    /**
+     * Run a request through the rate limiter (if it is enabled), and report the outcome back to it.
+     *
+     * @param request The request to send once a permit is available.
+     * @param lane    The priority lane to queue in if no permit is available right away.
+     * @param maxWait How long the request may queue for a permit before it is rejected with a TooManyRequestsException.
+     * @return The rate-limited request.
+     */
+    private <T> Mono<T> rateLimited(Mono<T> request, Lane lane, Duration maxWait) {
+        if (rateLimiter == null) {
+            return request;
+        }
+        return admit(lane, maxWait)
+                .then(request)
+                .doOnSuccess(result -> rateLimiter.onSuccess())
+                .doOnError(WebClientResponseException.TooManyRequests.class, e -> rateLimiter.onRateLimited());
+    }
+
+    /**
+     * Wait for a rate-limit permit (if the rate limiter is enabled), for requests such as the change stream that
+     * report their outcome to the rate limiter themselves.
+     */
+    private Mono<Void> admit(Lane lane, Duration maxWait) {
+        if (rateLimiter == null) {
+            return Mono.empty();
+        }
+        return scheduler.admit(lane, maxWait)
+                .doOnError(e -> shedRequestCounter.increment());
+    }
+
+
+    /**
+     * Wait for the result of a backend call on behalf of a blocking caller. Reactor waits by parking on a latch, which
+     * is virtual-thread friendly: when the api runs with virtual threads (the {@code virtual} profile) a request that
+     * is waiting out rate-limit backoff only parks its own virtual thread and gives the carrier thread back. Nothing
+     * on the blocking path holds a monitor while it waits, so the virtual thread is never pinned. On platform threads
+     * this is the same {@code block()} as always.
+     *
+     * @param mono The backend call.
+     * @return The result, or an empty optional if the call completed without one.
+     */
+    private static <T> Optional<T> await(Mono<T> mono) {
+        return mono.blockOptional();
+    }
+
+
+    /**
+     * Share a single in-flight request between all callers for the same key and the same wait for a rate-limit
+     * permit. Callers that may wait differently never share a request: one with a cached value to fall back on would
+     * otherwise be held in the queue, and one without would be rejected without waiting. The request is cached only
+     * until it terminates; the entry is removed before the result is handed on, so a caller who asks again as soon as
+     * it has the result starts a fresh request.
+     *
+     * @param key     Identifies the request, typically the URI.
+     * @param maxWait How long the request may queue for a rate-limit permit.
+     * @param request Creates the request if there isn't one in flight already.
+     * @return A Mono that shares the result of the in-flight request.
+     */
+    @SuppressWarnings("unchecked")
+    private <R> Mono<R> coalesce(String key, Duration maxWait, Supplier<Mono<R>> request) {
+        InFlightKey flight = new InFlightKey(key, maxWait);
+        return Mono.defer(() -> {
+            boolean[] started = {false};
+            Mono<?> shared = inFlightRequests.computeIfAbsent(flight, k -> {
+                started[0] = true;
+                return request.get()
+                        .doOnTerminate(() -> inFlightRequests.remove(k))
+                        .doOnCancel(() -> inFlightRequests.remove(k))
+                        .cache();
+            });
+            if (started[0]) {
+                sentRequestCounter.increment();
+            } else {
+                coalescedRequestCounter.increment();
+                log.debug("Joining in-flight request for {}.", key);
+            }
+            return (Mono<R>) shared;
+        });
     }
 
 
@@ -164,6 +1023,10 @@ public class BackendEmployeeService {
      * @return The translated exception.
      */
     private Throwable translateException(Throwable throwable) {
+        if(throwable instanceof TooManyRequestsException) {
+            // already translated -- the rate limiter wouldn't let the request through
+            return throwable;
+        }
         if(Exceptions.isRetryExhausted(throwable)) {
             return new TooManyRequestsException("Retries exhausted on rate-limited employee service.", throwable.getCause());
         }
@@ -187,6 +1050,18 @@ public class BackendEmployeeService {
     }
 
 
+    /**
+     * Whether the error means we were rate limited, either by the backend itself or by our own rate limiter.
+     *
+     * @param throwable The exception to check.
+     * @return true if the request was rejected because of rate limiting.
+     */
+    private boolean isRateLimited(Throwable throwable) {
+        return throwable instanceof WebClientResponseException.TooManyRequests
+                || throwable instanceof TooManyRequestsException;
+    }
+
+
     /**
      * A filter used by WebClient to determine whether a retry should be attempted. For this implementation, we only
      * retry on 429 responses.
@@ -200,4 +1075,22 @@ public class BackendEmployeeService {
         }
         return false;
     }
+
+
+    /**
+     * What in-flight requests are shared by: the request, and how long it may queue for a rate-limit permit.
+     */
+    private record InFlightKey(String key, Duration maxWait) {
+    }
+
+    /**
+     * A roster response: either the employees with their entity tag and roster version, or (with
+     * {@code employees == null}) the backend confirming that the roster with {@code entityTag} is still current.
+     */
+    private record RosterResponse(List<BackendEmployeeResponseDto> employees, String entityTag,
+                                  RosterVersion rosterVersion) {
+        boolean notModified() {
+            return employees == null;
+        }
+    }
 }
@@ -0,0 +1,172 @@
+package com.reliaquest.api.service;
+
+import com.reliaquest.api.config.BackendServiceConfig;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A client-side limiter that learns the backend's request budget and keeps us from exceeding it. The mock server
+ * allows a fixed number of requests and then rejects everything with a 429 until a cooldown has passed since the last
+ * request it accepted, after which the budget is reset. Both the budget and the cooldown are chosen at random when
+ * the server starts, so they have to be discovered at runtime:
+ * <ul>
+ *     <li>The budget starts out unknown (unlimited). The first 429 tells us how many requests were accepted in the
+ *     window, and that becomes the budget. If a later 429 arrives before the budget is used up (another client is
+ *     sharing it, for instance) the budget is lowered to what was actually accepted, and it then climbs back by one
+ *     per window that passes without a 429, up to the budget first learned.</li>
+ *     <li>The cooldown starts at {@code initialCooldown}. If the first request after waiting out the cooldown is
+ *     still rejected, the estimate is increased by half (up to {@code maxCooldown}) -- the increase half of an AIMD
+ *     scheme. It is never lowered, so once it has grown past the real cooldown every window opens on the first
+ *     try.</li>
+ * </ul>
+ * Once the budget is known, callers queue until the next window opens instead of sending requests that are bound to
+ * be rejected. The queueing, and shedding the callers that won't wait that long, is up to the
+ * {@link BackendRequestScheduler}, which hands out the permits taken with {@link #tryAcquire()}.
+ */
+@Slf4j
+public class BackendRateLimiter {
+    private static final int UNKNOWN = Integer.MAX_VALUE;
+
+    private final BackendServiceConfig.RateLimit config;
+    private final Clock clock;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private int budget = UNKNOWN;
+    private int ceiling = UNKNOWN;
+    private Duration cooldown;
+    private int used;
+    private int accepted;
+    private Instant lastAcceptedAt;
+    private Instant windowOpenedAt;
+    private boolean waitedForWindow;
+    private boolean rateLimitedInWindow;
+
+    public BackendRateLimiter(BackendServiceConfig.RateLimit config, Clock clock) {
+        this.config = config;
+        this.clock = clock;
+        this.cooldown = config.getInitialCooldown();
+        this.lastAcceptedAt = clock.instant();
+    }
+
+    /**
+     * Take a permit if one is available.
+     *
+     * @return {@link Duration#ZERO} if a permit was taken, otherwise how long until the next window opens.
+     */
+    public Duration tryAcquire() {
+        lock.lock();
+        try {
+            Instant now = clock.instant();
+            if (used >= budget) {
+                Instant opensAt = nextWindowOpensAt();
+                if (now.isBefore(opensAt)) {
+                    return Duration.between(now, opensAt);
+                }
+                if (!rateLimitedInWindow && budget < ceiling) {
+                    budget++;
+                }
+                log.debug("Backend request window reopened [budget={}, cooldown={}].", budget, cooldown);
+                used = 0;
+                accepted = 0;
+                windowOpenedAt = now;
+                waitedForWindow = true;
+                rateLimitedInWindow = false;
+            }
+            used++;
+            return Duration.ZERO;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Check how long it is until a permit is available, without taking one.
+     *
+     * @return {@link Duration#ZERO} if a permit is available now, otherwise how long until the next window opens.
+     */
+    public Duration nextWindowIn() {
+        lock.lock();
+        try {
+            Instant now = clock.instant();
+            if (used < budget || !now.isBefore(nextWindowOpensAt())) {
+                return Duration.ZERO;
+            }
+            return Duration.between(now, nextWindowOpensAt());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Record that the backend accepted a request.
+     */
+    public void onSuccess() {
+        lock.lock();
+        try {
+            accepted++;
+            lastAcceptedAt = clock.instant();
+            waitedForWindow = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Record that the backend rejected a request with a 429, and adjust the estimates accordingly.
+     */
+    public void onRateLimited() {
+        lock.lock();
+        try {
+            if (waitedForWindow && accepted == 0) {
+                // we waited out the estimated cooldown and still got rejected, so the estimate is too short
+                Duration longer = cooldown.plus(cooldown.dividedBy(2));
+                cooldown = longer.compareTo(config.getMaxCooldown()) > 0 ? config.getMaxCooldown() : longer;
+                log.info("Backend still rate limiting after the cooldown, raising cooldown estimate to {}.", cooldown);
+                // the window never really opened
+                windowOpenedAt = null;
+            } else if (accepted == 0) {
+                // Rejected before anything got through: someone else used up the budget, or we started up in the
+                // middle of a cooldown. That says nothing about the budget, so just wait out a cooldown from now.
+                lastAcceptedAt = clock.instant();
+                windowOpenedAt = null;
+            } else if (accepted < budget) {
+                budget = Math.max(accepted, 1);
+                if (ceiling == UNKNOWN) {
+                    ceiling = budget;
+                }
+                log.info("Learned backend request budget of {} per window.", budget);
+            }
+            used = budget;
+            waitedForWindow = false;
+            rateLimitedInWindow = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The server measures its cooldown from the last request it accepted. If the current window only just opened,
+     * requests in it may not have been answered yet, so count from the window opening in that case.
+     */
+    private Instant nextWindowOpensAt() {
+        Instant windowStart = windowOpenedAt != null && windowOpenedAt.isAfter(lastAcceptedAt)
+                ? windowOpenedAt
+                : lastAcceptedAt;
+        return windowStart.plus(cooldown);
+    }
+
+    /**
+     * @return The learned request budget per window, or -1 if it isn't known yet.
+     */
+    public int getBudget() {
+        return budget == UNKNOWN ? -1 : budget;
+    }
+
+    public Duration getCooldown() {
+        return cooldown;
+    }
+}
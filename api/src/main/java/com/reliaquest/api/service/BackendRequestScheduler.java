@@ -0,0 +1,190 @@
+package com.reliaquest.api.service;
+
+import com.reliaquest.api.config.BackendServiceConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Decides which waiting request gets the next permit from the {@link BackendRateLimiter}. Requests are queued in
+ * priority lanes: mutations (create, delete) go in the {@link Lane#WRITE} lane and are always served before anything
+ * in the {@link Lane#READ} lane, so a write never sits behind a pile of roster reads. Within a lane requests are
+ * served in arrival order.
+ * <p>
+ * Each lane has a bounded depth; a request that arrives when its lane is full, or that would have to wait longer than
+ * it is willing to, is rejected with a {@link TooManyRequestsException} straight away. For reads with a cached value
+ * that is what makes them get served stale instead of queueing. The time spent queued is recorded per lane in the
+ * {@code employee.backend.queue.wait} timer.
+ */
+@Slf4j
+public class BackendRequestScheduler {
+    public enum Lane {
+        WRITE,
+        READ
+    }
+
+    private final BackendRateLimiter limiter;
+    private final BackendServiceConfig.Scheduler config;
+    private final Clock clock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Lane, Deque<Ticket>> queues = new EnumMap<>(Lane.class);
+    private final Map<Lane, Timer> waitTimers = new EnumMap<>(Lane.class);
+    private Disposable pendingDrain;
+    private Instant pendingDrainAt;
+
+    public BackendRequestScheduler(BackendRateLimiter limiter, BackendServiceConfig.Scheduler config, Clock clock, MeterRegistry meterRegistry) {
+        this.limiter = limiter;
+        this.config = config;
+        this.clock = clock;
+        for (Lane lane : Lane.values()) {
+            Deque<Ticket> queue = new ArrayDeque<>();
+            queues.put(lane, queue);
+            waitTimers.put(lane, Timer.builder("employee.backend.queue.wait")
+                    .tag("lane", lane.name().toLowerCase())
+                    .description("Time requests spent queued for a backend request permit")
+                    .register(meterRegistry));
+            Gauge.builder("employee.backend.queue.depth", queue, Deque::size)
+                    .tag("lane", lane.name().toLowerCase())
+                    .description("Requests currently queued for a backend request permit")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Wait for permission to send a request in the given lane.
+     *
+     * @param lane    The priority lane of the request.
+     * @param maxWait The longest the caller is willing to wait. Use {@link Duration#ZERO} to only go ahead if a permit
+     *                is available right now.
+     * @return A Mono that completes when the request may be sent, or errors with a TooManyRequestsException if the
+     * request is shed.
+     */
+    public Mono<Void> admit(Lane lane, Duration maxWait) {
+        return Mono.defer(() -> {
+            Ticket ticket;
+            lock.lock();
+            try {
+                Instant now = clock.instant();
+                if (nothingQueuedAhead(lane) && limiter.tryAcquire().isZero()) {
+                    waitTimers.get(lane).record(Duration.ZERO);
+                    return Mono.empty();
+                }
+                Duration expectedWait = limiter.nextWindowIn();
+                if (expectedWait.compareTo(maxWait) > 0) {
+                    return Mono.error(new TooManyRequestsException("Backend request budget exhausted for another " + expectedWait + "."));
+                }
+                Deque<Ticket> queue = queues.get(lane);
+                if (queue.size() >= config.getMaxQueueDepth()) {
+                    return Mono.error(new TooManyRequestsException("Too many requests queued in the " + lane + " lane."));
+                }
+                ticket = new Ticket(now, now.plus(maxWait));
+                queue.addLast(ticket);
+                scheduleDrain(expectedWait);
+            } finally {
+                lock.unlock();
+            }
+            log.debug("Queued {} request for a backend permit.", lane);
+            return ticket.sink.asMono()
+                    .doOnCancel(() -> ticket.cancelled = true);
+        });
+    }
+
+    /**
+     * Hand out as many permits as the limiter allows, highest priority first, and schedule another round for when the
+     * next window opens if anything is left waiting.
+     */
+    private void drain() {
+        List<Runnable> completions = new ArrayList<>();
+        lock.lock();
+        try {
+            pendingDrain = null;
+            pendingDrainAt = null;
+            Instant now = clock.instant();
+            lanes:
+            for (Lane lane : Lane.values()) {
+                Deque<Ticket> queue = queues.get(lane);
+                while (!queue.isEmpty()) {
+                    Ticket ticket = queue.peekFirst();
+                    if (ticket.cancelled) {
+                        queue.pollFirst();
+                        continue;
+                    }
+                    if (now.isAfter(ticket.deadline)) {
+                        queue.pollFirst();
+                        completions.add(() -> ticket.sink.tryEmitError(
+                                new TooManyRequestsException("Timed out waiting for a backend request permit.")));
+                        continue;
+                    }
+                    Duration wait = limiter.tryAcquire();
+                    if (!wait.isZero()) {
+                        // nobody in a lower priority lane may go ahead of this one
+                        scheduleDrain(wait);
+                        break lanes;
+                    }
+                    queue.pollFirst();
+                    waitTimers.get(lane).record(Duration.between(ticket.enqueuedAt, now));
+                    completions.add(ticket.sink::tryEmitEmpty);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        // complete outside the lock, since the waiting requests carry on on this thread
+        completions.forEach(Runnable::run);
+    }
+
+    private boolean nothingQueuedAhead(Lane lane) {
+        for (Lane other : Lane.values()) {
+            if (!queues.get(other).isEmpty()) {
+                return false;
+            }
+            if (other == lane) {
+                return true;
+            }
+        }
+        return true;
+    }
+
+    private void scheduleDrain(Duration delay) {
+        // never spin: even if the limiter thinks the window is open, give it a moment
+        Duration actualDelay = delay.isZero() || delay.isNegative() ? Duration.ofMillis(10) : delay;
+        Instant drainAt = clock.instant().plus(actualDelay);
+        if (pendingDrain != null && !pendingDrainAt.isAfter(drainAt)) {
+            return;
+        }
+        if (pendingDrain != null) {
+            pendingDrain.dispose();
+        }
+        pendingDrainAt = drainAt;
+        pendingDrain = Schedulers.parallel().schedule(this::drain, actualDelay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private static class Ticket {
+        private final Instant enqueuedAt;
+        private final Instant deadline;
+        private final Sinks.One<Void> sink = Sinks.one();
+        private volatile boolean cancelled;
+
+        private Ticket(Instant enqueuedAt, Instant deadline) {
+            this.enqueuedAt = enqueuedAt;
+            this.deadline = deadline;
+        }
+    }
+}
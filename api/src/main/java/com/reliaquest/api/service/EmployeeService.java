@@ -1,6 +1,6 @@
 package com.reliaquest.api.service;
 
-import com.reliaquest.api.model.BackendDeleteEmployeeResponseDto;
+import com.reliaquest.api.cache.EmployeeSnapshot;
 import com.reliaquest.api.model.BackendEmployeeResponseDto;
 import com.reliaquest.api.model.EmployeeResponse;
 import com.reliaquest.api.model.NewEmployeeRequest;
@@ -44,8 +44,7 @@ public class EmployeeService {
      */
     public List<EmployeeResponse> getEmployeesMatchingName(String nameFragment) {
         log.debug("Calling getEmployeesMatchingName({})", nameFragment);
-        List<EmployeeResponse> response = getAllEmployeesFromBackend().stream()
-                .filter(employee -> employee.getName().toLowerCase().contains(nameFragment.toLowerCase()))
+        List<EmployeeResponse> response = getEmployeeSnapshot().findByNameContaining(nameFragment).stream()
                 .map(converter::convert)
                 .toList();
         log.info("Retrieved {} employees matching name fragment {}.", response.size(), nameFragment);
@@ -54,49 +53,76 @@ public class EmployeeService {
 
 
     /**
-     * Get the top paid employees from the backend. Note that this does not allow for expanding the collection if the
-     * employee in the last position has the same salary as other employees. In this case, the list may be partially
-     * misleading.
+     * Get the top paid employees from the backend. Employees with the same salary are returned in roster order, and
+     * an employee that ties with the one in the last position may be left out; use
+     * {@link #getTopPaidEmployees(int, boolean)} to include them.
      *
      * @param count The number of employees to return
      * @return a list of up to {@code count} employees
      */
     public List<EmployeeResponse> getTopPaidEmployees(int count) {
-        log.debug("Calling getTopPaidEmployees({})", count);
-        return getAllEmployeesFromBackend().stream()
-                .sorted((o1, o2) -> o2.getSalary().compareTo(o1.getSalary()))
-                .limit(count)
+        return getTopPaidEmployees(count, false);
+    }
+
+    /**
+     * Get the top paid employees from the backend. This is read off the salary order that the roster snapshot keeps,
+     * so it only costs as much as the number of employees returned.
+     *
+     * @param count       The number of employees to return
+     * @param includeTies Whether to also return every employee paid the same as the one in the last position, which
+     *                    can make the list longer than {@code count}
+     * @return a list of the top paid employees, in descending salary order
+     */
+    public List<EmployeeResponse> getTopPaidEmployees(int count, boolean includeTies) {
+        log.debug("Calling getTopPaidEmployees({}, {})", count, includeTies);
+        return getEmployeeSnapshot().getTopPaid(count, includeTies).stream()
                 .map(converter::convert)
                 .toList();
     }
 
     /**
-     * Delete an employee by id.
-     * NOTE: This method is buggy because the back-end requires a name to delete, not an id and if multiple employees
-     * have the same name, it will delete the first one it finds.  This is a bug in the back-end API and not something
-     * the front-end can easily fix.
+     * Get the highest salary of all employees. This is precomputed on the roster snapshot, so it doesn't look at the
+     * employees at all.
+     *
+     * @return The highest salary.
+     * @throws NotFoundException if there are no employees (with a salary) to take it from.
+     */
+    public Integer getHighestSalary() {
+        log.debug("Calling getHighestSalary()");
+        return getEmployeeSnapshot().getHighestSalary()
+                .orElseThrow(() -> new NotFoundException("There are no employee salaries to compare."));
+    }
+
+    /**
+     * Get the names of the ten highest paid employees, in descending salary order. Like the highest salary, this list
+     * is precomputed on the roster snapshot.
+     *
+     * @return Up to ten names.
+     */
+    public List<String> getTopTenHighestEarningEmployeeNames() {
+        log.debug("Calling getTopTenHighestEarningEmployeeNames()");
+        return getEmployeeSnapshot().getTopEarnerNames();
+    }
+
+    /**
+     * Delete an employee by id, with a single backend request: the backend deletes by id, so there is no need to look
+     * the employee up first, and an employee that shares its name with another can't be deleted in its place.
      *
      * @param id The ID of the employee to delete
-     * @return The employee that was deleted (or, at least, the employee that matched the ID of the delete request)
+     * @return The employee that was deleted.
+     * @throws NotFoundException if there is no employee with the id.
      */
     public EmployeeResponse deleteEmployeeById(String id) {
         log.debug("Calling deleteEmployeeById({})", id);
-        // This call with throw a NotFoundException if the employee does not exist
-        EmployeeResponse employeeToDelete = getEmployeeById(id);
-        if(employeeToDelete != null) {
-            boolean deleteSuccessful = backendEmployeeService.deleteEmployee(employeeToDelete.getName())
-                    .map(BackendDeleteEmployeeResponseDto::isData)
-                    .orElse(false);
-            if(deleteSuccessful) {
-                log.info("Deleted employee with name={} from backend.", employeeToDelete.getName());
-                return employeeToDelete;
-            }
-            log.warn("Failed to delete employee with name={} (id={}).", employeeToDelete.getName(), id);
+        EmployeeResponse deleted = backendEmployeeService.deleteEmployeeById(id)
+                .map(converter::convert)
+                .orElse(null);
+        if (deleted != null) {
+            log.info("Deleted employee with name={} (id={}) from backend.", deleted.getName(), id);
         } else {
-            log.warn("Failed to find employee to delete for id={}.", id);
+            log.warn("Failed to delete employee with id={}.", id);
         }
-
-        return null;
+        return deleted;
     }
 
 
@@ -114,14 +140,52 @@ public class EmployeeService {
                 .orElse(null);
     }
 
+    /**
+     * Create several employees with a single backend request (or one per thousand employees).
+     *
+     * @param employees The employees to create.
+     * @return The created employees, in the same order.
+     */
+    public List<EmployeeResponse> createEmployees(List<NewEmployeeRequest> employees) {
+        log.debug("Calling createEmployees({} employees)", employees.size());
+        return backendEmployeeService.createEmployees(employees)
+                .map(created -> created.stream().map(converter::convert).toList())
+                .orElse(List.of());
+    }
+
+    /**
+     * Delete several employees by id with a single backend request (or one per thousand employees). Ids that don't
+     * exist are skipped.
+     *
+     * @param ids The ids of the employees to delete.
+     * @return The employees that were deleted.
+     */
+    public List<EmployeeResponse> deleteEmployeesById(List<String> ids) {
+        log.debug("Calling deleteEmployeesById({} ids)", ids.size());
+        List<EmployeeResponse> response = backendEmployeeService.deleteEmployeesById(ids)
+                .map(deleted -> deleted.stream().map(converter::convert).toList())
+                .orElse(List.of());
+        log.info("Deleted {} of {} employees from backend.", response.size(), ids.size());
+        return response;
+    }
+
     /**
      * A convenience method to retrieve all employees from the backend.
      *
      * @return A list of all employees from the backend.
      */
     private List<BackendEmployeeResponseDto> getAllEmployeesFromBackend() {
-        List<BackendEmployeeResponseDto> allEmployees = backendEmployeeService.getAllEmployees();
-        log.info("Retrieved {} employees from backend.", allEmployees.size());
-        return allEmployees;
+        return getEmployeeSnapshot().getEmployees();
+    }
+
+    /**
+     * Retrieve the indexed roster snapshot from the backend.
+     *
+     * @return The current roster snapshot.
+     */
+    private EmployeeSnapshot getEmployeeSnapshot() {
+        EmployeeSnapshot snapshot = backendEmployeeService.getEmployeeSnapshot();
+        log.info("Retrieved {} employees from backend.", snapshot.size());
+        return snapshot;
     }
 }
@@ -0,0 +1,140 @@
+package com.reliaquest.api.service;
+
+import com.reliaquest.api.cache.EmployeeSnapshot;
+import com.reliaquest.api.model.BackendEmployeeResponseDto;
+import com.reliaquest.api.model.EmployeeResponse;
+import com.reliaquest.api.model.NewEmployeeRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * The non-blocking twin of {@link EmployeeService}, used when the api runs on the reactive (WebFlux/Netty) stack.
+ * Each method has the same semantics as its counterpart in EmployeeService, but returns a Mono instead of blocking the
+ * calling thread while the backend call (and any rate-limit retries) are in progress. An empty Mono takes the place
+ * of the null that EmployeeService returns when there is nothing to return.
+ */
+@Slf4j
+@Service
+public class ReactiveEmployeeService {
+    private final BackendEmployeeService backendEmployeeService;
+    private final Converter<BackendEmployeeResponseDto, EmployeeResponse> converter;
+
+    public ReactiveEmployeeService(BackendEmployeeService backendEmployeeService, Converter<BackendEmployeeResponseDto, EmployeeResponse> converter) {
+        this.backendEmployeeService = backendEmployeeService;
+        this.converter = converter;
+    }
+
+    /**
+     * @see EmployeeService#getAllEmployees()
+     */
+    public Mono<List<EmployeeResponse>> getAllEmployees() {
+        log.debug("Calling getAllEmployees()");
+        return getAllEmployeesFromBackend()
+                .map(employees -> employees.stream()
+                        .map(converter::convert)
+                        .toList());
+    }
+
+    /**
+     * @see EmployeeService#getEmployeesMatchingName(String)
+     */
+    public Mono<List<EmployeeResponse>> getEmployeesMatchingName(String nameFragment) {
+        log.debug("Calling getEmployeesMatchingName({})", nameFragment);
+        return getEmployeeSnapshot()
+                .map(snapshot -> snapshot.findByNameContaining(nameFragment).stream()
+                        .map(converter::convert)
+                        .toList())
+                .doOnNext(response -> log.info("Retrieved {} employees matching name fragment {}.", response.size(), nameFragment));
+    }
+
+    /**
+     * @see EmployeeService#getTopPaidEmployees(int)
+     */
+    public Mono<List<EmployeeResponse>> getTopPaidEmployees(int count) {
+        return getTopPaidEmployees(count, false);
+    }
+
+    /**
+     * @see EmployeeService#getTopPaidEmployees(int, boolean)
+     */
+    public Mono<List<EmployeeResponse>> getTopPaidEmployees(int count, boolean includeTies) {
+        log.debug("Calling getTopPaidEmployees({}, {})", count, includeTies);
+        return getEmployeeSnapshot()
+                .map(snapshot -> snapshot.getTopPaid(count, includeTies).stream()
+                        .map(converter::convert)
+                        .toList());
+    }
+
+    /**
+     * @see EmployeeService#getHighestSalary()
+     */
+    public Mono<Integer> getHighestSalary() {
+        log.debug("Calling getHighestSalary()");
+        return getEmployeeSnapshot()
+                .flatMap(snapshot -> Mono.justOrEmpty(snapshot.getHighestSalary()))
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("There are no employee salaries to compare.")));
+    }
+
+    /**
+     * @see EmployeeService#getTopTenHighestEarningEmployeeNames()
+     */
+    public Mono<List<String>> getTopTenHighestEarningEmployeeNames() {
+        log.debug("Calling getTopTenHighestEarningEmployeeNames()");
+        return getEmployeeSnapshot().map(EmployeeSnapshot::getTopEarnerNames);
+    }
+
+    /**
+     * @see EmployeeService#deleteEmployeeById(String)
+     */
+    public Mono<EmployeeResponse> deleteEmployeeById(String id) {
+        log.debug("Calling deleteEmployeeById({})", id);
+        // This call will error with a NotFoundException if the employee does not exist
+        return backendEmployeeService.deleteEmployeeByIdReactive(id)
+                .mapNotNull(converter::convert)
+                .doOnNext(deleted -> log.info("Deleted employee with name={} (id={}) from backend.", deleted.getName(), id));
+    }
+
+    public Mono<EmployeeResponse> getEmployeeById(String id) {
+        log.debug("Calling getEmployeeFromBackendById({})", id);
+        return backendEmployeeService.findEmployeeByIdReactive(id)
+                .mapNotNull(converter::convert);
+    }
+
+    public Mono<EmployeeResponse> createEmployee(NewEmployeeRequest employee) {
+        log.debug("Calling createEmployee({})", employee);
+        return backendEmployeeService.createEmployeeReactive(employee)
+                .mapNotNull(converter::convert);
+    }
+
+    /**
+     * @see EmployeeService#createEmployees(List)
+     */
+    public Mono<List<EmployeeResponse>> createEmployees(List<NewEmployeeRequest> employees) {
+        log.debug("Calling createEmployees({} employees)", employees.size());
+        return backendEmployeeService.createEmployeesReactive(employees)
+                .map(created -> created.stream().map(converter::convert).toList());
+    }
+
+    /**
+     * @see EmployeeService#deleteEmployeesById(List)
+     */
+    public Mono<List<EmployeeResponse>> deleteEmployeesById(List<String> ids) {
+        log.debug("Calling deleteEmployeesById({} ids)", ids.size());
+        return backendEmployeeService.deleteEmployeesByIdReactive(ids)
+                .map(deleted -> deleted.stream().map(converter::convert).toList())
+                .doOnNext(response -> log.info("Deleted {} of {} employees from backend.", response.size(), ids.size()));
+    }
+
+    private Mono<List<BackendEmployeeResponseDto>> getAllEmployeesFromBackend() {
+        return getEmployeeSnapshot().map(EmployeeSnapshot::getEmployees);
+    }
+
+    private Mono<EmployeeSnapshot> getEmployeeSnapshot() {
+        return backendEmployeeService.getEmployeeSnapshotReactive()
+                .doOnNext(snapshot -> log.info("Retrieved {} employees from backend.", snapshot.size()));
+    }
+}
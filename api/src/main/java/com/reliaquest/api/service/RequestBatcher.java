@@ -0,0 +1,116 @@
+package com.reliaquest.api.service;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Gathers requests that arrive close together into one batch call. The first request to arrive opens a window; every
+ * request submitted before the window closes (or until the batch is full) goes into the same call, and each caller
+ * gets the result at its own position in the call's response. So a burst of N concurrent requests costs one backend
+ * request instead of N, at the price of up to one window of added latency for the first of them.
+ * <p>
+ * A batch of one is sent as a single request. If the batch call fails with an error that means the batch was rejected
+ * as a whole -- and so none of it took effect -- each request in it is sent on its own, so that one bad request
+ * doesn't fail everybody else's. Any other error is handed to every caller in the batch. A caller that cancels does not
+ * take its request back out of the batch.
+ *
+ * @param <T> The type of a single request
+ * @param <R> The type of the result of a single request
+ */
+@Slf4j
+public class RequestBatcher<T, R> implements Disposable {
+    private final Sinks.Many<Pending<T, R>> pending = Sinks.many().unicast().onBackpressureBuffer();
+    private final Function<List<T>, Mono<List<R>>> batchCall;
+    private final Function<T, Mono<R>> singleCall;
+    private final Predicate<Throwable> rejected;
+    private final Disposable subscription;
+
+    /**
+     * @param maxSize    The most requests in one batch.
+     * @param window     How long to wait for more requests after the first one.
+     * @param batchCall  Sends a batch, completing with one result per request, in the same order.
+     * @param singleCall Sends a single request.
+     * @param rejected   Whether an error from {@code batchCall} means that none of the batch took effect.
+     */
+    public RequestBatcher(int maxSize, Duration window, Function<List<T>, Mono<List<R>>> batchCall,
+                          Function<T, Mono<R>> singleCall, Predicate<Throwable> rejected) {
+        this.batchCall = batchCall;
+        this.singleCall = singleCall;
+        this.rejected = rejected;
+        this.subscription = pending.asFlux()
+                .bufferTimeout(maxSize, window)
+                .flatMap(this::send)
+                .subscribe();
+    }
+
+    /**
+     * @param request The request to add to the next batch.
+     * @return A Mono of the result for this request.
+     */
+    public Mono<R> submit(T request) {
+        return Mono.defer(() -> {
+            Sinks.One<R> result = Sinks.one();
+            // callers on different threads race to emit; spin until it is our turn rather than failing
+            pending.emitNext(new Pending<>(request, result), Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1)));
+            return result.asMono();
+        });
+    }
+
+    private Mono<Void> send(List<Pending<T, R>> batch) {
+        if (batch.size() == 1) {
+            return sendOne(batch.get(0));
+        }
+        log.debug("Sending a batch of {} requests.", batch.size());
+        return batchCall.apply(batch.stream().map(Pending::request).toList())
+                .doOnSuccess(results -> {
+                    if (results == null || results.size() != batch.size()) {
+                        IllegalStateException e = new IllegalStateException("Expected " + batch.size()
+                                + " results from the batch call but got " + (results == null ? 0 : results.size()) + ".");
+                        batch.forEach(request -> request.result().tryEmitError(e));
+                        return;
+                    }
+                    for (int i = 0; i < batch.size(); i++) {
+                        batch.get(i).result().tryEmitValue(results.get(i));
+                    }
+                })
+                .then()
+                .onErrorResume(e -> {
+                    if (rejected.test(e)) {
+                        log.info("Batch of {} requests was rejected ({}), sending them one by one.", batch.size(),
+                                e.getMessage());
+                        return Flux.fromIterable(batch).concatMap(this::sendOne).then();
+                    }
+                    batch.forEach(request -> request.result().tryEmitError(e));
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> sendOne(Pending<T, R> request) {
+        return singleCall.apply(request.request())
+                .doOnSuccess(result -> request.result().tryEmitValue(result))
+                .doOnError(e -> request.result().tryEmitError(e))
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+
+    @Override
+    public void dispose() {
+        subscription.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return subscription.isDisposed();
+    }
+
+    private record Pending<T, R>(T request, Sinks.One<R> result) {
+    }
+}
@@ -0,0 +1,139 @@
+package com.reliaquest.api.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.reliaquest.api.model.BackendEmployeeResponseDto;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes the backend's roster body -- {@code {"data": [...], "status": "..."}} -- into employees as the bytes arrive,
+ * instead of buffering the whole body and binding it in one go. The body is fed through Jackson's non-blocking parser
+ * chunk by chunk; the tokens of one employee at a time are collected and bound as soon as that employee's object is
+ * closed, and everything outside the {@code data} array is skipped. So the memory used while decoding is one network
+ * chunk plus one employee, whatever the size of the roster, and WebClient's in-memory codec limit (256KB by default,
+ * which is only a couple of thousand employees) no longer applies.
+ * <p>
+ * A new parser is created per subscription, so the Flux returned by {@link #decode} can be retried.
+ */
+public class RosterStreamDecoder {
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Uses an ObjectMapper with Spring Boot's defaults, which (unlike a plain ObjectMapper) ignores unknown properties
+     * the same way WebClient's own decoder does.
+     */
+    public RosterStreamDecoder() {
+        this(Jackson2ObjectMapperBuilder.json().build());
+    }
+
+    public RosterStreamDecoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param body The raw response body. Every buffer is released once it has been fed to the parser.
+     * @return The employees in the {@code data} array, in order. Fails with a {@link DecodingException} if the body
+     * isn't valid JSON or ends before the document does.
+     */
+    public Flux<BackendEmployeeResponseDto> decode(Flux<DataBuffer> body) {
+        return Flux.defer(() -> {
+            Tokenizer tokenizer = new Tokenizer();
+            return body.concatMapIterable(tokenizer::feed)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(tokenizer.endOfInput())));
+        });
+    }
+
+    /**
+     * The parsing state for one body.
+     */
+    private class Tokenizer {
+        private final JsonParser parser;
+        private final ByteArrayFeeder feeder;
+        private int depth;
+        private boolean dataFieldNext;
+        private int dataDepth = -1;
+        private TokenBuffer employeeTokens;
+        private boolean started;
+
+        Tokenizer() {
+            try {
+                parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+            } catch (IOException e) {
+                throw new DecodingException("Unable to create roster parser", e);
+            }
+            feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        }
+
+        List<BackendEmployeeResponseDto> feed(DataBuffer buffer) {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            DataBufferUtils.release(buffer);
+            try {
+                feeder.feedInput(bytes, 0, bytes.length);
+                return drain();
+            } catch (IOException e) {
+                throw new DecodingException("Unable to decode roster: " + e.getMessage(), e);
+            }
+        }
+
+        List<BackendEmployeeResponseDto> endOfInput() {
+            feeder.endOfInput();
+            try {
+                List<BackendEmployeeResponseDto> employees = drain();
+                if (!started || depth != 0) {
+                    throw new DecodingException("Roster body ended before the JSON document did");
+                }
+                return employees;
+            } catch (IOException e) {
+                throw new DecodingException("Unable to decode roster: " + e.getMessage(), e);
+            }
+        }
+
+        private List<BackendEmployeeResponseDto> drain() throws IOException {
+            List<BackendEmployeeResponseDto> employees = new ArrayList<>();
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                started = true;
+                if (employeeTokens != null) {
+                    employeeTokens.copyCurrentEvent(parser);
+                }
+                switch (token) {
+                    case START_OBJECT, START_ARRAY -> {
+                        if (depth == dataDepth && token == JsonToken.START_OBJECT) {
+                            employeeTokens = new TokenBuffer(parser);
+                            employeeTokens.copyCurrentEvent(parser);
+                        }
+                        if (dataFieldNext && token == JsonToken.START_ARRAY) {
+                            dataDepth = depth + 1;
+                        }
+                        depth++;
+                    }
+                    case END_OBJECT, END_ARRAY -> {
+                        depth--;
+                        if (depth == dataDepth && employeeTokens != null) {
+                            employees.add(objectMapper.readValue(employeeTokens.asParser(objectMapper),
+                                    BackendEmployeeResponseDto.class));
+                            employeeTokens = null;
+                        } else if (depth == dataDepth - 1) {
+                            dataDepth = -1;
+                        }
+                    }
+                    default -> { }
+                }
+                dataFieldNext = depth == 1 && token == JsonToken.FIELD_NAME && "data".equals(parser.currentName());
+            }
+            return employees;
+        }
+    }
+}
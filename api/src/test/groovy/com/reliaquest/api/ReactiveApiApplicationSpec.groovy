@@ -0,0 +1,22 @@
+package com.reliaquest.api
+
+import com.reliaquest.api.controller.EmployeeController
+import com.reliaquest.api.controller.ReactiveEmployeeController
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.context.ApplicationContext
+import org.springframework.test.context.ActiveProfiles
+import spock.lang.Specification
+
+@SpringBootTest
+@ActiveProfiles("reactive")
+class ReactiveApiApplicationSpec extends Specification {
+    @Autowired
+    ApplicationContext context
+
+    def "context loads with only the reactive controller"() {
+        expect:
+            context.getBeanNamesForType(ReactiveEmployeeController).length == 1
+            context.getBeanNamesForType(EmployeeController).length == 0
+    }
+}
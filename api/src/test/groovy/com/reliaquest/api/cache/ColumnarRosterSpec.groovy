@@ -0,0 +1,89 @@
+package com.reliaquest.api.cache
+
+import com.reliaquest.api.model.BackendEmployeeResponseDto
+import spock.lang.Specification
+
+class ColumnarRosterSpec extends Specification {
+
+    def "every row reads back as the employee it was built from"() {
+        given:
+            def employees = [
+                    employee("1", "Frank Jones", 100, 30, "Engineer", "frank@company.com"),
+                    employee("2", "Zoë Ünal 日本", 200, 41, "Engineer", "zoe@company.com"),
+                    employee("3", "Emoji 😀 Person", null, null, null, null),
+                    employee(null, null, 0, 16, "Manager", ""),
+            ]
+        when:
+            def roster = ColumnarRoster.of(employees)
+        then:
+            roster.size() == 4
+            roster.toList() == employees
+            roster.offHeapBytes() == employees.sum {
+                ["id", "name", "email"].sum { field -> (it[field] as String)?.getBytes("UTF-8")?.length ?: 0 }
+            }
+        and: 'each call builds a new DTO, so changing one changes nothing'
+            !roster.get(0).is(roster.get(0))
+            roster.get(0).tap { name = "changed" }
+            roster.get(0).name == "Frank Jones"
+    }
+
+    def "ids are looked up without keeping them on the heap, and the first row with an id wins"() {
+        given:
+            def employees = (0..<1000).collect { employee("id$it", "name$it", it, 30, "title", "e$it") }
+            employees << employee("id7", "duplicate", 1, 30, "title", "dup")
+            def roster = ColumnarRoster.of(employees)
+        expect:
+            (0..<1000).every { roster.rowOfId("id$it") == it }
+            roster.rowOfId("id7") == 7
+            roster.rowOfId("id1000") == -1
+            roster.rowOfId("") == -1
+            roster.rowOfId(null) == -1
+    }
+
+    def "single columns are read without building the row"() {
+        given:
+            def roster = ColumnarRoster.of([employee("a", "Ann", null, 20, "t", "e"), employee("b", "Bob", 5, 20, "t", "e")])
+        expect:
+            roster.id(1) == "b"
+            roster.name(0) == "Ann"
+            roster.salary(0) == Integer.MIN_VALUE
+            roster.salary(1) == 5
+    }
+
+    def "deleting rows and appending employees gives the same roster as building it afresh"() {
+        given:
+            def employees = (0..<50).collect {
+                employee("id$it", it % 7 == 0 ? null : "name\u00eb$it", it % 5 == 0 ? null : it, 30,
+                        it % 3 == 0 ? null : "title${it % 4}", it % 6 == 0 ? null : "e$it")
+            }
+            def roster = ColumnarRoster.of(employees)
+            def added = [employee("new1", "Zo\u00eb", 1, 20, "brand new title", "z"),
+                         employee("id3", "again", 2, 20, "title1", null)]
+            def removed = [0, 1, 2, 10, 25, 26, 49]
+        when:
+            def changed = roster.withChanges(removed as int[], added)
+            def expected = employees.withIndex().findAll { e, i -> !(i in removed) }.collect { e, i -> e } + added
+        then:
+            changed.toList() == expected
+            changed.offHeapBytes() == ColumnarRoster.of(expected).offHeapBytes()
+            expected.every { e -> changed.rowOfId(e.id) == expected.findIndexOf { it.id == e.id } }
+            changed.hasDuplicateIds()
+        and: 'the roster it was made from is left as it was'
+            roster.toList() == employees
+        and: 'nothing removed and nothing added is a copy'
+            roster.withChanges(new int[0], []).toList() == employees
+            roster.withChanges((0..<50) as int[], []).isEmpty()
+    }
+
+    def "the UTF-8 length is worked out the same way the encoder does it"() {
+        expect:
+            ColumnarRoster.utf8Length(value) == value.getBytes("UTF-8").length
+        where:
+            value << ["", "plain", "Zoë", "日本語", "😀", "lone \uD800 surrogate", "\uDC00 low first"]
+    }
+
+    private static BackendEmployeeResponseDto employee(String id, String name, Integer salary, Integer age, String title,
+                                                       String email) {
+        new BackendEmployeeResponseDto(id, name, salary, age, title, email)
+    }
+}
@@ -0,0 +1,379 @@
+package com.reliaquest.api.cache
+
+import com.reliaquest.api.model.BackendEmployeeChangeDto
+import com.reliaquest.api.model.BackendEmployeeResponseDto
+import spock.lang.Specification
+
+import java.time.Instant
+
+import static com.reliaquest.api.model.BackendEmployeeChangeDto.Type.CREATED
+import static com.reliaquest.api.model.BackendEmployeeChangeDto.Type.DELETED
+
+class EmployeeSnapshotSpec extends Specification {
+
+    def "employees can be found by id"() {
+        given:
+            def employees = (1..5).collect { employee("id$it", "name$it", it * 100) }
+            def snapshot = EmployeeSnapshot.of(1, Instant.now(), employees)
+        expect:
+            snapshot.findById("id3").get().is(employees[2])
+            snapshot.findById("missing").isEmpty()
+    }
+
+    def "employees can be found by name regardless of case, in roster order"() {
+        given:
+            def first = employee("1", "Frank Jones", 100)
+            def second = employee("2", "FRANK JONES", 200)
+            def snapshot = EmployeeSnapshot.of(1, Instant.now(), [employee("0", "Bill One", 50), first, second])
+        when:
+            def found = snapshot.findByName("frank jones")
+        then:
+            found.size() == 2
+            found[0].is(first)
+            found[1].is(second)
+            snapshot.findByName("nobody").isEmpty()
+    }
+
+    def "name search gives the same results as a case-insensitive contains"() {
+        given:
+            def names = ["Frank Jones", "Bill One", "Mona Lisa Smile", "No match here", "JONESY", "ononon", null, ""]
+            def snapshot = EmployeeSnapshot.of(1, Instant.now(), names.withIndex().collect { name, i ->
+                employee("$i", name, 100)
+            })
+        when:
+            def found = snapshot.findByNameContaining(fragment)
+        then:
+            found*.id == names.withIndex()
+                    .findAll { name, i -> name != null && name.toLowerCase().contains(fragment.toLowerCase()) }
+                    .collect { name, i -> "$i".toString() }
+        where:
+            fragment << ["on", "ON", "one", "jones", "nono", "onon", "Lisa S", "", "e", "xyz", "frank jones!"]
+    }
+
+    def "name search matches a brute force scan on a random roster"() {
+        given:
+            def random = new Random(42)
+            def alphabet = "abcAB "
+            def names = (1..500).collect { (0..<random.nextInt(12)).collect { alphabet[random.nextInt(alphabet.size())] }.join() }
+            def snapshot = EmployeeSnapshot.of(1, Instant.now(), names.withIndex().collect { name, i -> employee("$i", name, 1) })
+        expect:
+            (1..200).every {
+                def fragment = (0..<random.nextInt(6)).collect { alphabet[random.nextInt(alphabet.size())] }.join()
+                snapshot.findByNameContaining(fragment)*.id ==
+                        names.withIndex().findAll { name, i -> name.toLowerCase().contains(fragment.toLowerCase()) }.collect { name, i -> "$i".toString() }
+            }
+    }
+
+    def "top paid employees are in descending salary order with ties in roster order"() {
+        given:
+            def snapshot = EmployeeSnapshot.of(1, Instant.now(), salaries.withIndex().collect { salary, i ->
+                employee("$i", "name$i", salary)
+            })
+        when:
+            def top = snapshot.getTopPaid(count)
+        then:
+            top.collect { it.id } == expectedIds
+        where:
+            salaries                     | count || expectedIds
+            [100, 300, 200]              | 2     || ["1", "2"]
+            [100, 300, 200]              | 10    || ["1", "2", "0"]
+            [500, 100, 500, 900, 500]    | 3     || ["3", "0", "2"]
+            [100, null, 200]             | 3     || ["2", "0", "1"]
+            [Integer.MIN_VALUE + 1, -5]  | 2     || ["1", "0"]
+            []                           | 1     || []
+    }
+
+    def "top paid can include everyone tied at the cutoff"() {
+        given:
+            def snapshot = EmployeeSnapshot.of(1, Instant.now(), [100, 500, 300, 500, 300, 300].withIndex().collect { salary, i ->
+                employee("$i", "name$i", salary)
+            })
+        expect:
+            snapshot.getTopPaid(count, true)*.id == expectedIds
+        where:
+            count || expectedIds
+            1     || ["1", "3"]
+            3     || ["1", "3", "2", "4", "5"]
+            6     || ["1", "3", "2", "4", "5", "0"]
+            0     || []
+    }
+
+    def "the salary order kept across deltas matches a fresh sort"() {
+        given:
+            def random = new Random(7)
+            def snapshot = EmployeeSnapshot.of(1, Instant.now(), (0..<50).collect {
+                employee("$it", "name${it % 10}", random.nextInt(5) == 0 ? null : random.nextInt(20) * 100)
+            })
+        when:
+            (1..100).each { step ->
+                snapshot = random.nextBoolean()
+                        ? snapshot.withAdded(step, employee("new$step", "name${random.nextInt(12)}", random.nextInt(20) * 100))
+                        : snapshot.withRemovedFirstNamed(step, "name${random.nextInt(12)}")
+            }
+        then:
+            snapshot.getTopPaid(snapshot.size())*.id == EmployeeSnapshot.of(1, Instant.now(), snapshot.employees).getTopPaid(snapshot.size())*.id
+    }
+
+    def "deltas share the indexed roster until enough changes pile up to index it afresh"() {
+        given:
+            def snapshot = EmployeeSnapshot.of(1, Instant.now(), (0..<100).collect { employee("$it", "name$it", it) })
+        when:
+            def derived = snapshot.withAdded(2, employee("new", "new", 1)).withRemovedById(3, "5")
+        then:
+            derived.roster.is(snapshot.roster)
+            derived.employees*.id == snapshot.employees*.id.findAll { it != "5" } + ["new"]
+        when: 'more changes than are worth keeping on the side'
+            (0..<64).each { derived = derived.withRemovedById(4 + it, "${10 + it}") }
+        then:
+            !derived.roster.is(snapshot.roster)
+            derived.employees*.id == snapshot.employees*.id.findAll { !(it in ["5"] + (10..<74)*.toString()) } + ["new"]
+    }
+
+    def "any run of deltas answers every query the same way as a snapshot built from its roster"() {
+        given:
+            def random = new Random(11)
+            def names = { "Name${random.nextInt(40)} ${['Jones', 'Smith', 'Ünal'][random.nextInt(3)]}" }
+            def salary = { random.nextInt(8) == 0 ? null : random.nextInt(30) * 100 }
+            def snapshot = EmployeeSnapshot.of(1, Instant.now(), (0..<200).collect { employee("$it", names(), salary()) },
+                    null, new RosterVersion("e", 1), columnar)
+            def nextId = 200
+        when:
+            (2..400).each { step ->
+                String someId = random.nextInt(nextId + 5)
+                switch (random.nextInt(6)) {
+                    case 0: snapshot = snapshot.withAdded(step, employee("${nextId++}", names(), salary())); break
+                    case 1: snapshot = snapshot.withAddedAll(step, [employee("${nextId++}", names(), salary()),
+                                                                     employee(someId, names(), salary())]); break
+                    case 2: snapshot = snapshot.withRemovedById(step, someId); break
+                    case 3: snapshot = snapshot.withRemovedFirstNamed(step, names().toUpperCase()); break
+                    case 4: snapshot = snapshot.withRemovedByIdAll(step, [someId, random.nextInt(nextId + 5) as String]); break
+                    default: snapshot = snapshot.withChanges(step, Instant.now(), [
+                            change(step, CREATED, employee("${nextId++}", names(), salary())),
+                            change(step, DELETED, employee(someId, null, null))], new RosterVersion("e", step))
+                }
+                def fresh = EmployeeSnapshot.of(step, Instant.now(), snapshot.employees)
+                assert sameAnswers(fresh, snapshot)
+                assert snapshot.columnar == columnar
+                // a columnar roster builds new DTOs on every read, so only the plain one can be compared by identity
+                assert columnar || snapshot.employees*.id.every { snapshot.findById(it).get().is(fresh.findById(it).get()) }
+                assert snapshot.getTopPaid(snapshot.size())*.id == fresh.getTopPaid(fresh.size())*.id
+                assert snapshot.topEarnerNames == fresh.topEarnerNames
+            }
+        then:
+            snapshot.size() > 0
+        where:
+            columnar << [false, true]
+    }
+
+    def "creates and deletes are applied as a delta and mark the snapshot dirty"() {
+        given:
+            def createdAt = Instant.now()
+            def snapshot = EmployeeSnapshot.of(1, createdAt, [employee("1", "Frank", 100), employee("2", "Frank", 200)])
+            def added = employee("3", "Jane", 300)
+        when:
+            def afterCreate = snapshot.withAdded(2, added)
+        then:
+            afterCreate.dirty
+            afterCreate.createdAt == createdAt
+            afterCreate.findById("3").get().is(added)
+            afterCreate.getTopPaid(1)[0].is(added)
+        when: 'the same create is applied twice'
+            def again = afterCreate.withAdded(3, added)
+        then:
+            again.size() == 3
+        when: 'a name is deleted, only the first employee with it goes, like on the backend'
+            def afterDelete = again.withRemovedFirstNamed(4, "FRANK")
+        then:
+            afterDelete.employees*.id == ["2", "3"]
+            afterDelete.findByName("frank")*.id == ["2"]
+            !snapshot.dirty
+    }
+
+    def "a delete by id removes that employee even when an earlier one shares its name"() {
+        given:
+            def snapshot = EmployeeSnapshot.of(1, Instant.now(),
+                    [employee("1", "Frank", 100), employee("2", "Frank", 300), employee("3", "Jane", 200)])
+        when:
+            def afterDelete = snapshot.withRemovedById(2, "2")
+        then:
+            afterDelete.dirty
+            afterDelete.employees*.id == ["1", "3"]
+            afterDelete.findByName("frank")*.id == ["1"]
+            afterDelete.getTopPaid(2)*.id == ["3", "1"]
+        when:
+            def unchanged = snapshot.withRemovedById(3, "nobody")
+        then: 'an id that is not there leaves the roster as it was'
+            unchanged.employees*.id == ["1", "2", "3"]
+    }
+
+    def "batched creates and deletes are applied in one step"() {
+        given:
+            def snapshot = EmployeeSnapshot.of(1, Instant.now(),
+                    [employee("1", "Frank", 100), employee("2", "Frank", 200), employee("3", "Jane", 300)])
+        when:
+            def afterCreate = snapshot.withAddedAll(2, [employee("4", "Ann", 400), employee("1", "Frank", 100),
+                                                        employee("5", "Bob", 50)])
+        then: 'ids already present are not added again'
+            afterCreate.dirty
+            afterCreate.employees*.id == ["1", "2", "3", "4", "5"]
+            afterCreate.getTopPaid(1)*.id == ["4"]
+        when: 'deleting by id removes exactly the employees meant, even when they share a name'
+            def afterDelete = afterCreate.withRemovedByIdAll(3, ["2", "5", "nobody", "2"])
+        then:
+            afterDelete.employees*.id == ["1", "3", "4"]
+            afterDelete.findByName("frank")*.id == ["1"]
+            afterDelete.highestSalary.get() == 400
+    }
+
+    def "the change feed is applied in order and replaying changes already reflected is harmless"() {
+        given:
+            def snapshot = EmployeeSnapshot.of(1, Instant.now(), (1..3).collect { employee("$it", "name$it", it * 100) },
+                    null, new RosterVersion("e", 10))
+            def changes = [
+                    change(11, CREATED, employee("4", "name4", 400)),
+                    change(12, DELETED, employee("1", "name1", 100)),
+                    change(13, CREATED, employee("5", "name5", 50)),
+                    change(14, DELETED, employee("5", "name5", 50)),
+                    change(15, CREATED, employee("1", "name1", 100)),
+            ]
+        when:
+            def updated = snapshot.withChanges(2, Instant.now(), changes, new RosterVersion("e", 15))
+        then:
+            updated.employees*.id == ["2", "3", "4", "1"]
+            updated.getTopPaid(1)*.id == ["4"]
+            updated.findByName("name5").isEmpty()
+            updated.rosterVersion == new RosterVersion("e", 15)
+            !updated.dirty
+        when: 'the same changes again'
+            def replayed = updated.withChanges(3, Instant.now(), changes, new RosterVersion("e", 15))
+        then:
+            replayed.employees*.id == ["2", "3", "4", "1"]
+        when: 'nothing changed'
+            def unchanged = updated.withChanges(4, Instant.now(), [], new RosterVersion("e", 16))
+        then:
+            unchanged.version == updated.version
+            unchanged.employees.is(updated.employees)
+            unchanged.rosterVersion.version() == 16
+    }
+
+    def "store only applies a change feed from the snapshot's epoch that isn't behind it"() {
+        given:
+            def store = new EmployeeSnapshotStore()
+            def published = store.publish([employee("1", "one", 1)], null, new RosterVersion("e", 5))
+            def changes = [change(6, CREATED, employee("2", "two", 2))]
+        expect:
+            store.applyChanges(new RosterVersion("other", 6), changes).get().is(published)
+            store.applyChanges(new RosterVersion("e", 4), changes).get().is(published)
+            store.applyChanges(new RosterVersion("e", 6), changes).get().employees*.id == ["1", "2"]
+    }
+
+    def "store applies deltas to the current snapshot only"() {
+        given:
+            def store = new EmployeeSnapshotStore()
+        expect: 'nothing to apply to yet'
+            store.applyCreated(employee("1", "one", 1)).isEmpty()
+        when:
+            def published = store.publish([employee("1", "one", 1)])
+            def updated = store.applyDeleted("one").get()
+        then:
+            updated.version > published.version
+            updated.isEmpty()
+            store.current().get().is(updated)
+        when: 'a full publish reconciles it'
+            def clean = store.publish([employee("2", "two", 2)])
+        then:
+            !clean.dirty
+    }
+
+    def "store revalidates the current snapshot only if it still has the confirmed entity tag"() {
+        given:
+            def store = new EmployeeSnapshotStore()
+            def published = store.publish([employee("1", "one", 100), employee("2", "two", 200)], '"e-1"', null)
+        when:
+            def revalidated = store.revalidate('"e-1"').get()
+        then: 'same contents and version, sharing the indexes, but a new createdAt'
+            revalidated.version == published.version
+            revalidated.employees.is(published.employees)
+            revalidated.topEarnerNames.is(published.topEarnerNames)
+            revalidated.findByNameContaining("tw")*.id == ["2"]
+            !revalidated.createdAt.isBefore(published.createdAt)
+            store.current().get().is(revalidated)
+        expect: 'a different tag, or a dirty snapshot, is left alone'
+            store.revalidate('"e-2"').isEmpty()
+            store.applyDeleted("one").get().entityTag == null
+            store.revalidate('"e-1"').isEmpty()
+            store.current().get().dirty
+    }
+
+    def "store publishes snapshots with increasing versions"() {
+        given:
+            def store = new EmployeeSnapshotStore()
+        expect:
+            store.current().isEmpty()
+        when:
+            def first = store.publish([employee("1", "one", 1)])
+            def second = store.publish([employee("2", "two", 2)])
+        then:
+            second.version > first.version
+            store.current().get().is(second)
+        when:
+            store.invalidate()
+        then:
+            store.current().isEmpty()
+    }
+
+    def "a columnar snapshot answers every query the same way as one of DTOs"() {
+        given:
+            def random = new Random(7)
+            def employees = (1..500).collect {
+                employee("id$it", "name${random.nextInt(100)} ${['Jones', 'Smith', 'Ünal'][it % 3]}",
+                        random.nextInt(10) == 0 ? null : random.nextInt(1000))
+            }
+            def objects = EmployeeSnapshot.of(1, Instant.now(), employees)
+            def columnar = EmployeeSnapshot.of(1, Instant.now(), employees, null, null, true)
+        expect:
+            columnar.columnar
+            columnar.offHeapBytes > 0
+            objects.offHeapBytes == 0
+            sameAnswers(objects, columnar)
+        when: 'deltas are applied to both'
+            def changes = { EmployeeSnapshot snapshot ->
+                snapshot.withAdded(2, employee("new", "Newcomer Jones", 999))
+                        .withRemovedFirstNamed(3, employees[10].name)
+                        .withRemovedById(4, "id20")
+                        .withAddedAll(5, [employee("id21", "dup", 1), employee("newer", "Newest", 5)])
+                        .withRemovedByIdAll(6, [employees[30].id, employees[40].id])
+            }
+            def changedObjects = changes(objects)
+            def changedColumnar = changes(columnar)
+        then: 'a snapshot derived from a columnar one is columnar too'
+            changedColumnar.columnar
+            sameAnswers(changedObjects, changedColumnar)
+    }
+
+    private static boolean sameAnswers(EmployeeSnapshot objects, EmployeeSnapshot columnar) {
+        assert columnar.employees == objects.employees
+        assert ["id1", "id250", "id500", "new", "missing"].every { columnar.findById(it) == objects.findById(it) }
+        assert ["name1 jones", "NAME50 SMITH", "nobody"].every { columnar.findByName(it) == objects.findByName(it) }
+        assert ["ne", "jon", "me9", "ünal", "zzz"].every { columnar.findByNameContaining(it) == objects.findByNameContaining(it) }
+        assert columnar.getTopPaid(25, true) == objects.getTopPaid(25, true)
+        assert columnar.highestSalary == objects.highestSalary
+        true
+    }
+
+    private static BackendEmployeeChangeDto change(long version, BackendEmployeeChangeDto.Type type,
+                                                   BackendEmployeeResponseDto employee) {
+        new BackendEmployeeChangeDto(version, type, employee, null)
+    }
+
+    private static BackendEmployeeResponseDto employee(String id, String name, Integer salary) {
+        BackendEmployeeResponseDto.builder()
+                .id(id)
+                .name(name)
+                .salary(salary)
+                .age(30)
+                .title("title")
+                .email("${name}@company.com")
+                .build()
+    }
+}
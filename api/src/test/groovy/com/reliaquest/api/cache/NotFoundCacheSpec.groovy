@@ -0,0 +1,51 @@
+package com.reliaquest.api.cache
+
+import com.reliaquest.api.service.BackendRateLimiterSpec
+import spock.lang.Specification
+
+import java.time.Duration
+
+class NotFoundCacheSpec extends Specification {
+    def clock = new BackendRateLimiterSpec.MutableClock()
+
+    def "a missing key is remembered until the TTL has passed or it is forgotten"() {
+        given:
+            def cache = new NotFoundCache(Duration.ofSeconds(5), 10, clock)
+        when:
+            cache.remember("a")
+            cache.remember("b")
+            cache.forget("b")
+        then:
+            cache.isKnownMissing("a")
+            !cache.isKnownMissing("b")
+            !cache.isKnownMissing("c")
+        when:
+            clock.advance(Duration.ofSeconds(5))
+        then:
+            !cache.isKnownMissing("a")
+            cache.size() == 0
+    }
+
+    def "a full cache drops keys to stay within its size"() {
+        given:
+            def cache = new NotFoundCache(Duration.ofSeconds(5), 100, clock)
+        when:
+            1000.times { cache.remember("key$it") }
+        then:
+            cache.size() == 100
+            (0..<1000).count { cache.isKnownMissing("key$it") } == 100
+        when: 'the remembered keys expire'
+            clock.advance(Duration.ofSeconds(5))
+        then:
+            cache.size() == 0
+    }
+
+    def "a zero TTL remembers nothing"() {
+        given:
+            def cache = new NotFoundCache(Duration.ZERO, 10, clock)
+        when:
+            cache.remember("a")
+        then:
+            !cache.isKnownMissing("a")
+    }
+}
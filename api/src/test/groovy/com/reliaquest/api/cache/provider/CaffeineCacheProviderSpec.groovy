@@ -0,0 +1,46 @@
+package com.reliaquest.api.cache.provider
+
+import com.github.benmanes.caffeine.cache.Ticker
+import spock.lang.Specification
+
+import java.time.Duration
+
+class CaffeineCacheProviderSpec extends Specification {
+    long nanos = 0
+    Ticker ticker = { nanos } as Ticker
+
+    def "each value expires after its own TTL"() {
+        given:
+            def provider = new CaffeineCacheProvider(10, ticker, Runnable::run)
+        when:
+            provider.put("short", "a".bytes, Duration.ofSeconds(1))
+            provider.put("long", "b".bytes, Duration.ofSeconds(10))
+            nanos += Duration.ofSeconds(2).toNanos()
+        then:
+            !provider.get("short").isPresent()
+            new String(provider.get("long").get()) == "b"
+        when: 'reading a value does not extend it'
+            nanos += Duration.ofSeconds(8).toNanos()
+        then:
+            !provider.get("long").isPresent()
+    }
+
+    def "no more than the maximum number of entries are kept"() {
+        given:
+            def provider = new CaffeineCacheProvider(5, ticker, Runnable::run)
+        when:
+            (1..20).each { provider.put("key$it", "$it".bytes, Duration.ofMinutes(1)) }
+        then:
+            provider.size() <= 5
+    }
+
+    def "an evicted value is gone"() {
+        given:
+            def provider = new CaffeineCacheProvider(10, ticker, Runnable::run)
+            provider.put("key", "value".bytes, Duration.ofMinutes(1))
+        when:
+            provider.evict("key")
+        then:
+            !provider.get("key").isPresent()
+    }
+}
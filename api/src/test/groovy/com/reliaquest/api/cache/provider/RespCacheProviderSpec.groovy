@@ -0,0 +1,95 @@
+package com.reliaquest.api.cache.provider
+
+import com.reliaquest.api.config.BackendServiceConfig
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+
+import java.time.Duration
+
+class RespCacheProviderSpec extends Specification {
+    @AutoCleanup
+    StubRespServer server = new StubRespServer()
+
+    def "values are stored, read back and evicted on the server"() {
+        given:
+            def provider = newProvider()
+            byte[] value = [0, 13, 10, -1, 42]
+        when:
+            provider.put("key", value, Duration.ofMinutes(1))
+        then: 'binary values survive the round trip'
+            provider.get("key").get() == value
+            !provider.get("other").isPresent()
+        when:
+            provider.evict("key")
+        then:
+            !provider.get("key").isPresent()
+        and: 'every command went over the one connection'
+            server.connectionCount.get() == 1
+        cleanup:
+            provider?.close()
+    }
+
+    def "the server expires values after their TTL"() {
+        given:
+            def provider = newProvider()
+        when:
+            provider.put("key", "value".bytes, Duration.ofMillis(50))
+            sleep(100)
+        then:
+            !provider.get("key").isPresent()
+        cleanup:
+            provider?.close()
+    }
+
+    def "a password is sent once per connection"() {
+        given:
+            server.close()
+            server = new StubRespServer("secret")
+            def provider = newProvider { it.password = "secret" }
+        when:
+            provider.put("key", "value".bytes, Duration.ofMinutes(1))
+            def value = provider.get("key")
+        then:
+            new String(value.get()) == "value"
+            server.commands == ["AUTH", "SET", "GET"]
+        cleanup:
+            provider?.close()
+    }
+
+    def "an error reply is raised and the connection is kept"() {
+        given:
+            server.close()
+            server = new StubRespServer("secret")
+            def provider = newProvider()
+        when:
+            provider.get("key")
+        then:
+            def e = thrown(CacheProviderException)
+            e.message.contains("NOAUTH")
+        when:
+            provider.get("key")
+        then:
+            thrown(CacheProviderException)
+            server.connectionCount.get() == 1
+        cleanup:
+            provider?.close()
+    }
+
+    def "an unreachable server is raised as a CacheProviderException"() {
+        given:
+            server.close()
+            def provider = newProvider { it.timeout = Duration.ofMillis(200) }
+        when:
+            provider.get("key")
+        then:
+            thrown(CacheProviderException)
+        cleanup:
+            provider?.close()
+    }
+
+    RespCacheProvider newProvider(Closure customizer = {}) {
+        def config = new BackendServiceConfig.SharedCache(port: server.port, keyPrefix: "test:")
+        customizer(config)
+        new RespCacheProvider(config)
+    }
+}
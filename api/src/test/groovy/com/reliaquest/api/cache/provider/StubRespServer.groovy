@@ -0,0 +1,147 @@
+package com.reliaquest.api.cache.provider
+
+import java.nio.charset.StandardCharsets
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * A tiny stand-in for a Redis-compatible server, so that RespCacheProvider can be exercised without one. It speaks
+ * just enough RESP for the commands the provider sends -- GET, SET with PX, DEL, AUTH and PING -- and keeps the values
+ * in memory, expiring them the way the server would. Connections and commands are counted so specs can assert on them.
+ */
+class StubRespServer implements Closeable {
+    private static final int ARRAY = (int) ('*' as char)
+    private static final int BULK_STRING = (int) ('$' as char)
+    private static final int CR = (int) ('\r' as char)
+    final AtomicInteger connectionCount = new AtomicInteger()
+    final List<String> commands = Collections.synchronizedList([])
+    private final Map<String, Entry> values = new ConcurrentHashMap<>()
+    private final ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.loopbackAddress)
+    private final String password
+
+    StubRespServer(String password = null) {
+        this.password = password
+        Thread.startDaemon {
+            while (!serverSocket.closed) {
+                try {
+                    Socket socket = serverSocket.accept()
+                    connectionCount.incrementAndGet()
+                    Thread.startDaemon { serve(socket) }
+                } catch (IOException ignored) {
+                    // closed
+                }
+            }
+        }
+    }
+
+    int getPort() {
+        serverSocket.localPort
+    }
+
+    private void serve(Socket socket) {
+        socket.withCloseable {
+            def input = new DataInputStream(new BufferedInputStream(socket.inputStream))
+            def output = new BufferedOutputStream(socket.outputStream)
+            boolean authenticated = password == null
+            while (true) {
+                List<byte[]> args
+                try {
+                    args = readCommand(input)
+                } catch (IOException ignored) {
+                    return
+                }
+                if (args == null) {
+                    return
+                }
+                String name = new String(args[0], StandardCharsets.UTF_8).toUpperCase()
+                byte[] response = !authenticated && name != "AUTH"
+                        ? "-NOAUTH Authentication required.\r\n".bytes
+                        : reply(name, args, { authenticated = true })
+                // once the command has taken effect, so that specs waiting for it can rely on that, but before it is
+                // answered, so that specs that have the answer can rely on it being counted
+                commands << name
+                output.write(response)
+                output.flush()
+            }
+        }
+    }
+
+    private byte[] reply(String name, List<byte[]> args, Closure onAuthenticated) {
+        String key = args.size() > 1 ? new String(args[1], StandardCharsets.UTF_8) : null
+        switch (name) {
+            case "PING":
+                return "+PONG\r\n".bytes
+            case "AUTH":
+                if (key != password) {
+                    return "-WRONGPASS invalid password\r\n".bytes
+                }
+                onAuthenticated()
+                return "+OK\r\n".bytes
+            case "SET":
+                // the provider always sends SET key value PX milliseconds
+                long ttlMillis = new String(args[4], StandardCharsets.UTF_8) as long
+                values[key] = new Entry(args[2], System.nanoTime() + ttlMillis * 1_000_000)
+                return "+OK\r\n".bytes
+            case "GET":
+                def entry = values[key]
+                if (entry == null || entry.expiresAtNanos - System.nanoTime() <= 0) {
+                    values.remove(key)
+                    return '$-1\r\n'.bytes
+                }
+                def out = new ByteArrayOutputStream()
+                out.write("\$${entry.value.length}\r\n".bytes)
+                out.write(entry.value)
+                out.write("\r\n".bytes)
+                return out.toByteArray()
+            case "DEL":
+                return ":${values.remove(key) == null ? 0 : 1}\r\n".bytes
+            default:
+                return "-ERR unknown command '${name}'\r\n".bytes
+        }
+    }
+
+    private static List<byte[]> readCommand(DataInputStream input) {
+        int type = input.read()
+        if (type == -1) {
+            return null
+        }
+        assert type == ARRAY
+        int count = readLine(input) as int
+        (1..count).collect {
+            assert input.read() == BULK_STRING
+            int length = readLine(input) as int
+            byte[] value = new byte[length]
+            input.readFully(value)
+            input.skipBytes(2)
+            value
+        }
+    }
+
+    private static String readLine(DataInputStream input) {
+        def line = new StringBuilder()
+        int b
+        while ((b = input.read()) != CR) {
+            if (b == -1) {
+                throw new EOFException()
+            }
+            line.append((char) b)
+        }
+        input.read()
+        line.toString()
+    }
+
+    @Override
+    void close() {
+        serverSocket.close()
+    }
+
+    private static class Entry {
+        final byte[] value
+        final long expiresAtNanos
+
+        Entry(byte[] value, long expiresAtNanos) {
+            this.value = value
+            this.expiresAtNanos = expiresAtNanos
+        }
+    }
+}
@@ -0,0 +1,636 @@
+package com.reliaquest.api.service
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.reliaquest.api.cache.provider.StubRespServer
+import com.reliaquest.api.config.BackendServiceConfig
+import com.reliaquest.api.model.NewEmployeeRequest
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.springframework.web.reactive.function.client.WebClient
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+
+import java.time.Duration
+import java.time.Instant
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Exercises BackendEmployeeService against a stub backend so that the caching behavior can be verified by counting
+ * how many requests actually reach the "server".
+ */
+class BackendEmployeeServiceSpec extends Specification {
+    @AutoCleanup
+    StubBackend backend = new StubBackend({ [200, StubBackend.roster(3)] })
+
+    def meterRegistry = new SimpleMeterRegistry()
+
+    def "on-demand mode fetches the roster on every call"() {
+        given:
+            def service = newService(BackendServiceConfig.RefreshMode.ON_DEMAND)
+        when:
+            3.times { service.getAllEmployees() }
+        then:
+            backend.requestCount.get() == 3
+    }
+
+    def "stale-while-revalidate mode serves the cached snapshot"() {
+        given:
+            def service = newService(BackendServiceConfig.RefreshMode.STALE_WHILE_REVALIDATE)
+        when:
+            def employees = (1..5).collect { service.getAllEmployees() }
+        then:
+            employees.every { it.size() == 3 }
+            backend.requestCount.get() == 1
+            meterRegistry.get("employee.cache.size").gauge().value() == 3
+            meterRegistry.get("employee.cache.age").timeGauge().value() >= 0
+    }
+
+    def "stale-while-revalidate mode refreshes in the background once the snapshot is due"() {
+        given:
+            def service = newService(BackendServiceConfig.RefreshMode.STALE_WHILE_REVALIDATE) {
+                it.cache.ttl = Duration.ofMillis(100)
+                it.cache.refreshAhead = Duration.ofMillis(50)
+            }
+            def first = service.getEmployeeSnapshot()
+        when:
+            sleep(100)
+            def served = service.getEmployeeSnapshot()
+        then: 'the stale snapshot is served without waiting'
+            served.is(first)
+        and: 'a refresh happens behind the scenes'
+            waitFor { service.getEmployeeSnapshot().version > first.version }
+            meterRegistry.get("employee.cache.refresh").tag("result", "success").counter().count() >= 1
+    }
+
+    def "lookups by id are served from a fresh snapshot and 404s are remembered"() {
+        given:
+            def paths = Collections.synchronizedList([])
+            useBackend { exchange ->
+                paths << exchange.requestURI.path - "/api/v1/employee"
+                switch (exchange.requestURI.path) {
+                    case ~/.*\/id4$/: return [200, '{"data":' + StubBackend.row(4) + '}']
+                    case ~/.*\/nobody$/: return [404, '{"status":"Employee not found."}']
+                    default: return [200, StubBackend.roster(3)]
+                }
+            }
+            def service = newService(BackendServiceConfig.RefreshMode.STALE_WHILE_REVALIDATE)
+            service.getAllEmployees()
+        when: 'an employee in the snapshot, one created since, and one that does not exist'
+            def cached = service.findEmployeeById("id2").get()
+            def created = service.findEmployeeById("id4").get()
+            def missing = (1..3).collect {
+                try {
+                    service.findEmployeeById("nobody")
+                    false
+                } catch (NotFoundException ignored) {
+                    true
+                }
+            }
+        then: 'only the first probe for the missing id reaches the backend'
+            cached.name == "name2"
+            created.name == "name4"
+            missing == [true, true, true]
+            paths == ["", "/id4", "/nobody"]
+            meterRegistry.get("employee.cache.lookups").tag("result", "hit").counter().count() == 1
+            meterRegistry.get("employee.cache.lookups").tag("result", "notFound").counter().count() == 2
+            meterRegistry.get("employee.cache.lookups").tag("result", "miss").counter().count() == 2
+    }
+
+    def "a stale snapshot is not used for lookups by id"() {
+        given:
+            def paths = Collections.synchronizedList([])
+            useBackend { exchange ->
+                paths << exchange.requestURI.path - "/api/v1/employee"
+                exchange.requestURI.path.endsWith("/id2")
+                        ? [200, '{"data":' + StubBackend.row(2) + '}']
+                        : [200, StubBackend.roster(3)]
+            }
+            def service = newService(BackendServiceConfig.RefreshMode.ON_DEMAND) {
+                it.cache.ttl = Duration.ofMillis(50)
+            }
+            service.getAllEmployees()
+        when:
+            sleep(100)
+            def employee = service.findEmployeeById("id2").get()
+        then:
+            employee.name == "name2"
+            paths == ["", "/id2"]
+    }
+
+    def "replicas sharing a cache server fetch the roster from the backend once"() {
+        given:
+            def cacheServer = new StubRespServer()
+            def sharing = { BackendServiceConfig config ->
+                config.sharedCache.provider = BackendServiceConfig.CacheProviderType.REDIS
+                config.sharedCache.port = cacheServer.port
+            }
+            def first = newService(BackendServiceConfig.RefreshMode.STALE_WHILE_REVALIDATE, sharing)
+            def second = newService(BackendServiceConfig.RefreshMode.STALE_WHILE_REVALIDATE, sharing)
+        when:
+            def fetched = first.getEmployeeSnapshot()
+            waitFor { cacheServer.commands.contains("SET") }
+            def shared = second.getEmployeeSnapshot()
+        then: 'the second replica takes the roster, and its age, from the shared cache'
+            shared.employees*.id == ["id1", "id2", "id3"]
+            shared.createdAt == fetched.createdAt
+            backend.requestCount.get() == 1
+            meterRegistry.get("employee.cache.shared").counter().count() == 1
+        cleanup:
+            first?.closeSharedCache()
+            second?.closeSharedCache()
+            cacheServer?.close()
+    }
+
+    def "an unreachable shared cache is skipped"() {
+        given:
+            def cacheServer = new StubRespServer()
+            cacheServer.close()
+            def service = newService(BackendServiceConfig.RefreshMode.ON_DEMAND) {
+                it.sharedCache.provider = BackendServiceConfig.CacheProviderType.REDIS
+                it.sharedCache.port = cacheServer.port
+                it.sharedCache.timeout = Duration.ofMillis(200)
+            }
+        when:
+            def employees = service.getAllEmployees()
+        then:
+            employees.size() == 3
+            backend.requestCount.get() == 1
+        cleanup:
+            service?.closeSharedCache()
+    }
+
+    def "concurrent roster fetches are coalesced into a single backend request"() {
+        given:
+            def slowBackend = new StubBackend({
+                sleep(500)
+                [200, StubBackend.roster(3)]
+            })
+            backend.close()
+            backend = slowBackend
+            def service = newService(BackendServiceConfig.RefreshMode.ON_DEMAND)
+        when:
+            def results = Collections.synchronizedList([])
+            def threads = (1..10).collect { Thread.start { results << service.getAllEmployees() } }
+            threads*.join()
+        then:
+            results.size() == 10
+            results.every { it.size() == 3 }
+            backend.requestCount.get() == 1
+            meterRegistry.get("employee.backend.requests").tag("coalesced", "true").counter().count() == 9
+    }
+
+    def "a read with a cached fallback doesn't share a request with one that would queue for a permit"() {
+        given:
+            useBackend {
+                sleep(300)
+                [200, StubBackend.roster(3)]
+            }
+            def service = newService(BackendServiceConfig.RefreshMode.ON_DEMAND)
+            service.getAllEmployees()
+        when: 'a background refresh (no fallback) and a read (falls back to the snapshot) overlap'
+            service.triggerBackgroundRefresh()
+            def employees = service.getAllEmployees()
+        then:
+            employees.size() == 3
+            waitFor { backend.requestCount.get() == 3 }
+            meterRegistry.get("employee.backend.requests").tag("coalesced", "true").counter().count() == 0
+    }
+
+    def "a caller who asks again right after getting a result starts a new request"() {
+        when:
+            def service = newService(BackendServiceConfig.RefreshMode.ON_DEMAND)
+            100.times { service.getAllEmployees() }
+        then:
+            backend.requestCount.get() == 100
+    }
+
+    def "creates and deletes are applied to the cached roster instead of dropping it"() {
+        given:
+            def writingBackend = new StubBackend({ exchange ->
+                switch (exchange.requestMethod) {
+                    case "POST": return [200, '{"data":{"id":"new","employee_name":"New Hire","employee_salary":5000,' +
+                            '"employee_age":25,"employee_title":"title","employee_email":"new@company.com"}}']
+                    case "DELETE": return [200, '{"data":true}']
+                    default: return [200, StubBackend.roster(3)]
+                }
+            })
+            backend.close()
+            backend = writingBackend
+            def service = newService(BackendServiceConfig.RefreshMode.STALE_WHILE_REVALIDATE)
+            service.getAllEmployees()
+        when:
+            service.createEmployee(new NewEmployeeRequest(name: "New Hire", salary: 5000, age: 25, title: "title"))
+            service.deleteEmployee("name1")
+            def snapshot = service.getEmployeeSnapshot()
+        then: 'reads are still served from the cache, which reflects both writes'
+            backend.requestCount.get() == 3
+            snapshot.dirty
+            snapshot.employees*.id == ["id2", "id3", "new"]
+            snapshot.findById("new").get().email == "new@company.com"
+    }
+
+    def "a full roster larger than the in-memory codec limit is decoded"() {
+        given: 'a roster body of well over 256KB'
+            useBackend { [200, StubBackend.roster(5000)] }
+            def service = newService(BackendServiceConfig.RefreshMode.ON_DEMAND)
+        when:
+            def employees = service.getAllEmployees()
+        then:
+            employees.size() == 5000
+            employees.last().id == "id5000"
+    }
+
+    def "stream mode decodes the roster from newline-delimited JSON"() {
+        given:
+            def paths = Collections.synchronizedList([])
+            useBackend { exchange ->
+                paths << exchange.requestURI.path
+                [200, StubBackend.ndjson(3), "application/x-ndjson"]
+            }
+            def service = newService(BackendServiceConfig.RefreshMode.ON_DEMAND) {
+                it.roster.transfer = BackendServiceConfig.RosterTransfer.STREAM
+            }
+        when:
+            def employees = service.getAllEmployees()
+        then:
+            employees*.id == ["id1", "id2", "id3"]
+            employees[1].salary == 2000
+            paths == ["/api/v1/employee/stream"]
+    }
+
+    def "paged mode follows the cursor until it gets a short page"() {
+        given:
+            def queries = Collections.synchronizedList([])
+            useBackend { exchange -> pageOf(5, exchange.requestURI.query, queries) }
+            def service = newService(BackendServiceConfig.RefreshMode.ON_DEMAND) {
+                it.roster.transfer = BackendServiceConfig.RosterTransfer.PAGED
+                it.roster.pageSize = 2
+            }
+        when:
+            def employees = service.getAllEmployees()
+        then:
+            employees*.id == ["id1", "id2", "id3", "id4", "id5"]
+            queries == ["limit=2", "limit=2&after=id2", "limit=2&after=id4"]
+    }
+
+    def "paged mode starts over once if the cursor is no longer known"() {
+        given:
+            def queries = Collections.synchronizedList([])
+            boolean cursorLost = true
+            useBackend { exchange ->
+                if (exchange.requestURI.query?.contains("after=id2") && cursorLost) {
+                    cursorLost = false
+                    queries << exchange.requestURI.query
+                    return [404, '{"status":"Failed to process request.","error":"Unknown cursor."}']
+                }
+                pageOf(3, exchange.requestURI.query, queries)
+            }
+            def service = newService(BackendServiceConfig.RefreshMode.ON_DEMAND) {
+                it.roster.transfer = BackendServiceConfig.RosterTransfer.PAGED
+                it.roster.pageSize = 2
+            }
+        when:
+            def employees = service.getAllEmployees()
+        then:
+            employees*.id == ["id1", "id2", "id3"]
+            queries == ["limit=2", "limit=2&after=id2", "limit=2", "limit=2&after=id2"]
+    }
+
+    def "paged mode serves the cached roster when a later page is rate limited"() {
+        given:
+            def queries = Collections.synchronizedList([])
+            boolean rateLimited = false
+            useBackend { exchange ->
+                if (exchange.requestURI.query?.contains("after=id2") && rateLimited) {
+                    queries << exchange.requestURI.query
+                    return [429, '{"status":"Too many requests."}']
+                }
+                pageOf(5, exchange.requestURI.query, queries)
+            }
+            def service = newService(BackendServiceConfig.RefreshMode.ON_DEMAND) {
+                it.roster.transfer = BackendServiceConfig.RosterTransfer.PAGED
+                it.roster.pageSize = 2
+            }
+            def cached = service.getEmployeeSnapshot()
+        when:
+            rateLimited = true
+            def employees = service.getAllEmployees()
+        then:
+            employees*.id == ["id1", "id2", "id3", "id4", "id5"]
+            service.getEmployeeSnapshot().version == cached.version
+            queries.count { it == "limit=2&after=id2" } >= 2
+    }
+
+    def "a roster the backend reports as not modified is revalidated instead of rebuilt"() {
+        given:
+            def ifNoneMatch = Collections.synchronizedList([])
+            useBackend { exchange ->
+                ifNoneMatch << exchange.requestHeaders.getFirst("If-None-Match")
+                exchange.responseHeaders.add("ETag", '"e-1"')
+                exchange.requestHeaders.getFirst("If-None-Match") == '"e-1"' ? [304, null] : [200, StubBackend.roster(3)]
+            }
+            def service = newService(BackendServiceConfig.RefreshMode.ON_DEMAND)
+        when:
+            def first = service.getEmployeeSnapshot()
+            def second = service.getEmployeeSnapshot()
+        then:
+            ifNoneMatch == [null, '"e-1"']
+            second.version == first.version
+            second.employees.is(first.employees)
+            second.entityTag == '"e-1"'
+            meterRegistry.get("employee.cache.revalidated").counter().count() == 1
+    }
+
+    def "a roster with our own writes applied is fetched unconditionally"() {
+        given:
+            def ifNoneMatch = Collections.synchronizedList([])
+            useBackend { exchange ->
+                if (exchange.requestMethod == "DELETE") {
+                    return [200, '{"data":true}']
+                }
+                ifNoneMatch << exchange.requestHeaders.getFirst("If-None-Match")
+                exchange.responseHeaders.add("ETag", '"e-1"')
+                [200, StubBackend.roster(3)]
+            }
+            def service = newService(BackendServiceConfig.RefreshMode.ON_DEMAND)
+        when:
+            service.getAllEmployees()
+            service.deleteEmployee("name1")
+            def employees = service.getAllEmployees()
+        then: 'the dirty snapshot has no entity tag to send'
+            ifNoneMatch == [null, null]
+            employees.size() == 3
+    }
+
+    def "paged mode only revalidates with the first page"() {
+        given:
+            def queries = Collections.synchronizedList([])
+            useBackend { exchange ->
+                exchange.responseHeaders.add("ETag", '"e-1"')
+                if (exchange.requestHeaders.getFirst("If-None-Match") == '"e-1"') {
+                    queries << exchange.requestURI.query
+                    return [304, null]
+                }
+                pageOf(5, exchange.requestURI.query, queries)
+            }
+            def service = newService(BackendServiceConfig.RefreshMode.ON_DEMAND) {
+                it.roster.transfer = BackendServiceConfig.RosterTransfer.PAGED
+                it.roster.pageSize = 2
+            }
+        when:
+            def first = service.getEmployeeSnapshot()
+            def second = service.getEmployeeSnapshot()
+        then:
+            second.version == first.version
+            second.size() == 5
+            queries == ["limit=2", "limit=2&after=id2", "limit=2&after=id4", "limit=2"]
+    }
+
+    def "with the change feed on, a refresh only fetches and applies the changes"() {
+        given:
+            def paths = Collections.synchronizedList([])
+            useBackend { exchange ->
+                paths << exchange.requestURI.toString() - "/api/v1/employee"
+                if (exchange.requestURI.query?.contains("since=7")) {
+                    return [200, '{"data":{"epoch":"e","version":7,"changes":[]}}']
+                }
+                if (exchange.requestURI.path.endsWith("/changes")) {
+                    return [200, '{"data":{"epoch":"e","version":7,"changes":[' +
+                            '{"version":6,"type":"DELETED","employee":' + StubBackend.row(1) + '},' +
+                            '{"version":7,"type":"CREATED","employee":' + StubBackend.row(4) + '}]}}']
+                }
+                exchange.responseHeaders.add("X-Employee-Epoch", "e")
+                exchange.responseHeaders.add("X-Employee-Version", "5")
+                [200, StubBackend.roster(3)]
+            }
+            def service = newService(BackendServiceConfig.RefreshMode.ON_DEMAND) {
+                it.roster.changeFeed = true
+            }
+        when:
+            service.getAllEmployees()
+            def employees = service.getAllEmployees()
+        then:
+            paths == ["", "/changes?since=5&epoch=e"]
+            employees*.id == ["id2", "id3", "id4"]
+            service.getEmployeeSnapshot().rosterVersion.version() == 7
+            meterRegistry.get("employee.cache.changes").counter().count() == 2
+    }
+
+    def "with the change feed on, the full roster is fetched if the backend can't tell the changes"() {
+        given:
+            def paths = Collections.synchronizedList([])
+            useBackend { exchange ->
+                paths << exchange.requestURI.path - "/api/v1/employee"
+                if (exchange.requestURI.path.endsWith("/changes")) {
+                    return [410, '{"status":"Failed to process request.","error":"Changes since 5 are no longer available."}']
+                }
+                exchange.responseHeaders.add("X-Employee-Epoch", "e")
+                exchange.responseHeaders.add("X-Employee-Version", "5")
+                [200, StubBackend.roster(3)]
+            }
+            def service = newService(BackendServiceConfig.RefreshMode.ON_DEMAND) {
+                it.roster.changeFeed = true
+            }
+        when:
+            def first = service.getEmployeeSnapshot()
+            def second = service.getEmployeeSnapshot()
+        then:
+            paths == ["", "/changes", ""]
+            second.version > first.version
+            second.size() == 3
+    }
+
+    def "with push on, changes from the change stream are applied and the stream is resumed after the last one"() {
+        given:
+            def paths = Collections.synchronizedList([])
+            useBackend { exchange ->
+                paths << exchange.requestURI.toString() - "/api/v1/employee"
+                if (exchange.requestURI.path.endsWith("/changes/stream")) {
+                    def events = exchange.requestURI.query.startsWith("since=5&")
+                            ? changeEvent(6, "DELETED", 1) + ":heartbeat\n\n" + changeEvent(7, "CREATED", 4)
+                            : ""
+                    return [200, events, "text/event-stream"]
+                }
+                exchange.responseHeaders.add("X-Employee-Epoch", "e")
+                exchange.responseHeaders.add("X-Employee-Version", "5")
+                [200, StubBackend.roster(3)]
+            }
+            def service = newService(BackendServiceConfig.RefreshMode.STALE_WHILE_REVALIDATE) {
+                it.roster.push = true
+            }
+        when:
+            service.startPushUpdates()
+            waitFor { paths.contains("/changes/stream?since=7&epoch=e") }
+        then:
+            paths[0..1] == ["", "/changes/stream?since=5&epoch=e"]
+            service.getAllEmployees()*.id == ["id2", "id3", "id4"]
+            service.getEmployeeSnapshot().rosterVersion.version() == 7
+            meterRegistry.get("employee.cache.push.lag").timer().count() == 2
+        cleanup:
+            service?.stopPushUpdates()
+    }
+
+    def "concurrent creates are gathered into one batch request"() {
+        given:
+            def paths = Collections.synchronizedList([])
+            useBackend { exchange -> createdEmployees(exchange, paths) }
+            def service = newService(BackendServiceConfig.RefreshMode.ON_DEMAND) {
+                it.batch.enabled = true
+                it.batch.window = Duration.ofMillis(500)
+            }
+        when:
+            def created = new ConcurrentHashMap()
+            (1..5).collect { i ->
+                Thread.start { created[i] = service.createEmployee(newEmployee("hire$i")).get() }
+            }*.join()
+        then:
+            paths == ["/batch"]
+            (1..5).every { created[it].id == "id-hire$it" }
+        cleanup:
+            service?.stopBatching()
+    }
+
+    def "a batch the backend rejects is sent again one create at a time"() {
+        given:
+            def paths = Collections.synchronizedList([])
+            useBackend { exchange ->
+                if (exchange.requestURI.path.endsWith("/batch")) {
+                    paths << "/batch"
+                    return [500, '{"status":"Failed to process request.","error":"employees[1].salary: must be positive"}']
+                }
+                def response = createdEmployees(exchange, paths)
+                response[1].contains("bad") ? [500, '{"status":"Failed to process request."}'] : response
+            }
+            def service = newService(BackendServiceConfig.RefreshMode.ON_DEMAND) {
+                it.batch.enabled = true
+                it.batch.window = Duration.ofMillis(500)
+            }
+        when:
+            def created = new ConcurrentHashMap()
+            def failed = Collections.synchronizedList([])
+            ["good1", "bad", "good2"].collect { name ->
+                Thread.start {
+                    try {
+                        created[name] = service.createEmployee(newEmployee(name)).get()
+                    } catch (MalformedRequestException ignored) {
+                        failed << name
+                    }
+                }
+            }*.join()
+        then:
+            paths == ["/batch", "", "", ""]
+            created.keySet() == ["good1", "good2"] as Set
+            failed == ["bad"]
+        cleanup:
+            service?.stopBatching()
+    }
+
+    def "a batch delete sends the ids and applies the deletions the backend confirms to the cached roster"() {
+        given:
+            def deletedIds = Collections.synchronizedList([])
+            useBackend { exchange ->
+                if (exchange.requestMethod == "DELETE") {
+                    deletedIds.addAll(new ObjectMapper().readTree(exchange.requestBody).get("ids")*.asText())
+                    return [200, StubBackend.page([StubBackend.row(3), StubBackend.row(1)])]
+                }
+                [200, StubBackend.roster(3)]
+            }
+            def service = newService(BackendServiceConfig.RefreshMode.STALE_WHILE_REVALIDATE)
+            service.getAllEmployees()
+        when:
+            def deleted = service.deleteEmployeesById(["id3", "nobody", "id1"]).get()
+        then:
+            deleted*.id == ["id3", "id1"]
+            deletedIds == ["id3", "nobody", "id1"]
+            backend.requestCount.get() == 2
+            service.getAllEmployees()*.id == ["id2"]
+    }
+
+    def "a delete by id is one request and removes exactly that employee from the cached roster"() {
+        given:
+            def deletes = Collections.synchronizedList([])
+            useBackend { exchange ->
+                if (exchange.requestMethod == "DELETE") {
+                    deletes << exchange.requestURI.path - "/api/v1/employee"
+                    return exchange.requestURI.path.endsWith("/id2")
+                            ? [200, '{"data":' + StubBackend.row(2) + '}']
+                            : [404, '{"status":"Employee not found."}']
+                }
+                [200, StubBackend.roster(3)]
+            }
+            def service = newService(BackendServiceConfig.RefreshMode.STALE_WHILE_REVALIDATE)
+            service.getAllEmployees()
+        when:
+            def deleted = service.deleteEmployeeById("id2").get()
+        then:
+            deleted.name == "name2"
+            deletes == ["/id2"]
+            backend.requestCount.get() == 2
+            service.getAllEmployees()*.id == ["id1", "id3"]
+        when:
+            service.deleteEmployeeById("nobody")
+        then:
+            thrown(NotFoundException)
+            service.getAllEmployees()*.id == ["id1", "id3"]
+    }
+
+    /**
+     * Answer a create (single or batch) the way the mock server does, with an id made from each employee's name.
+     */
+    static List createdEmployees(exchange, List paths) {
+        paths << exchange.requestURI.path - "/api/v1/employee"
+        def body = new ObjectMapper().readTree(exchange.requestBody)
+        boolean batch = exchange.requestURI.path.endsWith("/batch")
+        def rows = (batch ? body.get("employees").collect { it.get("name").asText() } : [body.get("name").asText()])
+                .collect { """{"id":"id-$it","employee_name":"$it","employee_salary":1000}""" }
+        [200, batch ? StubBackend.page(rows) : """{"data":${rows[0]}}"""]
+    }
+
+    static NewEmployeeRequest newEmployee(String name) {
+        new NewEmployeeRequest(name: name, salary: 1000, age: 30, title: "title")
+    }
+
+    void useBackend(Closure<List> handler) {
+        backend.close()
+        backend = new StubBackend(handler)
+    }
+
+    /**
+     * Serve a page of a roster of the given size the way the mock server does, from "limit" and "after" parameters.
+     */
+    static List pageOf(int size, String query, List queries) {
+        queries << query
+        def params = query.split("&").collectEntries { it.split("=") as List }
+        int from = params.after ? (params.after - "id") as int : 0
+        int to = Math.min(from + (params.limit as int), size)
+        [200, StubBackend.page(from < to ? ((from + 1)..to).collect { StubBackend.row(it) } : [])]
+    }
+
+    static String changeEvent(int version, String type, int row) {
+        "id:$version\nevent:change\ndata:" +
+                """{"version":$version,"type":"$type","employee":${StubBackend.row(row)},"at":"${Instant.now()}"}\n\n"""
+    }
+
+    BackendEmployeeService newService(BackendServiceConfig.RefreshMode mode, Closure customizer = {}) {
+        def config = new BackendServiceConfig(
+                url: backend.url,
+                maxRetries: 2,
+                retryBackoff: Duration.ofMillis(10),
+                maxBackoff: Duration.ofMillis(50))
+        config.cache.refreshMode = mode
+        config.cache.refreshCheckInterval = Duration.ofHours(1)
+        // most specs stub the roster as a single body and count every request; the specs for the other transfer modes
+        // and the change feed turn those on themselves
+        config.roster.transfer = BackendServiceConfig.RosterTransfer.FULL
+        config.roster.changeFeed = false
+        customizer(config)
+        new BackendEmployeeService(WebClient.builder(), config, meterRegistry)
+    }
+
+    static void waitFor(Closure<Boolean> condition) {
+        def deadline = System.currentTimeMillis() + 5000
+        while (!condition()) {
+            assert System.currentTimeMillis() < deadline
+            sleep(20)
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.reliaquest.api.service
+
+import com.reliaquest.api.config.BackendServiceConfig
+import spock.lang.Specification
+
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
+import java.time.ZoneId
+import java.time.ZoneOffset
+
+class BackendRateLimiterSpec extends Specification {
+    def clock = new MutableClock()
+    def config = new BackendServiceConfig.RateLimit(
+            initialCooldown: Duration.ofSeconds(30),
+            maxCooldown: Duration.ofSeconds(60))
+    def limiter = new BackendRateLimiter(config, clock)
+
+    def "the budget is learned from the first 429"() {
+        when: 'the backend accepts three requests and rejects the fourth'
+            3.times { send(true) }
+            send(false)
+        then:
+            limiter.budget == 3
+        and: 'nothing else is let through until the cooldown has passed since the last accepted request'
+            limiter.tryAcquire() == Duration.ofSeconds(30)
+        when:
+            clock.advance(Duration.ofSeconds(30))
+        then:
+            limiter.tryAcquire().isZero()
+    }
+
+    def "the cooldown estimate grows if the backend is still rate limiting after it"() {
+        given:
+            3.times { send(true) }
+            send(false)
+        when: 'the first request after the estimated cooldown is rejected as well'
+            clock.advance(Duration.ofSeconds(30))
+            send(false)
+        then:
+            limiter.cooldown == Duration.ofSeconds(45)
+            limiter.tryAcquire() == Duration.ofSeconds(15)
+        when: 'it happens again, the estimate is capped'
+            clock.advance(Duration.ofSeconds(15))
+            send(false)
+        then:
+            limiter.cooldown == Duration.ofSeconds(60)
+    }
+
+    def "once the budget is known, only that many requests are let through per window"() {
+        given:
+            2.times { send(true) }
+            send(false)
+            clock.advance(Duration.ofSeconds(30))
+        when:
+            def permits = (1..5).collect { limiter.tryAcquire().isZero() }
+        then:
+            permits == [true, true, false, false, false]
+    }
+
+    def "a lowered budget climbs back one per clean window"() {
+        given: 'the budget is learned as 3'
+            3.times { send(true) }
+            send(false)
+            clock.advance(Duration.ofSeconds(30))
+        and: 'someone else eats into the budget so only one request gets through'
+            send(true)
+            send(false)
+        expect:
+            limiter.budget == 1
+        when: 'a window passes without a 429'
+            clock.advance(Duration.ofSeconds(30))
+            send(true)
+            clock.advance(Duration.ofSeconds(30))
+            limiter.tryAcquire()
+        then:
+            limiter.budget == 2
+    }
+
+    private void send(boolean accepted) {
+        assert limiter.tryAcquire().isZero()
+        accepted ? limiter.onSuccess() : limiter.onRateLimited()
+    }
+
+    static class MutableClock extends Clock {
+        Instant now = Instant.parse("2024-01-01T00:00:00Z")
+
+        void advance(Duration duration) {
+            now = now.plus(duration)
+        }
+
+        @Override
+        ZoneId getZone() {
+            ZoneOffset.UTC
+        }
+
+        @Override
+        Clock withZone(ZoneId zone) {
+            this
+        }
+
+        @Override
+        Instant instant() {
+            now
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.reliaquest.api.service
+
+import com.reliaquest.api.config.BackendServiceConfig
+import com.reliaquest.api.service.BackendRequestScheduler.Lane
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import spock.lang.Specification
+
+import java.time.Clock
+import java.time.Duration
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class BackendRequestSchedulerSpec extends Specification {
+    // long enough that the first window doesn't reopen while a spec is still queueing its requests
+    def limiter = new BackendRateLimiter(new BackendServiceConfig.RateLimit(
+            initialCooldown: Duration.ofSeconds(1),
+            maxCooldown: Duration.ofSeconds(2)), Clock.systemUTC())
+    def scheduler = new BackendRequestScheduler(limiter, new BackendServiceConfig.Scheduler(maxQueueDepth: 2),
+            Clock.systemUTC(), new SimpleMeterRegistry())
+
+    def setup() {
+        // teach the limiter a budget of one request per window, and use it up
+        assert limiter.tryAcquire().isZero()
+        limiter.onSuccess()
+        assert limiter.tryAcquire().isZero()
+        limiter.onRateLimited()
+    }
+
+    def "queued writes are served before reads that were queued earlier"() {
+        given:
+            def served = new CopyOnWriteArrayList<String>()
+            def done = new CountDownLatch(3)
+            def admit = { Lane lane, String name ->
+                scheduler.admit(lane, Duration.ofSeconds(10)).subscribe(null, null, {
+                    served << name
+                    limiter.onSuccess()
+                    done.countDown()
+                })
+            }
+        when:
+            admit(Lane.READ, "read1")
+            admit(Lane.READ, "read2")
+            admit(Lane.WRITE, "write")
+        then:
+            done.await(10, TimeUnit.SECONDS)
+            served == ["write", "read1", "read2"]
+    }
+
+    def "requests that won't wait for the next window are shed"() {
+        when:
+            scheduler.admit(Lane.WRITE, Duration.ZERO).block()
+        then:
+            thrown(TooManyRequestsException)
+    }
+
+    def "requests are shed once their lane is full"() {
+        given:
+            2.times { scheduler.admit(Lane.READ, Duration.ofSeconds(5)).subscribe() }
+        when:
+            scheduler.admit(Lane.READ, Duration.ofSeconds(5)).block()
+        then:
+            thrown(TooManyRequestsException)
+        when: 'the other lane still has room'
+            scheduler.admit(Lane.WRITE, Duration.ofSeconds(5)).subscribe()
+        then:
+            noExceptionThrown()
+    }
+}
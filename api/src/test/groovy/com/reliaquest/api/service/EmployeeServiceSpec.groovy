@@ -1,11 +1,13 @@
 package com.reliaquest.api.service
 
-import com.reliaquest.api.model.BackendDeleteEmployeeResponseDto
+import com.reliaquest.api.cache.EmployeeSnapshot
 import com.reliaquest.api.model.BackendEmployeeResponseDto
 import com.reliaquest.api.model.EmployeeResponseConverter
 import com.reliaquest.api.model.NewEmployeeRequest
 import spock.lang.Specification
 
+import java.time.Instant
+
 /**
  * This tests the majority of the service operations except for the retry logic. That is tested in the
  * EmployeeControllerIntegrationSpec. The "back end" is mocked, so we don't have to worry about rate limiting or other
@@ -30,7 +32,7 @@ class EmployeeServiceSpec extends Specification {
                         .email(it.email)
                         .build()
             }
-            backendEmployeeService.getAllEmployees() >> response
+            backendEmployeeService.getEmployeeSnapshot() >> snapshotOf(response)
         when:
             def allEmployees = employeeService.getAllEmployees()
         then:
@@ -60,7 +62,7 @@ class EmployeeServiceSpec extends Specification {
 
     def "GetAllEmployees throws exceptions from backend"() {
         given:
-            backendEmployeeService.getAllEmployees() >> { throw exception.newInstance("test") }
+            backendEmployeeService.getEmployeeSnapshot() >> { throw exception.newInstance("test") }
         when:
             employeeService.getAllEmployees()
         then:
@@ -130,13 +132,12 @@ class EmployeeServiceSpec extends Specification {
             id = UUID.randomUUID().toString()
     }
 
-    def "DeleteEmployee property converts ID to name"() {
-        given:
-            backendEmployeeService.findEmployeeById(employee.id) >> Optional.of(employee)
+    def "DeleteEmployee deletes by ID without looking the employee up first"() {
         when:
             def deleted = employeeService.deleteEmployeeById(employee.id)
         then:
-            1 * backendEmployeeService.deleteEmployee(employee.name) >> Optional.of(BackendDeleteEmployeeResponseDto.builder().data(true).build())
+            1 * backendEmployeeService.deleteEmployeeById(employee.id) >> Optional.of(employee)
+            0 * backendEmployeeService.findEmployeeById(_)
             deleted.name == employee.name
         where:
             employee = BackendEmployeeResponseDto.builder()
@@ -152,11 +153,10 @@ class EmployeeServiceSpec extends Specification {
 
     def "Failed DeleteEmployee returns null"() {
         given:
-            backendEmployeeService.findEmployeeById(employee.id) >> Optional.of(employee)
+            backendEmployeeService.deleteEmployeeById(employee.id) >> Optional.empty()
         when:
             def deleted = employeeService.deleteEmployeeById(employee.id)
         then:
-            1 * backendEmployeeService.deleteEmployee(employee.name) >> Optional.of(BackendDeleteEmployeeResponseDto.builder().data(false).build())
             deleted == null
         where:
             employee = BackendEmployeeResponseDto.builder()
@@ -171,14 +171,13 @@ class EmployeeServiceSpec extends Specification {
     }
 
 
-    def "DeleteEmployee on missing employee returns null"() {
+    def "DeleteEmployee on missing employee throws NotFoundException"() {
         given:
-            backendEmployeeService.findEmployeeById(employee.id) >> Optional.empty()
+            backendEmployeeService.deleteEmployeeById(employee.id) >> { throw new NotFoundException("Employee not found.") }
         when:
-            def deleted = employeeService.deleteEmployeeById(employee.id)
+            employeeService.deleteEmployeeById(employee.id)
         then:
-            0 * backendEmployeeService.deleteEmployee(employee.name)
-            deleted == null
+            thrown(NotFoundException)
         where:
             employee = BackendEmployeeResponseDto.builder()
                     .id(UUID.randomUUID().toString())
@@ -192,6 +191,21 @@ class EmployeeServiceSpec extends Specification {
     }
 
 
+    def "batch delete passes the ids straight to the backend and returns the employees it deleted"() {
+        given:
+            def employees = [3, 1].collect {
+                BackendEmployeeResponseDto.builder().id("$it").name("name$it").salary(it).build()
+            }
+        when:
+            def deleted = employeeService.deleteEmployeesById(["3", "5", "1"])
+        then:
+            1 * backendEmployeeService.deleteEmployeesById(["3", "5", "1"]) >> Optional.of(employees)
+            0 * backendEmployeeService.getEmployeeSnapshot()
+            0 * backendEmployeeService.findEmployeeById(_)
+            deleted*.id == ["3", "1"]
+            deleted*.name == ["name3", "name1"]
+    }
+
     def "finding employee by name properly does case insensitive search"() {
         given:
             def employee = BackendEmployeeResponseDto.builder()
@@ -202,7 +216,7 @@ class EmployeeServiceSpec extends Specification {
                     .salary(1)
                     .email('email')
                     .build()
-            backendEmployeeService.getAllEmployees() >> [employee]
+            backendEmployeeService.getEmployeeSnapshot() >> snapshotOf([employee])
         when:
             def employees = employeeService.getEmployeesMatchingName('name')
         then:
@@ -215,7 +229,7 @@ class EmployeeServiceSpec extends Specification {
 
     def "finding employee by name properly matches substrings"() {
         given:
-            backendEmployeeService.getAllEmployees() >> names.collect {
+            backendEmployeeService.getEmployeeSnapshot() >> snapshotOf(names.collect {
                 BackendEmployeeResponseDto.builder()
                         .id(UUID.randomUUID().toString())
                         .name(it)
@@ -224,7 +238,7 @@ class EmployeeServiceSpec extends Specification {
                         .title('employee')
                         .email("${it}@company.com")
                         .build()
-            }
+            })
         when:
             def employees = employeeService.getEmployeesMatchingName('on')
         then:
@@ -241,7 +255,7 @@ class EmployeeServiceSpec extends Specification {
 
     def "top salary is returned correctly"() {
         given:
-            backendEmployeeService.getAllEmployees() >> salaries.collect {
+            backendEmployeeService.getEmployeeSnapshot() >> snapshotOf(salaries.collect {
                 BackendEmployeeResponseDto.builder()
                         .id(UUID.randomUUID().toString())
                         .name("name")
@@ -250,7 +264,7 @@ class EmployeeServiceSpec extends Specification {
                         .title('employee')
                         .email("email@company.com")
                         .build()
-            }
+            })
         when:
             def topSalary = employeeService.getTopPaidEmployees(1)
         then:
@@ -262,7 +276,7 @@ class EmployeeServiceSpec extends Specification {
 
     def "top 10 salaries are returned correctly"() {
         given:
-            backendEmployeeService.getAllEmployees() >> salaries.collect {
+            backendEmployeeService.getEmployeeSnapshot() >> snapshotOf(salaries.collect {
                 BackendEmployeeResponseDto.builder()
                         .id(UUID.randomUUID().toString())
                         .name("name")
@@ -271,7 +285,7 @@ class EmployeeServiceSpec extends Specification {
                         .title('employee')
                         .email("email@company.com")
                         .build()
-            }
+            })
         when:
             def topSalary = employeeService.getTopPaidEmployees(10)
         then:
@@ -280,4 +294,53 @@ class EmployeeServiceSpec extends Specification {
         where:
             salaries = [100, 200, 300, 400, 500, 600, 700, 800, 900, 1000, 1100, 1200, 1300, 1400, 1500, 1600, 1700, 1800, 1900, 2000]
     }
+
+    def "top salaries can include ties at the cutoff"() {
+        given:
+            backendEmployeeService.getEmployeeSnapshot() >> snapshotOf([300, 200, 100, 200].withIndex().collect { salary, i ->
+                BackendEmployeeResponseDto.builder()
+                        .id(UUID.randomUUID().toString())
+                        .name("name$i")
+                        .salary(salary)
+                        .age(50)
+                        .title('employee')
+                        .email("email@company.com")
+                        .build()
+            })
+        expect:
+            employeeService.getTopPaidEmployees(2)*.name == ["name0", "name1"]
+            employeeService.getTopPaidEmployees(2, true)*.name == ["name0", "name1", "name3"]
+    }
+
+    def "highest salary and top ten names come from the snapshot's aggregates"() {
+        given:
+            backendEmployeeService.getEmployeeSnapshot() >> snapshotOf((1..15).collect {
+                BackendEmployeeResponseDto.builder()
+                        .id(UUID.randomUUID().toString())
+                        .name("name$it")
+                        .salary(it * 100)
+                        .age(50)
+                        .title('employee')
+                        .email("email@company.com")
+                        .build()
+            })
+        expect:
+            employeeService.getHighestSalary() == 1500
+            employeeService.getTopTenHighestEarningEmployeeNames() == (15..6).collect { "name$it".toString() }
+    }
+
+    def "highest salary of an empty roster is not found"() {
+        given:
+            backendEmployeeService.getEmployeeSnapshot() >> EmployeeSnapshot.empty()
+        when:
+            employeeService.getHighestSalary()
+        then:
+            thrown(NotFoundException)
+        and:
+            employeeService.getTopTenHighestEarningEmployeeNames() == []
+    }
+
+    private static EmployeeSnapshot snapshotOf(List<BackendEmployeeResponseDto> employees) {
+        EmployeeSnapshot.of(1, Instant.now(), employees)
+    }
 }
@@ -0,0 +1,57 @@
+package com.reliaquest.api.service
+
+import com.reliaquest.api.cache.EmployeeSnapshot
+import com.reliaquest.api.model.BackendEmployeeResponseDto
+import com.reliaquest.api.model.EmployeeResponseConverter
+import reactor.core.publisher.Mono
+import spock.lang.Specification
+
+import java.time.Instant
+
+/**
+ * The reactive service shares its logic with EmployeeService, so this only checks that the Mono plumbing behaves the
+ * same way -- in particular that "nothing to return" ends up as an empty Mono rather than an error.
+ */
+class ReactiveEmployeeServiceSpec extends Specification {
+    def backendEmployeeService = Mock(BackendEmployeeService)
+    def employeeService = new ReactiveEmployeeService(backendEmployeeService, new EmployeeResponseConverter())
+
+    def "name search and top paid work from the snapshot"() {
+        given:
+            backendEmployeeService.getEmployeeSnapshotReactive() >> Mono.just(EmployeeSnapshot.of(1, Instant.now(), [
+                    employee("1", "Frank Jones", 100),
+                    employee("2", "Bill One", 300),
+                    employee("3", "No match here", 200)
+            ]))
+        expect:
+            employeeService.getEmployeesMatchingName("ON").block()*.id == ["1", "2"]
+            employeeService.getTopPaidEmployees(2).block()*.id == ["2", "3"]
+    }
+
+    def "deleting an employee deletes by id"() {
+        when:
+            def deleted = employeeService.deleteEmployeeById("1").block()
+        then:
+            1 * backendEmployeeService.deleteEmployeeByIdReactive("1") >> Mono.just(employee("1", "Frank", 100))
+            0 * backendEmployeeService.findEmployeeByIdReactive(_)
+            deleted.name == "Frank"
+    }
+
+    def "failed delete completes empty"() {
+        given:
+            backendEmployeeService.deleteEmployeeByIdReactive("1") >> Mono.empty()
+        expect:
+            employeeService.deleteEmployeeById("1").blockOptional().isEmpty()
+    }
+
+    private static BackendEmployeeResponseDto employee(String id, String name, int salary) {
+        BackendEmployeeResponseDto.builder()
+                .id(id)
+                .name(name)
+                .salary(salary)
+                .age(30)
+                .title("title")
+                .email("email")
+                .build()
+    }
+}
@@ -0,0 +1,68 @@
+package com.reliaquest.api.service
+
+import org.springframework.core.codec.DecodingException
+import org.springframework.core.io.buffer.DefaultDataBufferFactory
+import reactor.core.publisher.Flux
+import spock.lang.Specification
+
+class RosterStreamDecoderSpec extends Specification {
+    def decoder = new RosterStreamDecoder()
+
+    def "employees are decoded from the data array however the body is chunked"() {
+        given:
+            def body = StubBackend.roster(20)
+        when:
+            def employees = decoder.decode(chunked(body, chunkSize)).collectList().block()
+        then:
+            employees*.id == (1..20).collect { "id$it" }
+            employees[4].name == "name5"
+            employees[4].salary == 5000
+            employees[4].email == "name5@company.com"
+        where:
+            chunkSize << [1, 7, 64, Integer.MAX_VALUE]
+    }
+
+    def "everything outside the data array is skipped, including look-alikes"() {
+        given:
+            def body = '{"status":{"data":[{"id":"nested"}]},"data":[' + StubBackend.row(1) + ',null,' +
+                    '{"id":"id2","employee_name":"name2","unknown":{"data":[{"id":"deeper"}]}}],' +
+                    '"error":[{"id":"after"}]}'
+        when:
+            def employees = decoder.decode(chunked(body, 5)).collectList().block()
+        then:
+            employees*.id == ["id1", "id2"]
+    }
+
+    def "a roster without data decodes to no employees"() {
+        expect:
+            decoder.decode(chunked(body, 3)).collectList().block() == []
+        where:
+            body << ['{"status":"Successfully processed request."}', '{"data":null}', '{"data":[]}']
+    }
+
+    def "a body cut short is an error rather than a partial roster"() {
+        given:
+            def body = StubBackend.roster(3)
+        when:
+            decoder.decode(chunked(body.substring(0, body.length() - 20), 16)).collectList().block()
+        then:
+            thrown(DecodingException)
+    }
+
+    def "malformed JSON is a decoding error"() {
+        when:
+            decoder.decode(chunked('{"data":[{"id":}]}', 4)).collectList().block()
+        then:
+            thrown(DecodingException)
+    }
+
+    static Flux chunked(String body, int chunkSize) {
+        def bytes = body.getBytes("UTF-8")
+        def factory = DefaultDataBufferFactory.sharedInstance
+        Flux.range(0, (int) Math.ceil(bytes.length / Math.min(chunkSize, bytes.length)))
+                .map { int i ->
+                    int from = i * Math.min(chunkSize, bytes.length)
+                    factory.wrap(Arrays.copyOfRange(bytes, from, Math.min(from + chunkSize, bytes.length)))
+                }
+    }
+}
@@ -0,0 +1,64 @@
+package com.reliaquest.api.service
+
+import com.sun.net.httpserver.HttpExchange
+import com.sun.net.httpserver.HttpServer
+
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * A tiny stand-in for the mock employee server so that BackendEmployeeService can be exercised without starting the
+ * server module. Each request is handed to the supplied handler, which returns the status code and JSON body to send
+ * back, and optionally a content type other than JSON. The number of requests received is tracked so specs can assert on how often the backend was actually hit.
+ */
+class StubBackend implements Closeable {
+    final AtomicInteger requestCount = new AtomicInteger()
+    private final HttpServer server
+    private final ExecutorService executor = Executors.newCachedThreadPool()
+
+    StubBackend(Closure<List> handler) {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 4096)
+        server.executor = executor
+        server.createContext("/api/v1/employee") { HttpExchange exchange ->
+            requestCount.incrementAndGet()
+            def response = handler.call(exchange)
+            int status = response[0]
+            def bytes = (response[1] as String ?: "").bytes
+            exchange.responseHeaders.add("Content-Type", response.size() > 2 ? response[2] as String : "application/json")
+            exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length)
+            if (bytes.length > 0) {
+                exchange.responseBody.withCloseable { it.write(bytes) }
+            }
+            exchange.close()
+        }
+        server.start()
+    }
+
+    String getUrl() {
+        "http://localhost:${server.address.port}/api/v1/employee"
+    }
+
+    static String roster(int size) {
+        page((1..size).collect { row(it) })
+    }
+
+    static String page(List<String> rows) {
+        """{"data":[${rows.join(',')}],"status":"Successfully processed request."}"""
+    }
+
+    static String ndjson(int size) {
+        (1..size).collect { row(it) + "\n" }.join()
+    }
+
+    static String row(int it) {
+        """{"id":"id$it","employee_name":"name$it","employee_salary":${it * 1000},"employee_age":30,""" +
+                """"employee_title":"title","employee_email":"name$it@company.com"}"""
+    }
+
+    @Override
+    void close() {
+        server.stop(0)
+        executor.shutdownNow()
+    }
+}
@@ -0,0 +1,86 @@
+package com.reliaquest.api.service
+
+import com.reliaquest.api.config.BackendServiceConfig
+import com.reliaquest.api.model.NewEmployeeRequest
+import groovy.util.logging.Slf4j
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.springframework.web.reactive.function.client.WebClient
+import spock.lang.AutoCleanup
+import spock.lang.Requires
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * A load test comparing how many slow (i.e. rate-limited and backing off) backend calls a single api instance can
+ * hold open at once on a platform thread pool the size of Tomcat's default (200 threads) versus on virtual threads.
+ * Every backend call takes {@code BACKEND_LATENCY} to answer, which stands in for a request sitting in the retry
+ * backoff. The calls are creates, which are never coalesced or answered from the cached roster, so every one of them
+ * really waits on the backend.
+ * <p>
+ * It is too slow to run as part of the regular build, and virtual threads need JDK 21 while the build targets 17, so
+ * it is skipped by the regular {@code test} task. {@code ./gradlew :api:virtualThreadLoadTest} runs it on a JDK 21
+ * launcher.
+ */
+@Slf4j
+@Requires({ env.LOAD_TEST && Runtime.version().feature() >= 21 })
+class VirtualThreadLoadSpec extends Specification {
+    static final int CONCURRENT_REQUESTS = 2000
+    static final int TOMCAT_DEFAULT_MAX_THREADS = 200
+    static final long BACKEND_LATENCY = 1000
+
+    final AtomicInteger inFlight = new AtomicInteger()
+    final AtomicInteger maxInFlight = new AtomicInteger()
+
+    @AutoCleanup
+    StubBackend backend = new StubBackend({
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), { a, b -> Math.max(a, b) })
+        try {
+            sleep(BACKEND_LATENCY)
+        } finally {
+            inFlight.decrementAndGet()
+        }
+        [200, '{"data":{"id":"id","employee_name":"name","employee_salary":1,"employee_age":30,' +
+                '"employee_title":"title","employee_email":"email"},"status":"Successfully processed request."}']
+    })
+
+    def "virtual threads hold far more concurrent backend calls than the platform thread pool"() {
+        given:
+            def config = new BackendServiceConfig(
+                    url: backend.url,
+                    maxRetries: 0,
+                    retryBackoff: Duration.ofMillis(10),
+                    maxBackoff: Duration.ofMillis(10),
+                    maxConnections: CONCURRENT_REQUESTS)
+            def service = new BackendEmployeeService(WebClient.builder(), config, new SimpleMeterRegistry())
+        when:
+            def platform = run(Executors.newFixedThreadPool(TOMCAT_DEFAULT_MAX_THREADS), service)
+            def virtual = run(Executors.newVirtualThreadPerTaskExecutor(), service)
+            log.info("{} creates with {}ms backend latency: platform threads ({}) took {}ms, max {} concurrent; " +
+                    "virtual threads took {}ms, max {} concurrent", CONCURRENT_REQUESTS, BACKEND_LATENCY,
+                    TOMCAT_DEFAULT_MAX_THREADS, platform.elapsed.toMillis(), platform.maxInFlight,
+                    virtual.elapsed.toMillis(), virtual.maxInFlight)
+        then:
+            platform.maxInFlight <= TOMCAT_DEFAULT_MAX_THREADS
+            // the stub backend accepts connections on a single thread, so not all 2000 are ever open at the same time
+            virtual.maxInFlight > TOMCAT_DEFAULT_MAX_THREADS * 2
+            virtual.elapsed < platform.elapsed.dividedBy(2)
+    }
+
+    private Map run(ExecutorService executor, BackendEmployeeService service) {
+        maxInFlight.set(0)
+        def start = System.nanoTime()
+        executor.withCloseable {
+            def futures = (1..CONCURRENT_REQUESTS).collect { i ->
+                executor.submit({
+                    service.createEmployee(new NewEmployeeRequest(name: "name$i", salary: 1, age: 30, title: "title"))
+                } as java.util.concurrent.Callable)
+            }
+            futures*.get()
+        }
+        [elapsed: Duration.ofNanos(System.nanoTime() - start), maxInFlight: maxInFlight.get()]
+    }
+}
@@ -0,0 +1,137 @@
+package com.reliaquest.server.service;
+
+import com.reliaquest.server.model.MockEmployee;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Stress test for {@link MockEmployeeStore}: 64 threads hammer one store with a mix of id lookups, full listings,
+ * creates and deletes, the way Tomcat's worker threads do under a load test. JMH reports the throughput of each
+ * operation; after every iteration the store is checked for consistency, and the run fails if anything is off:
+ *
+ * <ul>
+ *   <li>no employee was lost or duplicated: the size equals the initial size plus successful creates minus
+ *       successful deletes,
+ *   <li>a listing has no duplicate ids and agrees with {@link MockEmployeeStore#size()},
+ *   <li>every listed employee can be found by id,
+ *   <li>the store's own indexes agree with each other ({@link MockEmployeeStore#checkConsistency()}).
+ * </ul>
+ *
+ * <p>{@code MockEmployeeStoreTest} checks the same under a smaller load as part of the regular build.
+ *
+ * <p>Run with {@code ./gradlew :server:jmh -PjmhIncludes=MockEmployeeStoreBenchmark}.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MockEmployeeStoreBenchmark {
+
+    private static final int DISTINCT_NAMES = 1_000;
+
+    @Param({"10000", "100000"})
+    int initialSize;
+
+    private MockEmployeeStore store;
+    private List<UUID> initialIds;
+    private final LongAdder created = new LongAdder();
+    private final LongAdder deleted = new LongAdder();
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        final var employees = new ArrayList<MockEmployee>(initialSize);
+        for (int i = 0; i < initialSize; i++) {
+            employees.add(employee(i % DISTINCT_NAMES));
+        }
+        store = new MockEmployeeStore(employees);
+        initialIds = employees.stream().map(MockEmployee::getId).toList();
+        created.reset();
+        deleted.reset();
+    }
+
+    @TearDown(Level.Iteration)
+    public void checkConsistency() {
+        final long expectedSize = initialSize + created.sum() - deleted.sum();
+        if (store.size() != expectedSize) {
+            throw new IllegalStateException(
+                    "Expected " + expectedSize + " employees but the store has " + store.size());
+        }
+        final var listed = store.findAll();
+        if (listed.size() != store.size()) {
+            throw new IllegalStateException(
+                    "Listing has " + listed.size() + " employees but the store has " + store.size());
+        }
+        final var ids = new HashSet<UUID>();
+        for (MockEmployee employee : listed) {
+            if (!ids.add(employee.getId())) {
+                throw new IllegalStateException("Employee " + employee.getId() + " is listed twice");
+            }
+            if (store.findById(employee.getId()).orElse(null) != employee) {
+                throw new IllegalStateException("Employee " + employee.getId() + " is listed but not found by id");
+            }
+        }
+        store.checkConsistency();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(40)
+    public Object findById() {
+        return store.findById(initialIds.get(ThreadLocalRandom.current().nextInt(initialIds.size())));
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(8)
+    public int findAll() {
+        return store.findAll().size();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(8)
+    public void create() {
+        store.add(employee(ThreadLocalRandom.current().nextInt(DISTINCT_NAMES)));
+        created.increment();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(8)
+    public boolean delete() {
+        final var removed = store.removeFirstByName(
+                        "EMPLOYEE " + ThreadLocalRandom.current().nextInt(DISTINCT_NAMES))
+                .isPresent();
+        if (removed) {
+            deleted.increment();
+        }
+        return removed;
+    }
+
+    private static MockEmployee employee(int nameIndex) {
+        return MockEmployee.builder()
+                .id(UUID.randomUUID())
+                .name("Employee " + nameIndex)
+                .salary(ThreadLocalRandom.current().nextInt(30_000, 500_000))
+                .age(ThreadLocalRandom.current().nextInt(16, 70))
+                .title("Engineer")
+                .email("employee" + nameIndex + "@company.com")
+                .build();
+    }
+}
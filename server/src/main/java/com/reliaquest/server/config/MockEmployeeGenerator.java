@@ -0,0 +1,164 @@
+package com.reliaquest.server.config;
+
+import com.reliaquest.server.model.MockEmployee;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import net.datafaker.Faker;
+
+/**
+ * Generates the initial mock employees in parallel and reproducibly.
+ *
+ * <p>The rows are split into fixed-size chunks that are filled in parallel on a dedicated pool. Each worker thread
+ * has its own Faker (Faker isn't thread-safe), and its random source is re-seeded from the run's seed and the chunk
+ * number at the start of every chunk. So the same seed always produces the same employees, no matter how many threads
+ * did the work or in which order the chunks ran. Ids are drawn from the same seeded source, so they are reproducible
+ * too.
+ *
+ * <p>In pooled mode, Faker is only used up front to build small pools of names, titles and user names. The rows are
+ * then assembled by picking from those pools with plain {@code int} draws from a {@link SplittableRandom}, which
+ * skips Faker's expression evaluation per row and is what makes a million employees start in seconds. The trade-off
+ * is that names repeat more often.
+ */
+@Slf4j
+public class MockEmployeeGenerator {
+
+    static final int CHUNK_SIZE = 4_096;
+    private static final int POOL_SIZE = 4_096;
+    private static final int MAX_LOGGED_EMPLOYEES = 1_000;
+
+    private final Locale locale;
+    private final long seed;
+    private final int parallelism;
+    private final boolean pooled;
+
+    public MockEmployeeGenerator(Locale locale, long seed, int parallelism, boolean pooled) {
+        this.locale = locale;
+        this.seed = seed;
+        this.parallelism = Math.max(parallelism, 1);
+        this.pooled = pooled;
+    }
+
+    /**
+     * @return {@code count} employees, in an array-backed list that is already the right size.
+     */
+    public List<MockEmployee> generate(int count) {
+        log.info(
+                "Generating {} employees [seed={}, parallelism={}, pooled={}]. Set mock.employees.seed to reproduce.",
+                count,
+                seed,
+                parallelism,
+                pooled);
+        final long start = System.nanoTime();
+        final var employees = new MockEmployee[Math.max(count, 0)];
+        final int chunks = (employees.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        final var pools = pooled ? Pools.build(new Faker(locale, new Random(seed))) : null;
+        final var fakers = ThreadLocal.withInitial(() -> SeededFaker.create(locale));
+        final var pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> IntStream.range(0, chunks)
+                            .parallel()
+                            .forEach(chunk -> fillChunk(employees, chunk, pools, fakers.get())))
+                    .join();
+        } finally {
+            pool.shutdown();
+        }
+        logEmployees(employees);
+        log.info("Generated {} employees in {} ms.", employees.length, (System.nanoTime() - start) / 1_000_000);
+        return Arrays.asList(employees);
+    }
+
+    private void fillChunk(MockEmployee[] employees, int chunk, Pools pools, SeededFaker seededFaker) {
+        final int from = chunk * CHUNK_SIZE;
+        final int to = Math.min(from + CHUNK_SIZE, employees.length);
+        final long chunkSeed = new SplittableRandom(seed + chunk).nextLong();
+        if (pools != null) {
+            final var random = new SplittableRandom(chunkSeed);
+            for (int i = from; i < to; i++) {
+                employees[i] = MockEmployee.builder()
+                        .id(randomUuid(random))
+                        .name(pools.names[random.nextInt(pools.names.length)])
+                        .salary(random.nextInt(30000, 500000))
+                        .age(random.nextInt(16, 70))
+                        .title(pools.titles[random.nextInt(pools.titles.length)])
+                        .email(pools.emails[random.nextInt(pools.emails.length)])
+                        .build();
+            }
+        } else {
+            final var random = seededFaker.random();
+            final var faker = seededFaker.faker();
+            random.setSeed(chunkSeed);
+            for (int i = from; i < to; i++) {
+                employees[i] = MockEmployee.builder()
+                        .id(randomUuid(random))
+                        .name(faker.name().fullName())
+                        .salary(faker.number().numberBetween(30000, 500000))
+                        .age(faker.number().numberBetween(16, 70))
+                        .title(faker.job().title())
+                        .email(email(faker))
+                        .build();
+            }
+        }
+    }
+
+    /**
+     * Logging every row is what the server has always done, but at a million rows the logging alone takes longer than
+     * the generation, so only the first ones are logged.
+     */
+    private static void logEmployees(MockEmployee[] employees) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
+        final int logged = Math.min(employees.length, MAX_LOGGED_EMPLOYEES);
+        for (int i = 0; i < logged; i++) {
+            log.debug("Created employee: {}", employees[i]);
+        }
+        if (employees.length > logged) {
+            log.debug("... and {} more employees.", employees.length - logged);
+        }
+    }
+
+    /**
+     * A version 4 (random) UUID, but drawn from the given, seeded source instead of a SecureRandom.
+     */
+    static UUID randomUuid(RandomGenerator random) {
+        final long mostSigBits = (random.nextLong() & ~0xF000L) | 0x4000L;
+        final long leastSigBits = (random.nextLong() & ~0xC000000000000000L) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    private static String email(Faker faker) {
+        return ServerConfiguration.EMAIL_TEMPLATE.formatted(
+                faker.twitter().userName().toLowerCase());
+    }
+
+    private record SeededFaker(Random random, Faker faker) {
+
+        static SeededFaker create(Locale locale) {
+            final var random = new Random();
+            return new SeededFaker(random, new Faker(locale, random));
+        }
+    }
+
+    private record Pools(String[] names, String[] titles, String[] emails) {
+
+        static Pools build(Faker faker) {
+            final var names = new String[POOL_SIZE];
+            final var titles = new String[POOL_SIZE];
+            final var emails = new String[POOL_SIZE];
+            for (int i = 0; i < POOL_SIZE; i++) {
+                names[i] = faker.name().fullName();
+                titles[i] = faker.job().title();
+                emails[i] = email(faker);
+            }
+            return new Pools(names, titles, emails);
+        }
+    }
+}
@@ -1,19 +1,16 @@
 package com.reliaquest.server.config;
 
-import com.reliaquest.server.model.MockEmployee;
+import com.reliaquest.server.service.MockEmployeePersistence;
+import com.reliaquest.server.service.MockEmployeeStore;
 import com.reliaquest.server.web.RandomRequestLimitInterceptor;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.file.Path;
 import java.util.Locale;
-import java.util.UUID;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.random.RandomGenerator;
 import lombok.extern.slf4j.Slf4j;
 import net.datafaker.Faker;
-import net.datafaker.transformations.Field;
-import net.datafaker.transformations.JavaObjectTransformer;
-import net.datafaker.transformations.Schema;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
@@ -30,26 +27,40 @@ public class ServerConfiguration implements WebMvcConfigurer {
         return new Faker(Locale.getDefault());
     }
 
+    @Bean
+    @ConditionalOnProperty(name = "mock.employees.persistence.enabled", havingValue = "true")
+    public MockEmployeePersistence mockEmployeePersistence(
+            @Value("${mock.employees.persistence.directory:data}") String directory,
+            @Value("${mock.employees.persistence.sync:false}") boolean sync) {
+        return new MockEmployeePersistence(Path.of(directory), sync);
+    }
+
     /*
-     * This list is modifiable by design for CRUD operations.
+     * The store is modifiable by design for CRUD operations. With persistence enabled, the employees are loaded from
+     * disk if they have been saved before, and only generated (and then saved) on the very first start.
      */
     @Bean
-    public List<MockEmployee> mockEmployees(Faker faker, @Value("${mock.employees.max:20}") int maxEmployees) {
-        final var transformer = new JavaObjectTransformer();
-        final var schema = Schema.of(
-                Field.field("id", UUID::randomUUID),
-                Field.field("name", () -> faker.name().fullName()),
-                Field.field("salary", () -> faker.number().numberBetween(30000, 500000)),
-                Field.field("age", () -> faker.number().numberBetween(16, 70)),
-                Field.field("title", () -> faker.job().title()),
-                Field.field(
-                        "email",
-                        () -> EMAIL_TEMPLATE.formatted(
-                                faker.twitter().userName().toLowerCase())));
-        return IntStream.rangeClosed(1, maxEmployees)
-                .mapToObj(ignored -> (MockEmployee) transformer.apply(MockEmployee.class, schema))
-                .peek(mockEmployee -> log.debug("Created employee: {}", mockEmployee))
-                .collect(Collectors.toCollection(ArrayList::new));
+    public MockEmployeeStore mockEmployeeStore(
+            ObjectProvider<MockEmployeePersistence> persistence,
+            @Value("${mock.employees.max:20}") int maxEmployees,
+            @Value("${mock.employees.seed:#{null}}") Long seed,
+            @Value("${mock.employees.parallelism:0}") int parallelism,
+            @Value("${mock.employees.pooled:false}") boolean pooled) {
+        final var generator = new MockEmployeeGenerator(
+                Locale.getDefault(),
+                seed != null ? seed : RandomGenerator.getDefault().nextLong(),
+                parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+                pooled);
+        final var saved = persistence.getIfAvailable();
+        if (saved == null) {
+            return new MockEmployeeStore(generator.generate(maxEmployees));
+        }
+        final var employees = saved.load().orElseGet(() -> {
+            final var generated = generator.generate(maxEmployees);
+            saved.writeSnapshot(generated);
+            return generated;
+        });
+        return new MockEmployeeStore(employees, saved);
     }
 
     @Override
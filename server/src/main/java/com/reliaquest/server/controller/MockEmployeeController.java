@@ -1,38 +1,165 @@
 package com.reliaquest.server.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.reliaquest.server.model.CreateMockEmployeeInput;
+import com.reliaquest.server.model.CreateMockEmployeesInput;
 import com.reliaquest.server.model.DeleteMockEmployeeInput;
+import com.reliaquest.server.model.DeleteMockEmployeesInput;
 import com.reliaquest.server.model.MockEmployee;
+import com.reliaquest.server.model.MockEmployeeChangeFeed;
 import com.reliaquest.server.model.Response;
 import com.reliaquest.server.service.MockEmployeeService;
+import com.reliaquest.server.web.MockEmployeeChangeStreams;
 import jakarta.validation.Valid;
 import java.util.List;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/v1/employee")
 @RequiredArgsConstructor
 public class MockEmployeeController {
 
+    static final int MAX_PAGE_SIZE = 10_000;
+    static final String EPOCH_HEADER = "X-Employee-Epoch";
+    static final String VERSION_HEADER = "X-Employee-Version";
+    static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+    private static final int DEFAULT_PAGE_SIZE = 1_000;
+
     private final MockEmployeeService mockEmployeeService;
 
+    private final MockEmployeeChangeStreams mockEmployeeChangeStreams;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * The GET endpoints support conditional requests. The ETag of the list (whole, paged or streamed) changes with
+     * every create and delete; the ETag of a single employee only when that employee is replaced. A request with a
+     * matching If-None-Match gets an empty 304, without the employees being looked up or serialized at all.
+     *
+     * <p>The list responses also carry the version they are (at least) up to date with, in the {@value EPOCH_HEADER}
+     * and {@value VERSION_HEADER} headers, which is what to pass to {@link #getChanges} to catch up from later.
+     *
+     * <p>Without parameters, returns every employee in one body. With {@code limit} and/or {@code after}, returns one
+     * page: up to {@code limit} employees following the one with id {@code after}. A page shorter than {@code limit}
+     * is the last one. An {@code after} id the server doesn't know (any more) is a 404.
+     */
     @GetMapping()
-    public Response<List<MockEmployee>> getEmployees() {
-        return Response.handledWith(mockEmployeeService.getMockEmployees());
+    public ResponseEntity<Response<List<MockEmployee>>> getEmployees(
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "after", required = false) UUID after,
+            WebRequest request) {
+        final int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest()
+                    .body(Response.error("limit must be between 1 and " + MAX_PAGE_SIZE + "."));
+        }
+        final long version = mockEmployeeService.getVersion();
+        if (request.checkNotModified(entityTag(version))) {
+            return null;
+        }
+        if (limit == null && after == null) {
+            return ResponseEntity.ok()
+                    .headers(versionHeaders(version))
+                    .body(Response.handledWith(mockEmployeeService.getMockEmployees()));
+        }
+        return mockEmployeeService
+                .getMockEmployeePage(after, pageSize)
+                .map(page ->
+                        ResponseEntity.ok().headers(versionHeaders(version)).body(Response.handledWith(page)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(Response.error("Unknown cursor.")));
+    }
+
+    /**
+     * Every employee as newline-delimited JSON, one employee per line, written as it is serialized rather than built
+     * up as one body first.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamEmployees(WebRequest request) {
+        final long version = mockEmployeeService.getVersion();
+        if (request.checkNotModified(entityTag(version))) {
+            return null;
+        }
+        final var employees = mockEmployeeService.getMockEmployees();
+        // Leave flushing to the generator's buffer rather than flushing the response after every employee.
+        final var writer =
+                objectMapper.writerFor(MockEmployee.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return ResponseEntity.ok()
+                .headers(versionHeaders(version))
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(outputStream -> {
+                    try (var generator = objectMapper.createGenerator(outputStream)) {
+                        generator.setRootValueSeparator(null);
+                        for (MockEmployee employee : employees) {
+                            writer.writeValue(generator, employee);
+                            generator.writeRaw('\n');
+                        }
+                    }
+                });
+    }
+
+    /**
+     * The creates and deletes after version {@code since}, for a client that has a copy of the list at that version
+     * (as told by the {@value VERSION_HEADER} header) and wants to catch up. If the changes can't be told -- the server
+     * restarted since, which a different {@code epoch} shows, or too much has changed to still be in the change log --
+     * the answer is a 410, and the client has to fetch the whole list again.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<Response<MockEmployeeChangeFeed>> getChanges(
+            @RequestParam("since") long since, @RequestParam(name = "epoch", required = false) String epoch) {
+        return mockEmployeeService
+                .getChangesSince(epoch, since)
+                .map(feed -> ResponseEntity.ok(Response.handledWith(feed)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.GONE)
+                        .body(Response.error("Changes since " + since + " are no longer available.")));
+    }
+
+    /**
+     * The same changes as {@link #getChanges}, followed by every change as it is made, as server-sent events: one
+     * {@code change} event per create or delete, with the version as the event id, and a comment as a heartbeat while
+     * nothing changes. A client that loses the stream resubscribes from the last version it got, either as
+     * {@code since} or, as an {@code EventSource} does when it reconnects, as the {@value LAST_EVENT_ID_HEADER} header,
+     * which takes precedence. Gets an empty 410 in the same cases {@link #getChanges} does, and a 503 if too many
+     * streams are open already.
+     */
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(
+            @RequestParam(name = "since", required = false) Long since,
+            @RequestParam(name = "epoch", required = false) String epoch,
+            @RequestHeader(name = LAST_EVENT_ID_HEADER, required = false) Long lastEventId) {
+        final var from = lastEventId != null ? lastEventId : since;
+        if (from == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return mockEmployeeChangeStreams
+                .open(epoch, from)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.GONE).build());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Response<MockEmployee>> getEmployee(@PathVariable("id") UUID uuid) {
+    public ResponseEntity<Response<MockEmployee>> getEmployee(@PathVariable("id") UUID uuid, WebRequest request) {
+        final var version = mockEmployeeService.getVersion(uuid);
+        if (version.isPresent() && request.checkNotModified(entityTag(version.getAsLong()))) {
+            return null;
+        }
         return mockEmployeeService
                 .findById(uuid)
                 .map(employee -> ResponseEntity.ok(Response.handledWith(employee)))
@@ -44,8 +171,60 @@ public class MockEmployeeController {
         return Response.handledWith(mockEmployeeService.create(input));
     }
 
+    /**
+     * Delete the first employee with the given name. Kept for existing clients; {@link #deleteEmployeeById} deletes
+     * exactly the employee meant even when names are shared.
+     */
     @DeleteMapping()
     public Response<Boolean> deleteEmployee(@Valid @RequestBody DeleteMockEmployeeInput input) {
         return Response.handledWith(mockEmployeeService.delete(input));
     }
+
+    /**
+     * Delete the employee with the given id.
+     *
+     * @return The deleted employee, or a 404 if there is no employee with the id.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Response<MockEmployee>> deleteEmployeeById(@PathVariable("id") UUID uuid) {
+        return mockEmployeeService
+                .deleteById(uuid)
+                .map(employee -> ResponseEntity.ok(Response.handledWith(employee)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(Response.handled()));
+    }
+
+    /**
+     * Create up to {@value CreateMockEmployeesInput#MAX_BATCH_SIZE} employees in one request (and so against one unit
+     * of the request budget). The batch is validated as a whole and applied atomically: either every employee is
+     * created, in order, or none is.
+     */
+    @PostMapping("/batch")
+    public Response<List<MockEmployee>> createEmployees(@Valid @RequestBody CreateMockEmployeesInput input) {
+        return Response.handledWith(mockEmployeeService.createAll(input.getEmployees()));
+    }
+
+    /**
+     * Delete the employees with up to {@value CreateMockEmployeesInput#MAX_BATCH_SIZE} ids in one request,
+     * atomically. Ids with no employee are skipped rather than failing the batch.
+     *
+     * @return The deleted employees, in the order of their ids.
+     */
+    @DeleteMapping("/batch")
+    public Response<List<MockEmployee>> deleteEmployees(@Valid @RequestBody DeleteMockEmployeesInput input) {
+        return Response.handledWith(mockEmployeeService.deleteAllById(input.getIds()));
+    }
+
+    private HttpHeaders versionHeaders(long version) {
+        final var headers = new HttpHeaders();
+        headers.set(EPOCH_HEADER, mockEmployeeService.getEpoch());
+        headers.set(VERSION_HEADER, Long.toString(version));
+        return headers;
+    }
+
+    /**
+     * The version is read before the employees are, so the employees sent with an ETag are never older than it says.
+     */
+    private String entityTag(long version) {
+        return "\"" + mockEmployeeService.getEpoch() + "-" + version + "\"";
+    }
 }
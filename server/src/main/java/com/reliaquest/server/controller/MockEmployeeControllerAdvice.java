@@ -1,15 +1,34 @@
 package com.reliaquest.server.controller;
 
 import com.reliaquest.server.model.Response;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.server.ResponseStatusException;
 
 @Slf4j
 @ControllerAdvice
 public class MockEmployeeControllerAdvice {
 
+    /**
+     * An invalid request body, e.g. a batch that is too large or has an invalid employee in it, is the client's fault.
+     */
+    @ExceptionHandler
+    protected ResponseEntity<?> handleException(MethodArgumentNotValidException ex) {
+        final var errors = ex.getBindingResult().getFieldErrors().stream()
+                .map(error -> error.getField() + " " + error.getDefaultMessage())
+                .collect(Collectors.joining(", "));
+        return ResponseEntity.badRequest().body(Response.error(errors));
+    }
+
+    @ExceptionHandler
+    protected ResponseEntity<?> handleException(ResponseStatusException ex) {
+        return ResponseEntity.status(ex.getStatusCode()).body(Response.error(ex.getReason()));
+    }
+
     @ExceptionHandler
     protected ResponseEntity<?> handleException(Throwable ex) {
         log.error("Error handling web request.", ex);
@@ -0,0 +1,17 @@
+package com.reliaquest.server.model;
+
+import java.time.Instant;
+
+/**
+ * One create or delete, as recorded in the change log. A delete carries the employee as it was when it was removed.
+ *
+ * @param version The store version the change produced. Consecutive changes have consecutive versions.
+ * @param at      When the change was made.
+ */
+public record MockEmployeeChange(long version, Type type, MockEmployee employee, Instant at) {
+
+    public enum Type {
+        CREATED,
+        DELETED
+    }
+}
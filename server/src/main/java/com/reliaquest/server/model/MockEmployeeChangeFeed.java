@@ -0,0 +1,11 @@
+package com.reliaquest.server.model;
+
+import java.util.List;
+
+/**
+ * The changes since a given version, oldest first.
+ *
+ * @param epoch   The store instance the versions belong to.
+ * @param version The store version after the last of {@code changes}, which is the {@code since} for the next request.
+ */
+public record MockEmployeeChangeFeed(String epoch, long version, List<MockEmployeeChange> changes) {}
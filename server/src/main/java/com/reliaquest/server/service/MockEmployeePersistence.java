@@ -0,0 +1,318 @@
+package com.reliaquest.server.service;
+
+import com.reliaquest.server.model.MockEmployee;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the mock employees on disk so that a restart brings back the same employees (and ids) instead of generating
+ * new ones, which would invalidate everything the api tier has cached.
+ *
+ * <p>The data lives in two files in the configured directory:
+ *
+ * <ul>
+ *   <li>{@code employees.snapshot}: every employee in list order, in a compact binary format. It is written in one go
+ *       (to a temporary file that is then moved into place) and memory-mapped when read back, so loading a large
+ *       roster is a sequential decode straight from the page cache.
+ *   <li>{@code employees.log}: an append-only log of the creates and deletes since the snapshot was written. The store
+ *       calls {@link #created} and {@link #deleted} under its write lock, so the log order is the order the changes
+ *       were applied in.
+ * </ul>
+ *
+ * <p>On boot the snapshot is mapped and the log replayed on top of it. A record cut short by a crash at the end of the
+ * log is dropped. If the log has grown large compared to the snapshot, the two are compacted into a fresh snapshot.
+ * Every employee is copied out of the mapping as it is decoded, and the mapping is dropped before the log is replayed,
+ * so nothing refers to it by the time the files are truncated or replaced. The log, which compaction keeps small, is
+ * read into memory rather than mapped, since it may have to be truncated right after.
+ *
+ * <p>Strings are stored as UTF-8 with an int length (-1 for null), and a missing salary or age as
+ * {@link Integer#MIN_VALUE}. A single snapshot file is limited to 2GB, which is several million employees.
+ */
+@Slf4j
+public class MockEmployeePersistence implements MockEmployeeStore.Journal, AutoCloseable {
+
+    private static final int MAGIC = 0x52514553; // "RQES"
+    private static final int FORMAT_VERSION = 1;
+    private static final byte CREATED = 1;
+    private static final byte DELETED = 2;
+    private static final int NULL_INT = Integer.MIN_VALUE;
+    private static final int MIN_COMPACTION_LOG_ENTRIES = 10_000;
+
+    private final Path snapshotFile;
+    private final Path logFile;
+    private final boolean sync;
+    private FileChannel logChannel;
+
+    public MockEmployeePersistence(Path directory, boolean sync) {
+        this.snapshotFile = directory.resolve("employees.snapshot");
+        this.logFile = directory.resolve("employees.log");
+        this.sync = sync;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create persistence directory " + directory, e);
+        }
+    }
+
+    /**
+     * Read the employees back from the snapshot and log, compacting them if the log has grown large.
+     *
+     * @return The employees in list order, or empty if nothing has been persisted yet.
+     */
+    public Optional<List<MockEmployee>> load() {
+        if (!Files.exists(snapshotFile)) {
+            return Optional.empty();
+        }
+        final long start = System.nanoTime();
+        final var employees = new LinkedHashMap<UUID, MockEmployee>();
+        // the mapping doesn't outlive this call
+        readSnapshot(employees);
+        final int snapshotSize = employees.size();
+        final int logEntries = replayLog(employees);
+        final var loaded = new ArrayList<>(employees.values());
+        log.info(
+                "Loaded {} employees from {} ({} log entries) in {} ms.",
+                loaded.size(),
+                snapshotFile,
+                logEntries,
+                (System.nanoTime() - start) / 1_000_000);
+        if (logEntries >= Math.max(MIN_COMPACTION_LOG_ENTRIES, snapshotSize / 10)) {
+            writeSnapshot(loaded);
+        }
+        return Optional.of(loaded);
+    }
+
+    /**
+     * Replace the snapshot with the given employees and start a new, empty log.
+     */
+    public synchronized void writeSnapshot(Collection<MockEmployee> employees) {
+        final var temporaryFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (var channel = FileChannel.open(
+                temporaryFile,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            final var buffer = ByteBuffer.allocate(1 << 16);
+            buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(employees.size());
+            for (MockEmployee employee : employees) {
+                final var record = encode(employee);
+                if (buffer.remaining() < record.remaining()) {
+                    writeFully(channel, buffer.flip());
+                    buffer.clear();
+                }
+                if (buffer.remaining() < record.remaining()) {
+                    writeFully(channel, record);
+                } else {
+                    buffer.put(record);
+                }
+            }
+            writeFully(channel, buffer.flip());
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write employee snapshot " + temporaryFile, e);
+        }
+        try {
+            Files.move(
+                    temporaryFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            closeLog();
+            Files.deleteIfExists(logFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to replace employee snapshot " + snapshotFile, e);
+        }
+        log.info("Wrote snapshot of {} employees to {}.", employees.size(), snapshotFile);
+    }
+
+    @Override
+    public void created(MockEmployee employee) {
+        final var record = encode(employee);
+        append(ByteBuffer.allocate(1 + record.remaining())
+                .put(CREATED)
+                .put(record)
+                .flip());
+    }
+
+    @Override
+    public void deleted(MockEmployee employee) {
+        append(ByteBuffer.allocate(1 + 16)
+                .put(DELETED)
+                .putLong(employee.getId().getMostSignificantBits())
+                .putLong(employee.getId().getLeastSignificantBits())
+                .flip());
+    }
+
+    @Override
+    public synchronized void close() {
+        closeLog();
+    }
+
+    private synchronized void append(ByteBuffer entry) {
+        try {
+            if (logChannel == null) {
+                logChannel = FileChannel.open(
+                        logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            writeFully(logChannel, entry);
+            if (sync) {
+                logChannel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to append to employee log " + logFile, e);
+        }
+    }
+
+    private void closeLog() {
+        if (logChannel != null) {
+            try {
+                logChannel.close();
+            } catch (IOException e) {
+                log.warn("Unable to close employee log {}: {}", logFile, e.getMessage());
+            }
+            logChannel = null;
+        }
+    }
+
+    private void readSnapshot(LinkedHashMap<UUID, MockEmployee> employees) {
+        try (var channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                throw new IllegalStateException(snapshotFile + " is not an employee snapshot this server can read");
+            }
+            final int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                final var employee = decode(buffer);
+                employees.put(employee.getId(), employee);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read employee snapshot " + snapshotFile, e);
+        }
+    }
+
+    /**
+     * @return The number of log entries applied.
+     */
+    private int replayLog(LinkedHashMap<UUID, MockEmployee> employees) {
+        if (!Files.exists(logFile)) {
+            return 0;
+        }
+        try (var channel = FileChannel.open(logFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final var buffer = readFully(channel);
+            int entries = 0;
+            int lastGoodPosition = 0;
+            try {
+                while (buffer.hasRemaining()) {
+                    final byte type = buffer.get();
+                    if (type == CREATED) {
+                        final var employee = decode(buffer);
+                        employees.put(employee.getId(), employee);
+                    } else if (type == DELETED) {
+                        employees.remove(new UUID(buffer.getLong(), buffer.getLong()));
+                    } else {
+                        throw new IllegalStateException("Unknown entry type " + type);
+                    }
+                    entries++;
+                    lastGoodPosition = buffer.position();
+                }
+            } catch (BufferUnderflowException | IllegalStateException e) {
+                log.warn(
+                        "Employee log {} is damaged after {} entries, dropping the remaining {} bytes.",
+                        logFile,
+                        entries,
+                        channel.size() - lastGoodPosition);
+                channel.truncate(lastGoodPosition);
+            }
+            return entries;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to replay employee log " + logFile, e);
+        }
+    }
+
+    private static ByteBuffer encode(MockEmployee employee) {
+        final var name = bytes(employee.getName());
+        final var title = bytes(employee.getTitle());
+        final var email = bytes(employee.getEmail());
+        final var buffer = ByteBuffer.allocate(16 + 4 + 4 + 12 + length(name) + length(title) + length(email));
+        buffer.putLong(employee.getId().getMostSignificantBits())
+                .putLong(employee.getId().getLeastSignificantBits())
+                .putInt(employee.getSalary() == null ? NULL_INT : employee.getSalary())
+                .putInt(employee.getAge() == null ? NULL_INT : employee.getAge());
+        putString(buffer, name);
+        putString(buffer, title);
+        putString(buffer, email);
+        return buffer.flip();
+    }
+
+    private static MockEmployee decode(ByteBuffer buffer) {
+        final var id = new UUID(buffer.getLong(), buffer.getLong());
+        final int salary = buffer.getInt();
+        final int age = buffer.getInt();
+        return MockEmployee.builder()
+                .id(id)
+                .salary(salary == NULL_INT ? null : salary)
+                .age(age == NULL_INT ? null : age)
+                .name(getString(buffer))
+                .title(getString(buffer))
+                .email(getString(buffer))
+                .build();
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        final var bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer readFully(FileChannel channel) throws IOException {
+        final var buffer = ByteBuffer.allocate(Math.toIntExact(channel.size()));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                break;
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
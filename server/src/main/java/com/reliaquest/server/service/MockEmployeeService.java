@@ -4,11 +4,11 @@ import com.reliaquest.server.config.ServerConfiguration;
 import com.reliaquest.server.model.CreateMockEmployeeInput;
 import com.reliaquest.server.model.DeleteMockEmployeeInput;
 import com.reliaquest.server.model.MockEmployee;
+import com.reliaquest.server.model.MockEmployeeChangeFeed;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.UUID;
-import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,37 +22,80 @@ public class MockEmployeeService {
 
     private final Faker faker;
 
-    @Getter
-    private final List<MockEmployee> mockEmployees;
+    private final MockEmployeeStore mockEmployeeStore;
+
+    public List<MockEmployee> getMockEmployees() {
+        return mockEmployeeStore.findAll();
+    }
+
+    public Optional<List<MockEmployee>> getMockEmployeePage(UUID after, int limit) {
+        return mockEmployeeStore.findPage(after, limit);
+    }
+
+    public String getEpoch() {
+        return mockEmployeeStore.getEpoch();
+    }
+
+    public long getVersion() {
+        return mockEmployeeStore.getVersion();
+    }
+
+    public OptionalLong getVersion(@NonNull UUID uuid) {
+        return mockEmployeeStore.versionOf(uuid);
+    }
+
+    public Optional<MockEmployeeChangeFeed> getChangesSince(String epoch, long since) {
+        return mockEmployeeStore.findChangesSince(epoch, since);
+    }
 
     public Optional<MockEmployee> findById(@NonNull UUID uuid) {
-        return mockEmployees.stream()
-                .filter(mockEmployee -> Objects.nonNull(mockEmployee.getId())
-                        && mockEmployee.getId().equals(uuid))
-                .findFirst();
+        return mockEmployeeStore.findById(uuid);
     }
 
     public MockEmployee create(@NonNull CreateMockEmployeeInput input) {
-        final var mockEmployee = MockEmployee.from(
-                ServerConfiguration.EMAIL_TEMPLATE.formatted(
-                        faker.twitter().userName().toLowerCase()),
-                input);
-        mockEmployees.add(mockEmployee);
+        final var mockEmployee = newEmployee(input);
+        mockEmployeeStore.add(mockEmployee);
         log.debug("Added employee: {}", mockEmployee);
         return mockEmployee;
     }
 
+    /**
+     * Create all the employees at once: they show up in the list together, in the given order.
+     */
+    public List<MockEmployee> createAll(@NonNull List<CreateMockEmployeeInput> inputs) {
+        final var mockEmployees = inputs.stream().map(this::newEmployee).toList();
+        mockEmployeeStore.addAll(mockEmployees);
+        log.debug("Added {} employees.", mockEmployees.size());
+        return mockEmployees;
+    }
+
     public boolean delete(@NonNull DeleteMockEmployeeInput input) {
-        final var mockEmployee = mockEmployees.stream()
-                .filter(employee -> Objects.nonNull(employee.getName())
-                        && employee.getName().equalsIgnoreCase(input.getName()))
-                .findFirst();
-        if (mockEmployee.isPresent()) {
-            mockEmployees.remove(mockEmployee.get());
-            log.debug("Removed employee: {}", mockEmployee.get());
-            return true;
-        }
-
-        return false;
+        final var mockEmployee = mockEmployeeStore.removeFirstByName(input.getName());
+        mockEmployee.ifPresent(employee -> log.debug("Removed employee: {}", employee));
+        return mockEmployee.isPresent();
+    }
+
+    public Optional<MockEmployee> deleteById(@NonNull UUID uuid) {
+        final var mockEmployee = mockEmployeeStore.removeById(uuid);
+        mockEmployee.ifPresent(employee -> log.debug("Removed employee: {}", employee));
+        return mockEmployee;
+    }
+
+    /**
+     * Delete the employee with each id, all at once.
+     *
+     * @return The deleted employees, in the order of their ids.
+     */
+    public List<MockEmployee> deleteAllById(@NonNull List<UUID> uuids) {
+        final var removed = mockEmployeeStore.removeByIds(uuids);
+        log.debug("Removed {} of {} employees.", removed.size(), uuids.size());
+        return removed;
+    }
+
+    private MockEmployee newEmployee(CreateMockEmployeeInput input) {
+        return MockEmployee.from(
+                ServerConfiguration.EMAIL_TEMPLATE.formatted(
+                        faker.twitter().userName().toLowerCase()),
+                input);
     }
 }
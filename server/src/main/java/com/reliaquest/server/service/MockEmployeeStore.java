@@ -0,0 +1,489 @@
+package com.reliaquest.server.service;
+
+import com.reliaquest.server.model.MockEmployee;
+import com.reliaquest.server.model.MockEmployeeChange;
+import com.reliaquest.server.model.MockEmployeeChangeFeed;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
+import lombok.NonNull;
+
+/**
+ * Thread-safe in-memory employee store indexed by id and by case-folded name.
+ *
+ * <p>Every employee gets a sequence number when it is added, and the employees are kept in a skip list ordered by
+ * it, so listing them returns insertion order (the same order the plain list used to have). A hash map from id to
+ * entry makes lookup and removal by id O(1), and the name index maps each case-folded name to the ids with that name,
+ * again in insertion order, so deleting "the first employee with this name" doesn't need a scan either.
+ *
+ * <p>Mutations are serialized by a single writer lock; there are few enough of them that striping wouldn't buy
+ * anything. Reads never take the lock on the hot path: {@link #findById} reads the concurrent id map directly, and
+ * {@link #findAll} returns an immutable list that is published once and reused until the next mutation. The first
+ * listing after a mutation rebuilds it under the lock, so a listing is always a consistent point-in-time view and
+ * never sees half of a write. The plain {@code ArrayList} this replaces threw {@code ConcurrentModificationException}
+ * (or silently lost employees) when Tomcat threads created and deleted while others listed.
+ *
+ * <p>The sequence numbers also make the listing pageable with the id of the last employee seen as the cursor: the
+ * next page is the part of the skip list after that employee's sequence number. The sequence numbers of the most
+ * recently removed employees are remembered for a while, so a cursor stays usable if its employee is deleted while a
+ * client is still paging.
+ *
+ * <p>Every change also bumps a modification counter, the store's {@link #getVersion() version}, and each employee
+ * remembers the version it was added at. Together with the {@link #getEpoch() epoch}, which is picked at random when
+ * the store is created, these identify a state of the list (or of one employee) across restarts as well, which is what
+ * the controller's ETags are made of.
+ *
+ * <p>The most recent changes are kept in a change log, each with the version it produced, so that a client holding a
+ * copy of the list at some version can catch up with {@link #findChangesSince} instead of fetching all of it again,
+ * or {@link #subscribe} to follow the changes as they are made.
+ *
+ * <p>Every change is also reported to a {@link Journal} while the write lock is still held, so that a journal sees
+ * the changes in exactly the order they were applied.
+ */
+public class MockEmployeeStore {
+
+    private static final int MAX_REMEMBERED_REMOVALS = 10_000;
+    private static final int MAX_LOGGED_CHANGES = 10_000;
+
+    private final ConcurrentHashMap<UUID, Entry> byId;
+    private final ConcurrentNavigableMap<Long, MockEmployee> bySequence = new ConcurrentSkipListMap<>();
+    private final Map<String, LinkedHashSet<UUID>> idsByName;
+    private final Map<UUID, Long> removedSequences = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, Long> eldest) {
+            return size() > MAX_REMEMBERED_REMOVALS;
+        }
+    };
+    private final ArrayDeque<MockEmployeeChange> changes = new ArrayDeque<>();
+    private final List<Consumer<MockEmployeeChange>> listeners = new CopyOnWriteArrayList<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Journal journal;
+    private final String epoch = Long.toHexString(RandomGenerator.getDefault().nextLong());
+    private long nextSequence;
+    private volatile long version;
+    private volatile List<MockEmployee> published;
+
+    public MockEmployeeStore(@NonNull Collection<MockEmployee> employees) {
+        this(employees, Journal.NONE);
+    }
+
+    /**
+     * @param employees The initial employees. These are not reported to the journal.
+     * @param journal   Receives every later create and delete.
+     */
+    public MockEmployeeStore(@NonNull Collection<MockEmployee> employees, @NonNull Journal journal) {
+        byId = new ConcurrentHashMap<>(capacityFor(employees.size()));
+        idsByName = new HashMap<>(capacityFor(employees.size()));
+        employees.forEach(employee -> put(employee, 0));
+        this.journal = journal;
+    }
+
+    /**
+     * @return All employees in insertion order, as an immutable point-in-time list.
+     */
+    public List<MockEmployee> findAll() {
+        final var current = published;
+        if (current != null) {
+            return current;
+        }
+        writeLock.lock();
+        try {
+            if (published == null) {
+                published = List.copyOf(bySequence.values());
+            }
+            return published;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * One page of the listing, in insertion order. A page is read without the lock, so employees added or removed
+     * while it is being read may or may not be on it, but a page never holds the same employee twice and paging
+     * through to the end never skips an employee that was there the whole time.
+     *
+     * @param after The id of the last employee on the previous page, or null for the first page.
+     * @param limit The maximum number of employees on the page.
+     * @return The page, which is shorter than {@code limit} only if it is the last one; or empty if {@code after} is
+     *     not an id this store knows (or remembers).
+     */
+    public Optional<List<MockEmployee>> findPage(UUID after, int limit) {
+        NavigableMap<Long, MockEmployee> remaining = bySequence;
+        if (after != null) {
+            final var sequence = sequenceOf(after);
+            if (sequence == null) {
+                return Optional.empty();
+            }
+            remaining = bySequence.tailMap(sequence, false);
+        }
+        final var page = new ArrayList<MockEmployee>(Math.min(limit, 1_024));
+        for (MockEmployee employee : remaining.values()) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(employee);
+        }
+        return Optional.of(page);
+    }
+
+    private Long sequenceOf(UUID id) {
+        final var entry = byId.get(id);
+        if (entry != null) {
+            return entry.sequence();
+        }
+        writeLock.lock();
+        try {
+            final var current = byId.get(id);
+            return current != null ? Long.valueOf(current.sequence()) : removedSequences.get(id);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public Optional<MockEmployee> findById(@NonNull UUID id) {
+        final var entry = byId.get(id);
+        return entry == null ? Optional.empty() : Optional.of(entry.employee());
+    }
+
+    /**
+     * @return The version the employee with this id was added (or last replaced) at.
+     */
+    public OptionalLong versionOf(@NonNull UUID id) {
+        final var entry = byId.get(id);
+        return entry == null ? OptionalLong.empty() : OptionalLong.of(entry.version());
+    }
+
+    /**
+     * @return The number of changes made to the store since it was created. A listing taken after reading this
+     *     reflects at least this version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return A random id for this store instance, so versions from before a restart are never mistaken for current
+     *     ones.
+     */
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * Add an employee at the end of the list. An employee with an id that is already present replaces the existing
+     * one in place.
+     */
+    public void add(@NonNull MockEmployee employee) {
+        writeLock.lock();
+        try {
+            addLocked(employee);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * {@link #add} every employee, in order, as one atomic step: a listing shows either none of them or all of them.
+     * Each employee is still a change (and a version) of its own, so the change log and journal are the same as if they
+     * had been added one at a time.
+     */
+    public void addAll(@NonNull List<MockEmployee> employees) {
+        writeLock.lock();
+        try {
+            employees.forEach(this::addLocked);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void addLocked(MockEmployee employee) {
+        final long next = version + 1;
+        put(employee, next);
+        published = null;
+        // only now, so that anyone who reads the new version also sees the change
+        version = next;
+        logChange(MockEmployeeChange.Type.CREATED, employee);
+        journal.created(employee);
+    }
+
+    private void put(MockEmployee employee, long employeeVersion) {
+        final var previous = byId.get(employee.getId());
+        final long sequence;
+        if (previous != null) {
+            unindexName(previous.employee());
+            sequence = previous.sequence();
+        } else {
+            sequence = nextSequence++;
+        }
+        byId.put(employee.getId(), new Entry(sequence, employeeVersion, employee));
+        bySequence.put(sequence, employee);
+        if (employee.getName() != null) {
+            idsByName
+                    .computeIfAbsent(foldCase(employee.getName()), ignored -> new LinkedHashSet<>())
+                    .add(employee.getId());
+        }
+    }
+
+    /**
+     * Remove the earliest added employee whose name matches, ignoring case.
+     *
+     * @return The removed employee, if there was one.
+     */
+    public Optional<MockEmployee> removeFirstByName(@NonNull String name) {
+        writeLock.lock();
+        try {
+            return removeFirstByNameLocked(name);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Remove the employee with the given id.
+     *
+     * @return The removed employee, if there was one.
+     */
+    public Optional<MockEmployee> removeById(@NonNull UUID id) {
+        writeLock.lock();
+        try {
+            return byId.containsKey(id) ? Optional.of(removeLocked(id)) : Optional.empty();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * {@link #removeById} for every id, in order, as one atomic step.
+     *
+     * @return The removed employees, in the order of their ids. Ids with no employee (or repeated) are skipped.
+     */
+    public List<MockEmployee> removeByIds(@NonNull List<UUID> ids) {
+        writeLock.lock();
+        try {
+            final var removed = new ArrayList<MockEmployee>(ids.size());
+            for (UUID id : ids) {
+                if (byId.containsKey(id)) {
+                    removed.add(removeLocked(id));
+                }
+            }
+            return removed;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private Optional<MockEmployee> removeFirstByNameLocked(String name) {
+        final var ids = idsByName.get(foldCase(name));
+        if (ids == null) {
+            return Optional.empty();
+        }
+        return Optional.of(removeLocked(ids.iterator().next()));
+    }
+
+    private MockEmployee removeLocked(UUID id) {
+        final var removed = byId.remove(id);
+        bySequence.remove(removed.sequence());
+        removedSequences.put(removed.employee().getId(), removed.sequence());
+        unindexName(removed.employee());
+        published = null;
+        version++;
+        logChange(MockEmployeeChange.Type.DELETED, removed.employee());
+        journal.deleted(removed.employee());
+        return removed.employee();
+    }
+
+    /**
+     * The changes made after the given version, oldest first. Empty if the store can't tell: the epoch is not this
+     * store's, the version is ahead of the store, or the changes after it have already dropped out of the log. The
+     * caller has to fetch the whole list in that case.
+     *
+     * @param epoch The epoch the version belongs to, or null to trust that it is this store's.
+     * @param since The version the caller is up to date with.
+     */
+    public Optional<MockEmployeeChangeFeed> findChangesSince(String epoch, long since) {
+        writeLock.lock();
+        try {
+            return changesSince(epoch, since);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * {@link #findChangesSince} and register a listener for every change after those, as one atomic step, so the
+     * listener carries on exactly where the returned changes end. The listener is called while the write lock is
+     * held, in the order the changes are made, so it must not block.
+     *
+     * @return The changes since {@code since}, or empty (and the listener is not registered) if they can't be told.
+     */
+    public Optional<MockEmployeeChangeFeed> subscribe(
+            String epoch, long since, @NonNull Consumer<MockEmployeeChange> listener) {
+        writeLock.lock();
+        try {
+            final var feed = changesSince(epoch, since);
+            feed.ifPresent(ignored -> listeners.add(listener));
+            return feed;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void unsubscribe(@NonNull Consumer<MockEmployeeChange> listener) {
+        listeners.remove(listener);
+    }
+
+    private Optional<MockEmployeeChangeFeed> changesSince(String epoch, long since) {
+        if ((epoch != null && !epoch.equals(this.epoch)) || since > version || since < 0) {
+            return Optional.empty();
+        }
+        if (since < version && (changes.isEmpty() || changes.peekFirst().version() > since + 1)) {
+            return Optional.empty();
+        }
+        final var newer = new ArrayList<MockEmployeeChange>((int) (version - since));
+        final var changesNewestFirst = changes.descendingIterator();
+        while (changesNewestFirst.hasNext()) {
+            final var change = changesNewestFirst.next();
+            if (change.version() <= since) {
+                break;
+            }
+            newer.add(change);
+        }
+        Collections.reverse(newer);
+        return Optional.of(new MockEmployeeChangeFeed(this.epoch, version, newer));
+    }
+
+    private void logChange(MockEmployeeChange.Type type, MockEmployee employee) {
+        final var change = new MockEmployeeChange(version, type, employee, Instant.now());
+        changes.addLast(change);
+        if (changes.size() > MAX_LOGGED_CHANGES) {
+            changes.removeFirst();
+        }
+        listeners.forEach(listener -> listener.accept(change));
+    }
+
+    private void unindexName(MockEmployee employee) {
+        if (employee.getName() == null) {
+            return;
+        }
+        final var key = foldCase(employee.getName());
+        final var ids = idsByName.get(key);
+        if (ids != null) {
+            ids.remove(employee.getId());
+            if (ids.isEmpty()) {
+                idsByName.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Check that the indexes agree with the id map: each employee is in the skip list under its sequence number and in
+     * the name index under its name, in insertion order, neither holds anything else, and a published listing is the
+     * skip list's. Takes the write lock, so it sees the store between two mutations. For tests and the stress
+     * benchmark.
+     *
+     * @throws IllegalStateException Describing the first disagreement found.
+     */
+    void checkConsistency() {
+        writeLock.lock();
+        try {
+            if (bySequence.size() != byId.size()) {
+                throw new IllegalStateException(
+                        bySequence.size() + " employees by sequence but " + byId.size() + " by id");
+            }
+            int named = 0;
+            for (Map.Entry<UUID, Entry> entry : byId.entrySet()) {
+                final var employee = entry.getValue().employee();
+                if (!entry.getKey().equals(employee.getId())) {
+                    throw new IllegalStateException(
+                            "Employee " + employee.getId() + " is indexed as " + entry.getKey());
+                }
+                if (bySequence.get(entry.getValue().sequence()) != employee) {
+                    throw new IllegalStateException("Employee " + employee.getId() + " is missing by sequence");
+                }
+                if (employee.getName() != null) {
+                    final var ids = idsByName.get(foldCase(employee.getName()));
+                    if (ids == null || !ids.contains(employee.getId())) {
+                        throw new IllegalStateException("Employee " + employee.getId() + " is missing by name");
+                    }
+                    named++;
+                }
+            }
+            int indexed = 0;
+            for (LinkedHashSet<UUID> ids : idsByName.values()) {
+                long previous = -1;
+                for (UUID id : ids) {
+                    final var entry = byId.get(id);
+                    if (entry == null || entry.sequence() <= previous) {
+                        throw new IllegalStateException("Employee " + id + " is out of place in the name index");
+                    }
+                    previous = entry.sequence();
+                }
+                indexed += ids.size();
+            }
+            if (indexed != named) {
+                throw new IllegalStateException(indexed + " employees by name but " + named + " with a name");
+            }
+            final var current = published;
+            if (current != null && !current.equals(List.copyOf(bySequence.values()))) {
+                throw new IllegalStateException("The published listing is out of date");
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Matches what {@link String#equalsIgnoreCase} considers equal, which compares upper-cased and then lower-cased
+     * chars, for all practical names.
+     */
+    static String foldCase(String name) {
+        return name.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+
+    private static int capacityFor(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+
+    private record Entry(long sequence, long version, MockEmployee employee) {}
+
+    /**
+     * Receives the changes made to the store, e.g. to persist them.
+     */
+    public interface Journal {
+
+        Journal NONE = new Journal() {
+            @Override
+            public void created(MockEmployee employee) {}
+
+            @Override
+            public void deleted(MockEmployee employee) {}
+        };
+
+        void created(MockEmployee employee);
+
+        void deleted(MockEmployee employee);
+    }
+}
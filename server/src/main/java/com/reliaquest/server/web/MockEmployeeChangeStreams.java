@@ -0,0 +1,181 @@
+package com.reliaquest.server.web;
+
+import com.reliaquest.server.model.MockEmployeeChange;
+import com.reliaquest.server.service.MockEmployeeStore;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes the store's changes to subscribers as server-sent events, one {@code change} event per create or delete with
+ * the store version as the event id.
+ *
+ * <p>A subscriber names the version it is up to date with, gets the changes since then from the change log, and then
+ * every change as it is made; the store hands over from one to the other atomically, so nothing is skipped or sent
+ * twice. The store calls the listener under its write lock, so the listener only queues the change, and a thread from
+ * a shared pool does the (possibly slow) sending. At most {@code maxSubscribers} streams are open at once, since each
+ * one holds a thread for as long as it is open; beyond that, subscribing is a 503. A subscriber that falls so far
+ * behind that its queue fills up is disconnected; it can resubscribe from the last event it got. A comment is sent
+ * whenever nothing else has been for {@link #HEARTBEAT}, which keeps proxies from closing an idle stream and lets the
+ * subscriber tell a quiet stream from a dead one.
+ *
+ * <p>However a stream ends -- completed by either side, timed out or failed -- its listener is removed from the store,
+ * its sending thread is stopped and its place is freed for the next subscriber.
+ */
+@Slf4j
+@Component
+public class MockEmployeeChangeStreams {
+
+    static final Duration HEARTBEAT = Duration.ofSeconds(15);
+    private static final int MAX_QUEUED_CHANGES = 10_000;
+
+    private final MockEmployeeStore mockEmployeeStore;
+
+    private final int maxSubscribers;
+
+    private final Semaphore subscribers;
+
+    private final ExecutorService senders = Executors.newCachedThreadPool(runnable -> {
+        final var thread = new Thread(runnable, "employee-change-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public MockEmployeeChangeStreams(
+            MockEmployeeStore mockEmployeeStore,
+            @Value("${mock.employees.changes.max-subscribers:100}") int maxSubscribers) {
+        this.mockEmployeeStore = mockEmployeeStore;
+        this.maxSubscribers = maxSubscribers;
+        this.subscribers = new Semaphore(maxSubscribers);
+    }
+
+    /**
+     * @return A stream starting after version {@code since}, or empty if the changes since then can't be told.
+     * @throws ResponseStatusException A 503, if {@code maxSubscribers} streams are open already.
+     */
+    public Optional<SseEmitter> open(String epoch, long since) {
+        if (!subscribers.tryAcquire()) {
+            throw new ResponseStatusException(
+                    HttpStatus.SERVICE_UNAVAILABLE, "Too many change stream subscribers, try again later.");
+        }
+        final var subscription = new Subscription();
+        final var backlog = mockEmployeeStore.subscribe(epoch, since, subscription);
+        if (backlog.isEmpty()) {
+            subscribers.release();
+            return Optional.empty();
+        }
+        final var emitter = subscription.emitter;
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(e -> subscription.close());
+        subscription.sender =
+                senders.submit(() -> subscription.send(backlog.get().changes()));
+        return Optional.of(emitter);
+    }
+
+    /**
+     * @return The number of streams open right now, i.e. with a listener on the store and a thread sending to them.
+     */
+    int openStreams() {
+        return maxSubscribers - subscribers.availablePermits();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdownNow();
+    }
+
+    private final class Subscription implements Consumer<MockEmployeeChange> {
+
+        // no timeout: the stream stays open until either side closes it
+        final SseEmitter emitter = new SseEmitter(0L);
+        final LinkedBlockingQueue<MockEmployeeChange> queue = new LinkedBlockingQueue<>(MAX_QUEUED_CHANGES);
+        final AtomicBoolean overflowed = new AtomicBoolean();
+        final AtomicBoolean started = new AtomicBoolean();
+        volatile boolean closed;
+        volatile Future<?> sender;
+
+        @Override
+        public void accept(MockEmployeeChange change) {
+            if (!queue.offer(change)) {
+                overflowed.set(true);
+            }
+        }
+
+        void send(List<MockEmployeeChange> backlog) {
+            if (!started.compareAndSet(false, true)) {
+                // closed before it got going
+                return;
+            }
+            try {
+                for (MockEmployeeChange change : backlog) {
+                    sendChange(change);
+                }
+                while (!closed && !overflowed.get()) {
+                    final var change = queue.poll(HEARTBEAT.toMillis(), TimeUnit.MILLISECONDS);
+                    if (change == null) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        sendChange(change);
+                    }
+                }
+                if (overflowed.get()) {
+                    log.info(
+                            "Change stream subscriber fell more than {} changes behind, disconnecting it.",
+                            MAX_QUEUED_CHANGES);
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // the subscriber has gone away, or the stream was closed while sending; the container completes it
+                log.debug("Change stream subscriber disconnected: {}", e.getMessage());
+            } catch (InterruptedException e) {
+                // closed from elsewhere, or shutting down
+                emitter.complete();
+            } finally {
+                mockEmployeeStore.unsubscribe(this);
+                subscribers.release();
+            }
+        }
+
+        private void sendChange(MockEmployeeChange change) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(Long.toString(change.version()))
+                    .name("change")
+                    .data(change, MediaType.APPLICATION_JSON));
+        }
+
+        /**
+         * Called by the container when the stream ends. Stops the sending thread, which frees the stream's place as it
+         * exits, or frees it here if the thread never got going.
+         */
+        void close() {
+            closed = true;
+            mockEmployeeStore.unsubscribe(this);
+            if (started.compareAndSet(false, true)) {
+                subscribers.release();
+                return;
+            }
+            final var current = sender;
+            if (current != null) {
+                current.cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.reliaquest.server.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reliaquest.server.model.CreateMockEmployeesInput;
+import com.reliaquest.server.model.MockEmployee;
+import com.reliaquest.server.service.MockEmployeeService;
+import com.reliaquest.server.service.MockEmployeeStore;
+import com.reliaquest.server.web.MockEmployeeChangeStreams;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import net.datafaker.Faker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+class MockEmployeeControllerTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final List<MockEmployee> employees =
+            IntStream.range(0, 25).mapToObj(i -> employee(i, "Employee " + i)).toList();
+    private MockEmployeeStore store;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        store = new MockEmployeeStore(employees);
+        final var controller = new MockEmployeeController(
+                new MockEmployeeService(new Faker(), store), new MockEmployeeChangeStreams(store, 10), objectMapper);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new MockEmployeeControllerAdvice())
+                .build();
+    }
+
+    @Test
+    void pagesThroughEveryEmployeeInOrder() throws Exception {
+        final var seen = new ArrayList<String>();
+        String after = null;
+        while (true) {
+            final var page = get("/api/v1/employee").param("limit", "10");
+            if (after != null) {
+                page.param("after", after);
+            }
+            final var body = mockMvc.perform(page)
+                    .andExpect(status().isOk())
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString();
+            final var ids = objectMapper.readTree(body).get("data").findValuesAsText("id");
+            seen.addAll(ids);
+            if (ids.size() < 10) {
+                break;
+            }
+            after = ids.get(ids.size() - 1);
+        }
+
+        assertThat(seen)
+                .containsExactlyElementsOf(
+                        employees.stream().map(e -> e.getId().toString()).toList());
+    }
+
+    @Test
+    void rejectsALimitOutsideOneToTenThousand() throws Exception {
+        mockMvc.perform(get("/api/v1/employee").param("limit", "0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/employee").param("limit", "10001")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/employee").param("limit", "-1")).andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/v1/employee").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(1)));
+        mockMvc.perform(get("/api/v1/employee").param("limit", "10000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(employees.size())));
+    }
+
+    @Test
+    void answersAnUnknownCursorWithNotFound() throws Exception {
+        mockMvc.perform(get("/api/v1/employee").param("after", UUID.randomUUID().toString()))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("Unknown cursor."));
+    }
+
+    @Test
+    void carriesOnAfterACursorWhoseEmployeeWasDeleted() throws Exception {
+        store.removeById(employees.get(4).getId());
+
+        mockMvc.perform(get("/api/v1/employee")
+                        .param("limit", "2")
+                        .param("after", employees.get(4).getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(
+                        jsonPath("$.data[0].id").value(employees.get(5).getId().toString()))
+                .andExpect(
+                        jsonPath("$.data[1].id").value(employees.get(6).getId().toString()));
+    }
+
+    @Test
+    void streamsEveryEmployeeAsNewlineDelimitedJson() throws Exception {
+        final var result = mockMvc.perform(get("/api/v1/employee/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        final var body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        final var lines = body.split("\n");
+        assertThat(body).endsWith("\n");
+        assertThat(lines).hasSize(employees.size());
+        for (int i = 0; i < lines.length; i++) {
+            assertThat(objectMapper.readValue(lines[i], MockEmployee.class)).isEqualTo(employees.get(i));
+        }
+    }
+
+    @Test
+    void answersAMatchingIfNoneMatchWithNotModified() throws Exception {
+        final var etag = mockMvc.perform(get("/api/v1/employee"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(MockEmployeeController.EPOCH_HEADER, store.getEpoch()))
+                .andExpect(header().string(MockEmployeeController.VERSION_HEADER, "0"))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+
+        mockMvc.perform(get("/api/v1/employee").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/v1/employee").param("limit", "5").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/v1/employee/stream").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/v1/employee").header(HttpHeaders.IF_NONE_MATCH, "\"something else\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void changesTheEtagWithEveryCreateAndDelete() throws Exception {
+        final var initial = etagOf("/api/v1/employee");
+
+        mockMvc.perform(post("/api/v1/employee")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"New Hire\",\"salary\":1,\"age\":30,\"title\":\"Title\"}"))
+                .andExpect(status().isOk());
+        final var afterCreate = etagOf("/api/v1/employee");
+        mockMvc.perform(get("/api/v1/employee").header(HttpHeaders.IF_NONE_MATCH, initial))
+                .andExpect(status().isOk())
+                .andExpect(header().string(MockEmployeeController.VERSION_HEADER, "1"))
+                .andExpect(jsonPath("$.data", hasSize(employees.size() + 1)));
+
+        mockMvc.perform(delete("/api/v1/employee/" + employees.get(0).getId())).andExpect(status().isOk());
+        final var afterDelete = etagOf("/api/v1/employee");
+        mockMvc.perform(get("/api/v1/employee").header(HttpHeaders.IF_NONE_MATCH, afterCreate))
+                .andExpect(status().isOk())
+                .andExpect(header().string(MockEmployeeController.VERSION_HEADER, "2"));
+
+        assertThat(List.of(initial, afterCreate, afterDelete)).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void keepsAnEmployeesEtagUntilThatEmployeeChanges() throws Exception {
+        final var path = "/api/v1/employee/" + employees.get(3).getId();
+        final var etag = etagOf(path);
+
+        store.removeById(employees.get(7).getId());
+        mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isNotModified());
+
+        store.add(employees.get(3).toBuilder().salary(1).build());
+        mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.employee_salary").value(1));
+    }
+
+    @Test
+    void answersChangesItCannotTellWithGone() throws Exception {
+        store.removeById(employees.get(0).getId());
+
+        mockMvc.perform(get("/api/v1/employee/changes").param("since", "0").param("epoch", store.getEpoch()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.version").value(1))
+                .andExpect(jsonPath("$.data.changes[0].type").value("DELETED"))
+                .andExpect(jsonPath("$.data.changes[0].employee.id")
+                        .value(employees.get(0).getId().toString()));
+        mockMvc.perform(get("/api/v1/employee/changes").param("since", "0").param("epoch", "restarted"))
+                .andExpect(status().isGone());
+        mockMvc.perform(get("/api/v1/employee/changes").param("since", "2")).andExpect(status().isGone());
+    }
+
+    @Test
+    void deletesAnEmployeeById() throws Exception {
+        final var id = employees.get(2).getId();
+
+        mockMvc.perform(delete("/api/v1/employee/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.id").value(id.toString()))
+                .andExpect(jsonPath("$.data.employee_name").value("Employee 2"));
+
+        mockMvc.perform(get("/api/v1/employee/" + id)).andExpect(status().isNotFound());
+        assertThat(store.size()).isEqualTo(employees.size() - 1);
+    }
+
+    @Test
+    void answersDeletingAnUnknownIdWithNotFound() throws Exception {
+        mockMvc.perform(delete("/api/v1/employee/" + UUID.randomUUID())).andExpect(status().isNotFound());
+        mockMvc.perform(delete("/api/v1/employee/" + employees.get(2).getId())).andExpect(status().isOk());
+        mockMvc.perform(delete("/api/v1/employee/" + employees.get(2).getId())).andExpect(status().isNotFound());
+
+        assertThat(store.size()).isEqualTo(employees.size() - 1);
+        assertThat(store.getVersion()).isEqualTo(1);
+    }
+
+    @Test
+    void deletesOnlyTheEmployeeWithTheIdWhenNamesAreShared() throws Exception {
+        final var namesake = employees.get(3).toBuilder().id(UUID.randomUUID()).build();
+        store.add(namesake);
+
+        mockMvc.perform(delete("/api/v1/employee/" + namesake.getId())).andExpect(status().isOk());
+
+        assertThat(store.findById(employees.get(3).getId())).isPresent();
+        assertThat(store.findById(namesake.getId())).isEmpty();
+    }
+
+    @Test
+    void createsABatchOfEmployeesInOrder() throws Exception {
+        mockMvc.perform(post("/api/v1/employee/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batch(newEmployee("First"), newEmployee("Second"), newEmployee("Third"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(3)))
+                .andExpect(jsonPath("$.data[2].employee_name").value("Third"));
+
+        assertThat(store.findAll().subList(employees.size(), employees.size() + 3))
+                .extracting(MockEmployee::getName)
+                .containsExactly("First", "Second", "Third");
+        assertThat(store.getVersion()).isEqualTo(3);
+    }
+
+    @Test
+    void rejectsABatchLargerThanTheLimit() throws Exception {
+        final var tooMany = IntStream.rangeClosed(0, CreateMockEmployeesInput.MAX_BATCH_SIZE)
+                .mapToObj(i -> newEmployee("Employee " + i))
+                .toArray(String[]::new);
+
+        mockMvc.perform(post("/api/v1/employee/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batch(tooMany)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/v1/employee/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batch()))
+                .andExpect(status().isBadRequest());
+
+        assertThat(store.size()).isEqualTo(employees.size());
+    }
+
+    @Test
+    void createsNoneOfABatchWithAnInvalidEmployee() throws Exception {
+        final var tooYoung = "{\"name\":\"Too Young\",\"salary\":1,\"age\":15,\"title\":\"Title\"}";
+
+        mockMvc.perform(post("/api/v1/employee/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batch(newEmployee("Valid"), tooYoung, newEmployee("Also valid"))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").isNotEmpty());
+
+        assertThat(store.size()).isEqualTo(employees.size());
+        assertThat(store.getVersion()).isZero();
+    }
+
+    @Test
+    void deletesABatchOfIdsSkippingUnknownOnes() throws Exception {
+        final var first = employees.get(1).getId();
+        final var second = employees.get(5).getId();
+
+        mockMvc.perform(delete("/api/v1/employee/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[\"%s\",\"%s\",\"%s\"]}".formatted(second, UUID.randomUUID(), first)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(2)))
+                .andExpect(jsonPath("$.data[0].id").value(second.toString()))
+                .andExpect(jsonPath("$.data[1].id").value(first.toString()));
+
+        assertThat(store.size()).isEqualTo(employees.size() - 2);
+    }
+
+    @Test
+    void rejectsABatchOfIdsLargerThanTheLimit() throws Exception {
+        final var tooMany = IntStream.rangeClosed(0, CreateMockEmployeesInput.MAX_BATCH_SIZE)
+                .mapToObj(i -> "\"" + employees.get(i % employees.size()).getId() + "\"")
+                .toList();
+
+        mockMvc.perform(delete("/api/v1/employee/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[" + String.join(",", tooMany) + "]}"))
+                .andExpect(status().isBadRequest());
+
+        assertThat(store.size()).isEqualTo(employees.size());
+    }
+
+    private String etagOf(String path) throws Exception {
+        return mockMvc.perform(get(path)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private static String newEmployee(String name) {
+        return "{\"name\":\"%s\",\"salary\":1,\"age\":30,\"title\":\"Title\"}".formatted(name);
+    }
+
+    private static String batch(String... employees) {
+        return "{\"employees\":[" + String.join(",", employees) + "]}";
+    }
+
+    private static MockEmployee employee(int number, String name) {
+        return MockEmployee.builder()
+                .id(new UUID(0, number))
+                .name(name)
+                .salary(1_000 * number)
+                .age(30)
+                .title("Title " + number)
+                .email("employee" + number + "@company.com")
+                .build();
+    }
+}
@@ -0,0 +1,194 @@
+package com.reliaquest.server.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.reliaquest.server.model.MockEmployee;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MockEmployeePersistenceTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void loadsNothingWhenNothingHasBeenPersisted() {
+        try (final var persistence = new MockEmployeePersistence(directory, false)) {
+            assertThat(persistence.load()).isEmpty();
+        }
+    }
+
+    @Test
+    void readsBackTheSnapshotItWrote() {
+        final var employees = List.of(
+                employee(1, "Tiger Nixon", 320_800),
+                MockEmployee.builder().id(new UUID(0, 2)).build(),
+                employee(3, "Zo\u00eb \u00dcnal \u65e5\u672c \ud83d\ude00", 1),
+                // bigger than the write buffer on its own
+                employee(4, "x".repeat(100_000), 2));
+        try (final var persistence = new MockEmployeePersistence(directory, false)) {
+            persistence.writeSnapshot(employees);
+        }
+
+        try (final var persistence = new MockEmployeePersistence(directory, false)) {
+            assertThat(persistence.load()).contains(employees);
+        }
+        assertThat(directory.resolve("employees.snapshot.tmp")).doesNotExist();
+    }
+
+    @Test
+    void replaysTheLogOnTopOfTheSnapshot() {
+        final var first = employee(1, "one", 100);
+        final var second = employee(2, "two", 200);
+        final var third = employee(3, "three", 300);
+        final var created = employee(4, "four", 400);
+        try (final var persistence = new MockEmployeePersistence(directory, true)) {
+            persistence.writeSnapshot(List.of(first, second, third));
+            persistence.created(created);
+            persistence.deleted(second);
+        }
+
+        try (final var persistence = new MockEmployeePersistence(directory, false)) {
+            assertThat(persistence.load()).contains(List.of(first, third, created));
+        }
+    }
+
+    @Test
+    void writingASnapshotStartsANewLog() {
+        final var first = employee(1, "one", 100);
+        final var second = employee(2, "two", 200);
+        try (final var persistence = new MockEmployeePersistence(directory, false)) {
+            persistence.writeSnapshot(List.of(first));
+            persistence.created(second);
+            persistence.writeSnapshot(List.of(first, second));
+            assertThat(logFile()).doesNotExist();
+            persistence.deleted(first);
+        }
+
+        try (final var persistence = new MockEmployeePersistence(directory, false)) {
+            assertThat(persistence.load()).contains(List.of(second));
+        }
+    }
+
+    @Test
+    void dropsARecordCutShortAtTheEndOfTheLog() throws IOException {
+        final var first = employee(1, "one", 100);
+        final var second = employee(2, "two", 200);
+        final long intactLength;
+        try (final var persistence = new MockEmployeePersistence(directory, false)) {
+            persistence.writeSnapshot(List.of(first));
+            persistence.created(second);
+            intactLength = Files.size(logFile());
+            persistence.created(employee(3, "three", 300));
+        }
+        // a crash part way through writing the last record
+        try (final var channel = FileChannel.open(logFile(), StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(logFile()) - 5);
+        }
+
+        try (final var persistence = new MockEmployeePersistence(directory, false)) {
+            assertThat(persistence.load()).contains(List.of(first, second));
+        }
+        assertThat(Files.size(logFile())).isEqualTo(intactLength);
+
+        // what is appended afterwards is read back behind the intact records
+        final var fourth = employee(4, "four", 400);
+        try (final var persistence = new MockEmployeePersistence(directory, false)) {
+            persistence.created(fourth);
+        }
+        try (final var persistence = new MockEmployeePersistence(directory, false)) {
+            assertThat(persistence.load()).contains(List.of(first, second, fourth));
+        }
+    }
+
+    @Test
+    void compactsALongLogIntoASnapshotThatReplaysTheSame() {
+        final var expected = new ArrayList<MockEmployee>();
+        try (final var persistence = new MockEmployeePersistence(directory, false)) {
+            final var snapshot = IntStream.range(0, 10)
+                    .mapToObj(i -> employee(i, "snapshot " + i, i))
+                    .toList();
+            persistence.writeSnapshot(snapshot);
+            expected.addAll(snapshot);
+            for (int i = 10; i < 6_010; i++) {
+                final var created = employee(i, "logged " + i, i);
+                persistence.created(created);
+                expected.add(created);
+            }
+            for (int i = 0; i < 4_000; i++) {
+                persistence.deleted(expected.remove(0));
+            }
+        }
+
+        try (final var persistence = new MockEmployeePersistence(directory, false)) {
+            assertThat(persistence.load()).contains(expected);
+        }
+        assertThat(logFile()).doesNotExist();
+
+        final var created = employee(10_000, "after compaction", 1);
+        try (final var persistence = new MockEmployeePersistence(directory, false)) {
+            persistence.created(created);
+        }
+        expected.add(created);
+        try (final var persistence = new MockEmployeePersistence(directory, false)) {
+            assertThat(persistence.load()).contains(expected);
+        }
+    }
+
+    @Test
+    void truncatesADamagedLogAndCompactsItInTheSameLoad() throws IOException {
+        final var expected = new ArrayList<MockEmployee>();
+        try (final var persistence = new MockEmployeePersistence(directory, false)) {
+            final var snapshot = IntStream.range(0, 10)
+                    .mapToObj(i -> employee(i, "snapshot " + i, i))
+                    .toList();
+            persistence.writeSnapshot(snapshot);
+            expected.addAll(snapshot);
+            for (int i = 10; i < 10_010; i++) {
+                final var created = employee(i, "logged " + i, i);
+                persistence.created(created);
+                expected.add(created);
+            }
+            persistence.created(employee(10_010, "cut short", 1));
+        }
+        try (final var channel = FileChannel.open(logFile(), StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(logFile()) - 5);
+        }
+        final var snapshotBefore = Files.readAllBytes(directory.resolve("employees.snapshot"));
+
+        final List<MockEmployee> loaded;
+        try (final var persistence = new MockEmployeePersistence(directory, false)) {
+            loaded = persistence.load().orElseThrow();
+        }
+
+        // the log was replaced by a new snapshot, and what was loaded doesn't depend on the files it came from
+        assertThat(logFile()).doesNotExist();
+        assertThat(Files.readAllBytes(directory.resolve("employees.snapshot"))).isNotEqualTo(snapshotBefore);
+        Files.write(directory.resolve("employees.snapshot"), new byte[0]);
+        assertThat(loaded).isEqualTo(expected);
+    }
+
+    private Path logFile() {
+        return directory.resolve("employees.log");
+    }
+
+    private static MockEmployee employee(int number, String name, Integer salary) {
+        return MockEmployee.builder()
+                .id(new UUID(0, number))
+                .name(name)
+                .salary(salary)
+                .age(30)
+                .title("Title " + number)
+                .email("employee" + number + "@company.com")
+                .build();
+    }
+}
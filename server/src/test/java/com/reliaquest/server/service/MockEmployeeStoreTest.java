@@ -0,0 +1,204 @@
+package com.reliaquest.server.service;
+
+import static com.reliaquest.server.model.MockEmployeeChange.Type.CREATED;
+import static com.reliaquest.server.model.MockEmployeeChange.Type.DELETED;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.reliaquest.server.model.MockEmployee;
+import com.reliaquest.server.model.MockEmployeeChange;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class MockEmployeeStoreTest {
+
+    @Test
+    void pagingSeesEveryEmployeeOnceWhileOthersAreAddedAndDeleted() {
+        final var originals = IntStream.range(0, 2_000)
+                .mapToObj(i -> employee(i, "original " + i))
+                .toList();
+        final var store = new MockEmployeeStore(originals);
+        final var done = new AtomicBoolean();
+        // adds employees behind the originals and deletes them again, so the pages keep shifting under the reader
+        final var writer = CompletableFuture.runAsync(() -> {
+            int next = originals.size();
+            while (!done.get()) {
+                final var added = employee(next++, "added");
+                store.add(added);
+                if (next % 2 == 0) {
+                    store.removeById(added.getId());
+                }
+            }
+        });
+
+        final var seen = new ArrayList<MockEmployee>();
+        UUID after = null;
+        while (true) {
+            final var page = store.findPage(after, 7).orElseThrow();
+            seen.addAll(page);
+            if (page.size() < 7 || !page.get(page.size() - 1).getName().startsWith("original")) {
+                break;
+            }
+            after = page.get(page.size() - 1).getId();
+            // the cursor's own employee going away doesn't lose the reader's place
+            store.removeById(after);
+        }
+        done.set(true);
+        writer.join();
+
+        final var seenOriginals = seen.stream()
+                .filter(employee -> employee.getName().startsWith("original"))
+                .toList();
+        assertThat(seenOriginals).containsExactlyElementsOf(originals);
+        assertThat(new HashSet<>(seen)).hasSameSizeAs(seen);
+    }
+
+    @Test
+    void rejectsACursorItDoesNotKnow() {
+        final var store = new MockEmployeeStore(List.of(employee(1, "one")));
+
+        assertThat(store.findPage(new UUID(0, 2), 10)).isEmpty();
+    }
+
+    @Test
+    void replaysTheCreatesAndDeletesSinceAVersionInOrder() {
+        final var first = employee(1, "one");
+        final var second = employee(2, "two");
+        final var third = employee(3, "three");
+        final var store = new MockEmployeeStore(List.of(first));
+        store.add(second);
+        final long since = store.getVersion();
+        store.removeById(first.getId());
+        store.addAll(List.of(third, employee(4, "four")));
+        store.removeFirstByName("FOUR");
+
+        final var feed = store.findChangesSince(store.getEpoch(), since).orElseThrow();
+
+        assertThat(feed.epoch()).isEqualTo(store.getEpoch());
+        assertThat(feed.version()).isEqualTo(store.getVersion()).isEqualTo(5);
+        assertThat(feed.changes())
+                .extracting(MockEmployeeChange::version, MockEmployeeChange::type, change -> change.employee()
+                        .getName())
+                .containsExactly(
+                        tuple(2L, DELETED, "one"),
+                        tuple(3L, CREATED, "three"),
+                        tuple(4L, CREATED, "four"),
+                        tuple(5L, DELETED, "four"));
+        assertThat(store.findChangesSince(null, store.getVersion())
+                        .orElseThrow()
+                        .changes())
+                .isEmpty();
+    }
+
+    @Test
+    void cannotTellTheChangesForAnotherEpoch() {
+        final var store = new MockEmployeeStore(List.of());
+        store.add(employee(1, "one"));
+
+        assertThat(store.findChangesSince("not" + store.getEpoch(), 0)).isEmpty();
+        assertThat(store.findChangesSince(store.getEpoch(), 0)).isPresent();
+    }
+
+    @Test
+    void cannotTellTheChangesOnceTheyHaveDroppedOutOfTheLog() {
+        final var store = new MockEmployeeStore(List.of());
+        for (int i = 0; i <= 10_000; i++) {
+            store.add(employee(i, "employee " + i));
+        }
+
+        assertThat(store.findChangesSince(store.getEpoch(), 0)).isEmpty();
+        assertThat(store.findChangesSince(store.getEpoch(), 1).orElseThrow().changes())
+                .hasSize(10_000)
+                .first()
+                .extracting(MockEmployeeChange::version)
+                .isEqualTo(2L);
+    }
+
+    @Test
+    void cannotTellTheChangesSinceAVersionItHasNotReached() {
+        final var store = new MockEmployeeStore(List.of(employee(1, "one")));
+
+        assertThat(store.findChangesSince(store.getEpoch(), 1)).isEmpty();
+        assertThat(store.findChangesSince(store.getEpoch(), -1)).isEmpty();
+    }
+
+    @Test
+    void staysConsistentWhileManyThreadsReadAndWrite() throws Exception {
+        final var initial = IntStream.range(0, 1_000)
+                .mapToObj(i -> employee(i, "Employee " + i % 50))
+                .toList();
+        final var store = new MockEmployeeStore(initial);
+        final var created = new LongAdder();
+        final var deleted = new LongAdder();
+        final var nextNumber = new AtomicInteger(initial.size());
+        final var executor = Executors.newFixedThreadPool(16);
+        try {
+            final var tasks = new ArrayList<Callable<Void>>();
+            for (int thread = 0; thread < 16; thread++) {
+                tasks.add(() -> {
+                    final var random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 2_000; i++) {
+                        final var someId = new UUID(0, random.nextInt(nextNumber.get()));
+                        switch (random.nextInt(8)) {
+                            case 0 -> {
+                                store.add(employee(nextNumber.getAndIncrement(), "employee " + random.nextInt(50)));
+                                created.increment();
+                            }
+                            case 1 -> {
+                                store.addAll(List.of(
+                                        employee(nextNumber.getAndIncrement(), "EMPLOYEE " + random.nextInt(50)),
+                                        employee(nextNumber.getAndIncrement(), "Employee " + random.nextInt(50))));
+                                created.add(2);
+                            }
+                            case 2 -> store.removeFirstByName("Employee " + random.nextInt(50))
+                                    .ifPresent(ignored -> deleted.increment());
+                            case 3 -> store.removeById(someId).ifPresent(ignored -> deleted.increment());
+                            case 4 -> deleted.add(
+                                    store.removeByIds(List.of(someId, new UUID(0, random.nextInt(nextNumber.get()))))
+                                            .size());
+                            case 5 -> assertThat(store.findAll()).doesNotHaveDuplicates();
+                            case 6 -> store.findPage(someId, 20);
+                            default -> store.checkConsistency();
+                        }
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> result : executor.invokeAll(tasks)) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        store.checkConsistency();
+        assertThat(store.size()).isEqualTo(initial.size() + created.sum() - deleted.sum());
+        final var listed = store.findAll();
+        assertThat(listed).hasSize(store.size()).doesNotHaveDuplicates();
+        listed.forEach(employee -> assertThat(store.findById(employee.getId())).containsSame(employee));
+        assertThat(store.getVersion()).isEqualTo(created.sum() + deleted.sum());
+    }
+
+    private static MockEmployee employee(int number, String name) {
+        return MockEmployee.builder()
+                .id(new UUID(0, number))
+                .name(name)
+                .salary(number)
+                .age(30)
+                .title("Title " + number)
+                .email("employee" + number + "@company.com")
+                .build();
+    }
+}
@@ -0,0 +1,209 @@
+package com.reliaquest.server.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.reliaquest.server.controller.MockEmployeeController;
+import com.reliaquest.server.controller.MockEmployeeControllerAdvice;
+import com.reliaquest.server.model.MockEmployee;
+import com.reliaquest.server.model.MockEmployeeChange;
+import com.reliaquest.server.model.MockEmployeeChangeFeed;
+import com.reliaquest.server.service.MockEmployeeService;
+import com.reliaquest.server.service.MockEmployeeStore;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import net.datafaker.Faker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+class MockEmployeeChangeStreamsTest {
+
+    private static final int MAX_SUBSCRIBERS = 2;
+
+    /** The listeners currently subscribed to the store. */
+    private final Set<Consumer<MockEmployeeChange>> listeners = ConcurrentHashMap.newKeySet();
+
+    private final MockEmployeeStore store = new MockEmployeeStore(List.of()) {
+        @Override
+        public Optional<MockEmployeeChangeFeed> subscribe(
+                String epoch, long since, Consumer<MockEmployeeChange> listener) {
+            final var feed = super.subscribe(epoch, since, listener);
+            feed.ifPresent(ignored -> listeners.add(listener));
+            return feed;
+        }
+
+        @Override
+        public void unsubscribe(Consumer<MockEmployeeChange> listener) {
+            listeners.remove(listener);
+            super.unsubscribe(listener);
+        }
+    };
+
+    private MockEmployeeChangeStreams streams;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        streams = new MockEmployeeChangeStreams(store, MAX_SUBSCRIBERS);
+        final var controller = new MockEmployeeController(
+                new MockEmployeeService(new Faker(), store),
+                streams,
+                Jackson2ObjectMapperBuilder.json().build());
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new MockEmployeeControllerAdvice())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        streams.shutdown();
+    }
+
+    @Test
+    void sendsTheChangesSinceTheGivenVersionAndThenEachNewOne() throws Exception {
+        store.add(employee(1));
+        store.add(employee(2));
+
+        final var stream = open("1");
+        store.add(employee(3));
+
+        awaitContent(stream, "id:3\n");
+        assertThat(stream.getResponse().getContentAsString())
+                .doesNotContain("id:1\n")
+                .containsSubsequence("id:2\nevent:change\n", "id:3\nevent:change\n");
+    }
+
+    @Test
+    void resumesAfterTheLastEventId() throws Exception {
+        store.add(employee(1));
+        store.add(employee(2));
+        store.add(employee(3));
+
+        final var stream = mockMvc.perform(get("/api/v1/employee/changes/stream")
+                        .param("since", "0")
+                        .header("Last-Event-ID", "2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        awaitContent(stream, "id:3\n");
+        assertThat(stream.getResponse().getContentAsString()).doesNotContain("id:1\n", "id:2\n");
+    }
+
+    @Test
+    void cleansUpAStreamThatCompletes() throws Exception {
+        final var stream = open("0");
+        assertThat(streams.openStreams()).isEqualTo(1);
+        assertThat(listeners).hasSize(1);
+
+        asyncContext(stream).complete();
+
+        awaitClosed();
+    }
+
+    @Test
+    void cleansUpAStreamThatTimesOut() throws Exception {
+        final var stream = open("0");
+
+        for (AsyncListener listener : asyncContext(stream).getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext(stream)));
+        }
+
+        awaitClosed();
+    }
+
+    @Test
+    void cleansUpAStreamThatFails() throws Exception {
+        final var stream = open("0");
+
+        for (AsyncListener listener : asyncContext(stream).getListeners()) {
+            listener.onError(new AsyncEvent(asyncContext(stream), new IOException("Broken pipe")));
+        }
+
+        awaitClosed();
+    }
+
+    @Test
+    void turnsAwaySubscribersBeyondTheLimitUntilAStreamCloses() throws Exception {
+        final var first = open("0");
+        open("0");
+
+        mockMvc.perform(get("/api/v1/employee/changes/stream").param("since", "0"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.error").isNotEmpty());
+
+        asyncContext(first).complete();
+        await(() -> streams.openStreams() == 1);
+        open("0");
+    }
+
+    @Test
+    void freesThePlaceOfAStreamThatCannotBeOpened() throws Exception {
+        mockMvc.perform(get("/api/v1/employee/changes/stream").param("since", "1"))
+                .andExpect(status().isGone());
+
+        assertThat(streams.openStreams()).isZero();
+        assertThat(listeners).isEmpty();
+    }
+
+    private MvcResult open(String since) throws Exception {
+        return mockMvc.perform(get("/api/v1/employee/changes/stream").param("since", since))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private void awaitClosed() {
+        await(() -> streams.openStreams() == 0);
+        assertThat(listeners).isEmpty();
+    }
+
+    private static MockAsyncContext asyncContext(MvcResult result) {
+        return (MockAsyncContext) result.getRequest().getAsyncContext();
+    }
+
+    private static void awaitContent(MvcResult result, String expected) {
+        await(() -> {
+            try {
+                return result.getResponse().getContentAsString().contains(expected);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private static void await(BooleanSupplier condition) {
+        final long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+
+    private static MockEmployee employee(int number) {
+        return MockEmployee.builder()
+                .id(new UUID(0, number))
+                .name("Employee " + number)
+                .salary(number)
+                .age(30)
+                .title("Title " + number)
+                .email("employee" + number + "@company.com")
+                .build();
+    }
+}